@@ -0,0 +1,50 @@
+package com.teamviewer.orderenricher.benchmark;
+
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.Product;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Realistic fixtures modelled on the WireMock stubs.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Customer customer() {
+        return new Customer().id("CUST-456").name("John Doe").street("123 Main St").zip("12345").country("USA");
+    }
+
+    static List<Product> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Product()
+                        .id("PROD-" + i)
+                        .name("Wireless Keyboard " + i)
+                        .price(new BigDecimal("175.00").add(BigDecimal.valueOf(i)))
+                        .category(i % 2 == 0 ? "Accessories" : "Electronics")
+                        .tags(List.of("mechanical", "bluetooth", "wired")))
+                .collect(Collectors.toList());
+    }
+
+    static EnrichedOrderResponse order(String orderId, int productCount) {
+        List<Product> products = products(productCount);
+        return new EnrichedOrderResponse()
+                .orderId(orderId)
+                .timestamp(OffsetDateTime.parse("2025-08-13T04:01:00Z"))
+                .customer(customer())
+                .products(products)
+                .totalPrice(products.stream().map(Product::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    static List<EnrichedOrderResponse> orders(int orderCount, int productsPerOrder) {
+        // Mutable lists, as produced by the service, so the typed JSON codec can round-trip them
+        return IntStream.range(0, orderCount).mapToObj(i -> order("ORD-" + i, productsPerOrder)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,86 @@
+package com.teamviewer.orderenricher.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.mapper.OrderJsonWriter;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order cost of writing a stored order to the NDJSON stream: mapping it to a response and serializing
+ * that, against writing the entity directly with {@link OrderJsonWriter}. Both write to one long-lived
+ * generator, as the stream does; compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderJsonWriterBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int productCount;
+
+    private final OrderMapper mapper = new OrderMapper();
+    private ObjectWriter responseWriter;
+    private OrderJsonWriter orderJsonWriter;
+    private JsonGenerator generator;
+    private EnrichedOrder entity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        responseWriter = objectMapper.writerFor(EnrichedOrderResponse.class);
+        orderJsonWriter = new OrderJsonWriter(objectMapper);
+        generator = orderJsonWriter.createGenerator(OutputStream.nullOutputStream());
+        List<Product> products = BenchmarkData.products(productCount);
+        OrderRequest request = new OrderRequest()
+                .orderId("ORD-1")
+                .customerId("CUST-1")
+                .productIds(products.stream().map(Product::getId).toList())
+                .timestamp(OffsetDateTime.parse("2025-08-13T04:01:00Z"));
+        entity = mapper.toEntity(request, BenchmarkData.customer(), products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    @Benchmark
+    public void viaResponse() throws IOException {
+        responseWriter.writeValue(generator, mapper.toApi(entity));
+        generator.flush();
+    }
+
+    @Benchmark
+    public void streaming() throws IOException {
+        orderJsonWriter.write(entity, generator);
+        generator.flush();
+    }
+}
@@ -0,0 +1,74 @@
+package com.teamviewer.orderenricher.benchmark;
+
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order CPU cost of mapping between the API and entity models, and of the total price reduction
+ * that {@code toEntity} performs, for orders of 1 to 200 products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMapperBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int productCount;
+
+    private final OrderMapper mapper = new OrderMapper();
+    private OrderRequest request;
+    private Customer customer;
+    private List<Product> products;
+    private EnrichedOrder entity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchmarkData.products(productCount);
+        customer = BenchmarkData.customer();
+        request = new OrderRequest()
+                .orderId("ORD-1")
+                .customerId(customer.getId())
+                .productIds(products.stream().map(Product::getId).toList())
+                .timestamp(OffsetDateTime.parse("2025-08-13T04:01:00Z"));
+        entity = mapper.toEntity(request, customer, products);
+    }
+
+    @Benchmark
+    public EnrichedOrder toEntity() {
+        return mapper.toEntity(request, customer, products);
+    }
+
+    @Benchmark
+    public EnrichedOrderResponse toApi() {
+        return mapper.toApi(entity);
+    }
+
+    @Benchmark
+    public BigDecimal totalPrice() {
+        return mapper.totalPrice(products);
+    }
+}
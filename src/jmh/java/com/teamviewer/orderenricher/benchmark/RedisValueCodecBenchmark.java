@@ -0,0 +1,68 @@
+package com.teamviewer.orderenricher.benchmark;
+
+import com.teamviewer.orderenricher.cache.EnrichedOrderRedisSerializer;
+import com.teamviewer.orderenricher.config.RedisConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of cached {@code orders} values: the previous JSON codec with default typing
+ * against the binary codec, with and without compression. Encoded sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisValueCodecBenchmark {
+
+    @Param({"json", "binary", "binary-deflate"})
+    public String codec;
+
+    @Param({"1", "20", "200"})
+    public int productsPerOrder;
+
+    // A getOrders list of 50 orders
+    private List<?> value;
+    private RedisSerializer<Object> serializer;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisSerializer<Object> json = RedisConfig.jsonValueSerializer();
+        serializer = switch (codec) {
+            case "json" -> json;
+            case "binary" -> new EnrichedOrderRedisSerializer(json, 0);
+            case "binary-deflate" -> new EnrichedOrderRedisSerializer(json, 1024);
+            default -> throw new IllegalArgumentException(codec);
+        };
+        value = BenchmarkData.orders(50, productsPerOrder);
+        encoded = serializer.serialize(value);
+        System.out.printf("%n[size] codec=%s productsPerOrder=%d encodedBytes=%d%n", codec, productsPerOrder, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
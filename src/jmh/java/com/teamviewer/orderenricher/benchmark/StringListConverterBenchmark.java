@@ -0,0 +1,60 @@
+package com.teamviewer.orderenricher.benchmark;
+
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.domain.converter.StringListConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the tag column conversion for all products of one order, in both directions: writing an order
+ * joins every product's tags, reading it back splits them again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringListConverterBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int productCount;
+
+    private final StringListConverter converter = new StringListConverter();
+    private List<List<String>> tags;
+    private List<String> columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tags = BenchmarkData.products(productCount).stream().map(Product::getTags).toList();
+        columns = tags.stream().map(converter::convertToDatabaseColumn).toList();
+    }
+
+    @Benchmark
+    public void toDatabaseColumn(Blackhole blackhole) {
+        for (List<String> productTags : tags) {
+            blackhole.consume(converter.convertToDatabaseColumn(productTags));
+        }
+    }
+
+    @Benchmark
+    public void toEntityAttribute(Blackhole blackhole) {
+        for (String column : columns) {
+            blackhole.consume(converter.convertToEntityAttribute(column));
+        }
+    }
+}
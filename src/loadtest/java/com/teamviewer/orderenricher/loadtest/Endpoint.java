@@ -0,0 +1,18 @@
+package com.teamviewer.orderenricher.loadtest;
+
+/**
+ * Endpoints the harness drives. The key names the endpoint in the mix, SLO and report settings.
+ */
+enum Endpoint {
+    CREATE_ORDER("create-order", "POST /orders"),
+    GET_ORDER("get-order", "GET /orders/{orderId}"),
+    LIST_ORDERS("list-orders", "GET /orders");
+
+    final String key;
+    final String label;
+
+    Endpoint(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+}
@@ -0,0 +1,114 @@
+package com.teamviewer.orderenricher.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Response times and errors per endpoint. Times are recorded in microseconds, as measured by the generator from
+ * each request's intended start; a request that failed or timed out counts as an error and is recorded as well,
+ * so failures cannot make the percentiles look better.
+ */
+final class LatencyReport {
+
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+    LatencyReport() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    void record(Endpoint endpoint, long latencyNanos, boolean failed) {
+        histograms.get(endpoint).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_MICROS));
+        if (failed) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    void print(PrintStream out, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        out.printf("%n%-24s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("%-24s %9d %7d %9.1f", endpoint.label, histogram.getTotalCount(), errors.get(endpoint).sum(),
+                    histogram.getTotalCount() / seconds);
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", millis(histogram.getValueAtPercentile(percentile)));
+            }
+            out.printf(" %9.2f%n", millis(histogram.getMaxValue()));
+        }
+    }
+
+    /**
+     * Writes each endpoint's full distribution in HdrHistogram's text format, in milliseconds.
+     */
+    void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            if (histogram.getTotalCount() > 0) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(endpoint.key + ".hgrm")))) {
+                    histogram.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Every threshold the run exceeded; empty when it met all of them.
+     */
+    List<String> breaches(Map<Endpoint, Map<Double, Duration>> slos, double maxErrorRate) {
+        List<String> breaches = new ArrayList<>();
+        long requests = 0;
+        long failed = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            requests += histogram.getTotalCount();
+            failed += errors.get(endpoint).sum();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            slos.get(endpoint).forEach((percentile, threshold) -> {
+                long micros = histogram.getValueAtPercentile(percentile);
+                if (micros > TimeUnit.NANOSECONDS.toMicros(threshold.toNanos())) {
+                    breaches.add(String.format("%s p%s is %.2f ms, above %d ms", endpoint.label,
+                            percentileLabel(percentile), millis(micros), threshold.toMillis()));
+                }
+            });
+        }
+        double errorRate = requests == 0 ? 0 : (double) failed / requests;
+        if (errorRate > maxErrorRate) {
+            breaches.add(String.format("%.2f%% of requests failed, above %.2f%%", errorRate * 100, maxErrorRate * 100));
+        }
+        return breaches;
+    }
+
+    private static String percentileLabel(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.teamviewer.orderenricher.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Settings of a run: the defaults in {@code loadtest.properties}, overridden by {@code key=value} arguments.
+ */
+final class LoadTestConfig {
+
+    private static final String SLO_PREFIX = "slo.";
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestConfig load(String... args) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (defaults != null) {
+                properties.load(defaults);
+            }
+        }
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+            }
+            properties.setProperty(arg.substring(0, separator).strip(), arg.substring(separator + 1).strip());
+        }
+        return new LoadTestConfig(properties);
+    }
+
+    Optional<String> optional(String key) {
+        return Optional.ofNullable(properties.getProperty(key)).map(String::strip).filter(value -> !value.isEmpty());
+    }
+
+    String string(String key) {
+        return optional(key).orElseThrow(() -> new IllegalArgumentException("Missing setting '" + key + "'"));
+    }
+
+    int integer(String key) {
+        return Integer.parseInt(string(key));
+    }
+
+    double number(String key) {
+        return Double.parseDouble(string(key));
+    }
+
+    Duration duration(String key) {
+        return DurationStyle.detectAndParse(string(key));
+    }
+
+    /**
+     * Latency thresholds by endpoint and percentile, from keys like {@code slo.create-order.p999=1s}.
+     */
+    Map<Endpoint, Map<Double, Duration>> slos() {
+        Map<Endpoint, Map<Double, Duration>> slos = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            String prefix = SLO_PREFIX + endpoint.key + ".p";
+            Map<Double, Duration> thresholds = new TreeMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(prefix) && optional(key).isPresent()) {
+                    thresholds.put(percentile(key.substring(prefix.length())), duration(key));
+                }
+            }
+            slos.put(endpoint, thresholds);
+        }
+        return slos;
+    }
+
+    // p50 -> 50, p99 -> 99, p999 -> 99.9, p9999 -> 99.99
+    static double percentile(String digits) {
+        if (!digits.matches("\\d{2,}")) {
+            throw new IllegalArgumentException("Expected a percentile like p99 or p999 but got 'p" + digits + "'");
+        }
+        return digits.length() == 2 ? Double.parseDouble(digits)
+                : Double.parseDouble(digits.substring(0, 2) + "." + digits.substring(2));
+    }
+}
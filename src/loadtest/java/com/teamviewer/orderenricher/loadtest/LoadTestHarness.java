@@ -0,0 +1,44 @@
+package com.teamviewer.orderenricher.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Entry point of the load test, run with {@code mvn -Ploadtest test-compile exec:exec}. Settings come from
+ * {@code loadtest.properties} and can be overridden as {@code key=value} arguments (see that file for all keys).
+ * The process exits with status 1 when an SLO is breached, which fails the Maven build.
+ */
+public final class LoadTestHarness {
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load(args);
+        List<String> breaches;
+        // Without a target the stand-ins are started here; try-with-resources skips a null resource
+        try (StandIns standIns = config.optional("target").isEmpty() ? StandIns.start(config) : null) {
+            URI target = standIns != null ? standIns.appUrl() : URI.create(config.string("target"));
+            System.out.printf("Load testing %s at %s requests/s (%s arrivals) for %s after a %s warmup%n",
+                    target, config.string("rate"), config.string("arrivals"), config.string("duration"),
+                    config.string("warmup"));
+
+            OpenModelLoadGenerator.Result result = new OpenModelLoadGenerator(config, new RequestSource(config, target)).run();
+            result.report().print(System.out, result.measured());
+            Path reportDir = Path.of(config.string("report-dir"));
+            result.report().writeHistograms(reportDir);
+            System.out.printf("%nScheduler fell behind by at most %d ms; distributions written to %s%n",
+                    result.maxSchedulingLag().toMillis(), reportDir.toAbsolutePath());
+            breaches = result.report().breaches(config.slos(), config.number("max-error-rate"));
+        }
+
+        if (breaches.isEmpty()) {
+            System.out.println("All SLOs met.");
+            System.exit(0);
+        }
+        System.out.println("SLOs breached:");
+        breaches.forEach(breach -> System.out.println("  " + breach));
+        System.exit(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.teamviewer.orderenricher.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests on an open model: arrivals follow a fixed schedule at the configured rate, independent of how
+ * fast the app answers, the way independent users arrive. A closed-loop client that waits for each response
+ * before sending the next one slows down exactly when the app does and so never measures the queueing it
+ * would have seen (coordinated omission). Here every latency is taken from the request's scheduled start, so
+ * time a request spent waiting behind a stalled one, or behind a late scheduler, counts against the app.
+ */
+final class OpenModelLoadGenerator {
+
+    /**
+     * Result of the measured window; requests sent during warmup are not part of it.
+     */
+    record Result(LatencyReport report, Duration measured, Duration maxSchedulingLag) {
+    }
+
+    private final RequestSource source;
+    private final double rate;
+    private final boolean poisson;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration requestTimeout;
+    private final SplittableRandom random;
+
+    OpenModelLoadGenerator(LoadTestConfig config, RequestSource source) {
+        this.source = source;
+        this.rate = config.number("rate");
+        this.poisson = switch (config.string("arrivals")) {
+            case "poisson" -> true;
+            case "uniform" -> false;
+            default -> throw new IllegalArgumentException("arrivals must be poisson or uniform");
+        };
+        this.warmup = config.duration("warmup");
+        this.duration = config.duration("duration");
+        this.requestTimeout = config.duration("request-timeout");
+        this.random = new SplittableRandom(config.integer("seed"));
+    }
+
+    Result run() throws InterruptedException {
+        LatencyReport warmupReport = new LatencyReport();
+        LatencyReport report = new LatencyReport();
+        AtomicInteger inFlight = new AtomicInteger();
+        long maxLagNanos = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(requestTimeout)
+                    .build();
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            for (long scheduled = start; scheduled < end; scheduled += nextInterval()) {
+                long lag = parkUntil(scheduled);
+                LatencyReport target = scheduled < measureFrom ? warmupReport : report;
+                if (target == report) {
+                    maxLagNanos = Math.max(maxLagNanos, lag);
+                }
+                RequestSource.LoadRequest request = source.next();
+                long intendedStart = scheduled;
+                inFlight.incrementAndGet();
+                client.sendAsync(request.request(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            boolean failed = failure != null || response.statusCode() >= 400;
+                            target.record(request.endpoint(), System.nanoTime() - intendedStart, failed);
+                            if (!failed && request.endpoint() == Endpoint.CREATE_ORDER) {
+                                source.created(request.orderId());
+                            }
+                            inFlight.decrementAndGet();
+                        });
+            }
+            // Requests still open when the schedule ends belong to the run; each finishes within its timeout
+            long drainBy = System.nanoTime() + requestTimeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+            while (inFlight.get() > 0 && System.nanoTime() < drainBy) {
+                Thread.sleep(10);
+            }
+        }
+        return new Result(report, duration, Duration.ofNanos(maxLagNanos));
+    }
+
+    private long nextInterval() {
+        double meanNanos = 1e9 / rate;
+        // Exponential gaps give Poisson arrivals, which unlike even spacing also produce the bursts real traffic has
+        return (long) (poisson ? -Math.log(1 - random.nextDouble()) * meanNanos : meanNanos);
+    }
+
+    // Returns how late the scheduler woke up, for the report
+    private static long parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+        return -remaining;
+    }
+}
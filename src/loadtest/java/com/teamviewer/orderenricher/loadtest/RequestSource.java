@@ -0,0 +1,170 @@
+package com.teamviewer.orderenricher.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Builds the next request of the mix. Orders are either replayed from a JSONL file of {@code POST /orders} bodies,
+ * with the order ID suffixed so that every replay creates a new order, or generated over the synthetic catalogue.
+ * Reads look up orders this run has created; until there are any, or when the one picked is still being
+ * recorded, they are sent as creates instead.
+ *
+ * <p>{@link #next()} is only called from the scheduling thread; {@link #created(String)} from any thread.
+ */
+final class RequestSource {
+
+    record LoadRequest(Endpoint endpoint, HttpRequest request, String orderId) {
+    }
+
+    private static final int RECENT_ORDERS = 4096;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI baseUri;
+    private final Duration requestTimeout;
+    private final SplittableRandom random;
+    private final Endpoint[] endpoints = Endpoint.values();
+    private final double[] cumulativeWeights = new double[endpoints.length];
+    private final List<ObjectNode> recorded;
+    private final List<String> customerIds;
+    private final int products;
+    private final int maxProducts;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReferenceArray<String> recentOrders = new AtomicReferenceArray<>(RECENT_ORDERS);
+    private final AtomicLong createdOrders = new AtomicLong();
+    private long sequence;
+
+    RequestSource(LoadTestConfig config, URI target) throws IOException {
+        this.baseUri = URI.create(target.toString().replaceAll("/+$", "") + "/v1/");
+        this.requestTimeout = config.duration("request-timeout");
+        this.random = new SplittableRandom(config.integer("seed"));
+        double total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += config.number("mix." + endpoints[i].key);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one mix.<endpoint> weight must be positive");
+        }
+        this.recorded = config.optional("requests-file").map(this::readOrders).orElse(List.of());
+        this.customerIds = recorded.isEmpty() ? syntheticCustomers(config.integer("synthetic.customers"))
+                : recorded.stream().map(order -> order.path("customerId").asText()).distinct().toList();
+        this.products = config.integer("synthetic.products");
+        this.maxProducts = config.integer("synthetic.max-products");
+    }
+
+    LoadRequest next() {
+        double pick = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        Endpoint endpoint = endpoints[endpoints.length - 1];
+        for (int i = 0; i < endpoints.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                endpoint = endpoints[i];
+                break;
+            }
+        }
+        return switch (endpoint) {
+            case CREATE_ORDER -> createOrder();
+            case GET_ORDER -> createdOrders.get() == 0 ? createOrder() : getOrder();
+            case LIST_ORDERS -> listOrders();
+        };
+    }
+
+    void created(String orderId) {
+        recentOrders.set((int) (createdOrders.getAndIncrement() % RECENT_ORDERS), orderId);
+    }
+
+    private LoadRequest createOrder() {
+        long n = sequence++;
+        ObjectNode order = recorded.isEmpty() ? syntheticOrder() : recorded.get((int) (n % recorded.size())).deepCopy();
+        String orderId = (recorded.isEmpty() ? "LT" : order.path("orderId").asText()) + "-" + runId + "-" + n;
+        order.put("orderId", orderId);
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(order);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize order " + orderId, ex);
+        }
+        HttpRequest request = request("orders")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return new LoadRequest(Endpoint.CREATE_ORDER, request, orderId);
+    }
+
+    private LoadRequest getOrder() {
+        int known = (int) Math.min(createdOrders.get(), RECENT_ORDERS);
+        String orderId = recentOrders.get(random.nextInt(known));
+        if (orderId == null) {
+            // created() counts an order before it fills the slot, so a slot may still be empty
+            return createOrder();
+        }
+        return new LoadRequest(Endpoint.GET_ORDER, request("orders/" + encode(orderId)).GET().build(), orderId);
+    }
+
+    private LoadRequest listOrders() {
+        String customerId = customerIds.get(random.nextInt(customerIds.size()));
+        HttpRequest request = request("orders?customerId=" + encode(customerId)).GET().build();
+        return new LoadRequest(Endpoint.LIST_ORDERS, request, null);
+    }
+
+    private ObjectNode syntheticOrder() {
+        ObjectNode order = objectMapper.createObjectNode()
+                .put("customerId", customerIds.get(random.nextInt(customerIds.size())))
+                .put("timestamp", Instant.now().toString());
+        var productIds = order.putArray("productIds");
+        int count = 1 + random.nextInt(maxProducts);
+        for (int i = 0; i < count; i++) {
+            productIds.add(SyntheticCatalogue.productId(random.nextInt(products)));
+        }
+        return order;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(requestTimeout);
+    }
+
+    private List<ObjectNode> readOrders(String file) {
+        List<ObjectNode> orders = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(Path.of(file))) {
+                if (!line.isBlank()) {
+                    orders.add((ObjectNode) objectMapper.readTree(line));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read orders from " + file, ex);
+        }
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException(file + " holds no orders");
+        }
+        return orders;
+    }
+
+    private static List<String> syntheticCustomers(int customers) {
+        List<String> customerIds = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            customerIds.add(SyntheticCatalogue.customerId(i));
+        }
+        return customerIds;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
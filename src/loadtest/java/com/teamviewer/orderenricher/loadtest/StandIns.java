@@ -0,0 +1,104 @@
+package com.teamviewer.orderenricher.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.global.GlobalSettings;
+import com.github.tomakehurst.wiremock.http.LogNormal;
+import com.teamviewer.orderenricher.OrderEnricherServiceApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * The app started in-process against embedded Postgres and Redis and a WireMock server holding the stub
+ * mappings, so a run needs neither Docker nor the real downstream services. Every stubbed response is delayed
+ * by a log-normal latency, the long-tailed shape real services show, instead of answering instantly.
+ */
+final class StandIns implements AutoCloseable {
+
+    private final List<AutoCloseable> started = new ArrayList<>();
+    private URI appUrl;
+
+    static StandIns start(LoadTestConfig config) throws Exception {
+        StandIns standIns = new StandIns();
+        try {
+            standIns.startAll(config);
+        } catch (Exception ex) {
+            standIns.close();
+            throw ex;
+        }
+        return standIns;
+    }
+
+    URI appUrl() {
+        return appUrl;
+    }
+
+    private void startAll(LoadTestConfig config) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.start();
+        started.add(postgres);
+
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        started.add(redis::stop);
+
+        SyntheticCatalogue catalogue = new SyntheticCatalogue();
+        WireMockServer wireMock = new WireMockServer(options()
+                .dynamicPort()
+                .containerThreads(200)
+                .usingFilesUnderDirectory(config.string("stubs-dir"))
+                .extensions(catalogue));
+        wireMock.start();
+        started.add(wireMock::stop);
+        wireMock.updateGlobalSettings(GlobalSettings.builder()
+                .delayDistribution(new LogNormal(config.duration("downstream.latency-median").toMillis(),
+                        config.number("downstream.latency-sigma")))
+                .build());
+        catalogue.register(wireMock);
+        System.out.printf("Stand-ins: Postgres on port %d, Redis on port %d, downstream stubs at %s%n",
+                postgres.getPort(), redisPort, wireMock.baseUrl());
+
+        // Command-line arguments, as they outrank the placeholders in application.yml
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(OrderEnricherServiceApplication.class)
+                .profiles(config.optional("profiles").map(profiles -> profiles.split(",")).orElse(new String[0]))
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--reactive.database.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                        "--reactive.database.username=postgres",
+                        "--reactive.database.password=",
+                        "--spring.data.redis.host=localhost",
+                        "--spring.data.redis.port=" + redisPort,
+                        "--clients.customer-service.url=" + wireMock.baseUrl(),
+                        "--clients.product-service.url=" + wireMock.baseUrl(),
+                        "--logging.level.root=WARN");
+        started.add(app);
+        appUrl = URI.create("http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        // Reverse start order: the app goes before the services it is connected to
+        for (int i = started.size() - 1; i >= 0; i--) {
+            started.get(i).close();
+        }
+        started.clear();
+    }
+}
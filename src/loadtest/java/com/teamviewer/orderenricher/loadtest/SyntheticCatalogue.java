@@ -0,0 +1,115 @@
+package com.teamviewer.orderenricher.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+
+/**
+ * Reference data for synthetic orders. The stub mappings only know a handful of customers and products, so the
+ * harness answers {@code LT-CUST-n} and {@code LT-PROD-n} lookups, single and batched, from this generator
+ * instead. The data is derived from the ID, so repeated lookups agree and the app's caches behave as in production.
+ */
+final class SyntheticCatalogue implements ResponseDefinitionTransformerV2 {
+
+    static final String CUSTOMER_PREFIX = "LT-CUST-";
+    static final String PRODUCT_PREFIX = "LT-PROD-";
+
+    private static final String NAME = "synthetic-catalogue";
+    private static final List<String> CATEGORIES = List.of("Electronics", "Accessories", "Office", "Software", "Furniture");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    static String customerId(int n) {
+        return CUSTOMER_PREFIX + n;
+    }
+
+    static String productId(int n) {
+        return PRODUCT_PREFIX + n;
+    }
+
+    /**
+     * Routes synthetic IDs to this transformer. The priority beats the catch-all batch stub of the mappings.
+     */
+    void register(WireMockServer wireMock) {
+        wireMock.stubFor(get(urlPathMatching("/customers/" + CUSTOMER_PREFIX + "\\d+")).atPriority(1)
+                .willReturn(aResponse().withTransformers(NAME)));
+        wireMock.stubFor(get(urlPathMatching("/products/" + PRODUCT_PREFIX + "\\d+")).atPriority(1)
+                .willReturn(aResponse().withTransformers(NAME)));
+        wireMock.stubFor(get(urlPathEqualTo("/products")).atPriority(1)
+                .withQueryParam("ids", matching(PRODUCT_PREFIX + "\\d+"))
+                .willReturn(aResponse().withTransformers(NAME)));
+    }
+
+    @Override
+    public ResponseDefinition transform(ServeEvent serveEvent) {
+        String path = serveEvent.getRequest().getUrl().split("\\?", 2)[0];
+        Object body;
+        if (path.startsWith("/customers/")) {
+            body = customer(path.substring("/customers/".length()));
+        } else if (path.startsWith("/products/")) {
+            body = product(path.substring("/products/".length()));
+        } else {
+            ArrayNode products = objectMapper.createArrayNode();
+            for (String productId : serveEvent.getRequest().queryParameter("ids").values()) {
+                products.add(product(productId));
+            }
+            body = products;
+        }
+        return aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody(body.toString())
+                .build();
+    }
+
+    private ObjectNode customer(String customerId) {
+        int n = number(customerId, CUSTOMER_PREFIX);
+        return objectMapper.createObjectNode()
+                .put("id", customerId)
+                .put("name", "Load Test Customer " + n)
+                .put("street", n + " Benchmark Road")
+                .put("zip", String.format("%05d", n % 100_000))
+                .put("country", n % 2 == 0 ? "Germany" : "USA");
+    }
+
+    private ObjectNode product(String productId) {
+        int n = number(productId, PRODUCT_PREFIX);
+        ObjectNode product = objectMapper.createObjectNode()
+                .put("id", productId)
+                .put("name", "Load Test Product " + n)
+                .put("price", BigDecimal.valueOf(100 + n % 99_900, 2))
+                .put("category", CATEGORIES.get(n % CATEGORIES.size()));
+        ArrayNode tags = product.putArray("tags");
+        for (int i = 0; i < 1 + n % 4; i++) {
+            tags.add("tag-" + (n + i) % 50);
+        }
+        return product;
+    }
+
+    private static int number(String id, String prefix) {
+        return Integer.parseInt(id.substring(prefix.length()));
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
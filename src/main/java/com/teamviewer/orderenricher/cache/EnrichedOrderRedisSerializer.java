@@ -0,0 +1,408 @@
+package com.teamviewer.orderenricher.cache;
+
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.Product;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Schema-specific binary codec for the values of the {@code orders} cache.
+ * <p>
+ * Layout: a magic byte, a format version, a flags byte and then the payload. Numbers and lengths are varints,
+ * strings are UTF-8, and no type metadata is written. Payloads at or above the compression threshold are deflated.
+ * <p>
+ * Values of any other type are handed to the fallback serializer. On read, anything without the magic byte
+ * (for example JSON written by an older release) is also decoded by the fallback. An unknown format version
+ * decodes to {@code null}, which Redis caching treats as a miss, so nodes running different releases never fail
+ * on each other's entries.
+ */
+public class EnrichedOrderRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+
+    private static final int FLAG_LIST = 1;
+    private static final int FLAG_COMPRESSED = 1 << 1;
+    private static final int HEADER_LENGTH = 3;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold minimum encoded size in bytes before the payload is deflated; {@code 0} or less disables compression
+     */
+    public EnrichedOrderRedisSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof EnrichedOrderResponse order) {
+            ByteWriter out = new ByteWriter(256);
+            writeOrder(out, order);
+            return finish(0, out);
+        }
+        if (value instanceof List<?> list && list.stream().allMatch(EnrichedOrderResponse.class::isInstance)) {
+            ByteWriter out = new ByteWriter(256 * Math.max(1, list.size()));
+            out.writeVarInt(list.size());
+            for (Object order : list) {
+                writeOrder(out, (EnrichedOrderResponse) order);
+            }
+            return finish(FLAG_LIST, out);
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] != VERSION) {
+            return null;
+        }
+        int flags = bytes[2];
+        try {
+            ByteReader in = (flags & FLAG_COMPRESSED) == 0
+                    ? new ByteReader(bytes, HEADER_LENGTH)
+                    : new ByteReader(inflate(bytes), 0);
+            if ((flags & FLAG_LIST) == 0) {
+                return readOrder(in);
+            }
+            int size = in.readVarInt();
+            List<EnrichedOrderResponse> orders = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                orders.add(readOrder(in));
+            }
+            return orders;
+        } catch (DataFormatException | RuntimeException ex) {
+            throw new SerializationException("Could not decode cached order value", ex);
+        }
+    }
+
+    // The writer reserves the header up front, so the uncompressed case needs no extra copy
+    private byte[] finish(int flags, ByteWriter out) {
+        byte[] bytes = out.toByteArray();
+        int payloadLength = bytes.length - HEADER_LENGTH;
+        if (compressionThreshold > 0 && payloadLength >= compressionThreshold) {
+            byte[] compressed = deflate(bytes, payloadLength);
+            if (compressed != null) {
+                bytes = compressed;
+                flags |= FLAG_COMPRESSED;
+            }
+        }
+        bytes[0] = MAGIC;
+        bytes[1] = VERSION;
+        bytes[2] = (byte) flags;
+        return bytes;
+    }
+
+    // Compressed payload: original length as varint, then the deflate stream. Returns null if deflating does not pay off.
+    private static byte[] deflate(byte[] bytes, int payloadLength) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes, HEADER_LENGTH, payloadLength);
+            deflater.finish();
+            ByteWriter out = new ByteWriter(payloadLength / 4);
+            out.writeVarInt(payloadLength);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.size() < bytes.length ? out.toByteArray() : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws DataFormatException {
+        ByteReader header = new ByteReader(bytes, HEADER_LENGTH);
+        int originalLength = header.readVarInt();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, header.position(), bytes.length - header.position());
+            byte[] payload = new byte[originalLength];
+            int read = 0;
+            while (read < originalLength && !inflater.finished()) {
+                read += inflater.inflate(payload, read, originalLength - read);
+            }
+            return payload;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeOrder(ByteWriter out, EnrichedOrderResponse order) {
+        out.writeString(order.getOrderId());
+        writeTimestamp(out, order.getTimestamp());
+        writeCustomer(out, order.getCustomer());
+        List<Product> products = order.getProducts();
+        if (products == null) {
+            out.writeVarInt(0);
+        } else {
+            out.writeVarInt(products.size() + 1);
+            for (Product product : products) {
+                writeProduct(out, product);
+            }
+        }
+        writeDecimal(out, order.getTotalPrice());
+    }
+
+    private static EnrichedOrderResponse readOrder(ByteReader in) {
+        EnrichedOrderResponse order = new EnrichedOrderResponse();
+        order.setOrderId(in.readString());
+        order.setTimestamp(readTimestamp(in));
+        order.setCustomer(readCustomer(in));
+        int productCount = in.readVarInt() - 1;
+        if (productCount >= 0) {
+            List<Product> products = new ArrayList<>(productCount);
+            for (int i = 0; i < productCount; i++) {
+                products.add(readProduct(in));
+            }
+            order.setProducts(products);
+        }
+        order.setTotalPrice(readDecimal(in));
+        return order;
+    }
+
+    private static void writeCustomer(ByteWriter out, Customer customer) {
+        out.writeBoolean(customer != null);
+        if (customer != null) {
+            out.writeString(customer.getId());
+            out.writeString(customer.getName());
+            out.writeString(customer.getStreet());
+            out.writeString(customer.getZip());
+            out.writeString(customer.getCountry());
+        }
+    }
+
+    private static Customer readCustomer(ByteReader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Customer()
+                .id(in.readString())
+                .name(in.readString())
+                .street(in.readString())
+                .zip(in.readString())
+                .country(in.readString());
+    }
+
+    private static void writeProduct(ByteWriter out, Product product) {
+        out.writeString(product.getId());
+        out.writeString(product.getName());
+        writeDecimal(out, product.getPrice());
+        out.writeString(product.getCategory());
+        List<String> tags = product.getTags();
+        if (tags == null) {
+            out.writeVarInt(0);
+        } else {
+            out.writeVarInt(tags.size() + 1);
+            for (String tag : tags) {
+                out.writeString(tag);
+            }
+        }
+    }
+
+    private static Product readProduct(ByteReader in) {
+        Product product = new Product()
+                .id(in.readString())
+                .name(in.readString())
+                .price(readDecimal(in))
+                .category(in.readString());
+        int tagCount = in.readVarInt() - 1;
+        if (tagCount >= 0) {
+            List<String> tags = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                tags.add(in.readString());
+            }
+            product.setTags(tags);
+        }
+        return product;
+    }
+
+    private static void writeDecimal(ByteWriter out, BigDecimal value) {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeVarLong(zigZag(value.scale()));
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() < 63) {
+                // Prices fit a long in practice; the length slot 0 marks the inline form
+                out.writeVarInt(0);
+                out.writeVarLong(zigZag(unscaled.longValue()));
+            } else {
+                byte[] bytes = unscaled.toByteArray();
+                out.writeVarInt(bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    private static BigDecimal readDecimal(ByteReader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = (int) unZigZag(in.readVarLong());
+        int length = in.readVarInt();
+        if (length == 0) {
+            return BigDecimal.valueOf(unZigZag(in.readVarLong()), scale);
+        }
+        return new BigDecimal(new BigInteger(in.readBytes(length)), scale);
+    }
+
+    private static void writeTimestamp(ByteWriter out, OffsetDateTime value) {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeVarLong(zigZag(value.toEpochSecond()));
+            out.writeVarInt(value.getNano());
+            out.writeVarLong(zigZag(value.getOffset().getTotalSeconds()));
+        }
+    }
+
+    private static OffsetDateTime readTimestamp(ByteReader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = unZigZag(in.readVarLong());
+        int nano = in.readVarInt();
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) unZigZag(in.readVarLong()));
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Unsynchronized growable buffer; starts after the header slot.
+     */
+    private static final class ByteWriter {
+        private byte[] buffer;
+        private int size = HEADER_LENGTH;
+
+        ByteWriter(int initialCapacity) {
+            buffer = new byte[Math.max(initialCapacity, 16)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeBoolean(boolean value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) (value ? 1 : 0);
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        // Strings are prefixed with length + 1 so that 0 can stand for null
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            write(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class ByteReader {
+        private final byte[] buffer;
+        private int position;
+
+        ByteReader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int position() {
+            return position;
+        }
+
+        boolean readBoolean() {
+            return buffer[position++] != 0;
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+
+        String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
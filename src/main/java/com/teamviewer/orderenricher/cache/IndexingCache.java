@@ -0,0 +1,86 @@
+package com.teamviewer.orderenricher.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator that records every stored {@link OrderListKey} and {@link OrderListEtagKey} in the {@link OrderCacheIndex}.
+ * The index is written after the entry so an eviction racing with the put can never leave an unindexed list behind for long.
+ */
+public class IndexingCache implements Cache {
+
+    private final Cache delegate;
+    private final OrderCacheIndex index;
+
+    public IndexingCache(Cache delegate, OrderCacheIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        register(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        register(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private void register(Object key) {
+        if (key instanceof OrderListKey listKey) {
+            index.register(listKey);
+        } else if (key instanceof OrderListEtagKey etagKey) {
+            index.register(etagKey.page(), etagKey.toString());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.teamviewer.orderenricher.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/**
+ * Redis cache manager whose {@code orders} cache keeps the {@link OrderCacheIndex} up to date.
+ */
+public class IndexingRedisCacheManager extends RedisCacheManager {
+
+    private final OrderCacheIndex index;
+
+    public IndexingRedisCacheManager(RedisCacheWriter cacheWriter, RedisCacheConfiguration defaultCacheConfiguration,
+                                     OrderCacheIndex index) {
+        super(cacheWriter, defaultCacheConfiguration);
+        this.index = index;
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        Cache decorated = OrderCacheIndex.CACHE_NAME.equals(cache.getName()) ? new IndexingCache(cache, index) : cache;
+        return super.decorateCache(decorated);
+    }
+}
@@ -0,0 +1,76 @@
+package com.teamviewer.orderenricher.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the in-heap L1 caches of all nodes consistent through Redis pub/sub.
+ * An invalidation drops the keys locally and is broadcast to the other nodes, which drop them as well.
+ * Messages are plain text: the sending node, the cache name and then one key per line; no keys means "everything".
+ */
+@Component
+@Slf4j
+public class NearCacheInvalidator implements MessageListener {
+
+    public static final String CHANNEL = "cache:invalidations";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Cache<String, Object>> localCaches = new ConcurrentHashMap<>();
+
+    public NearCacheInvalidator(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void register(String cacheName, Cache<String, Object> localCache) {
+        localCaches.put(cacheName, localCache);
+    }
+
+    public void invalidate(String cacheName, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        invalidateLocally(cacheName, keys);
+        redisTemplate.convertAndSend(CHANNEL, nodeId + "\n" + cacheName + "\n" + String.join("\n", keys));
+    }
+
+    public void invalidateAll(String cacheName) {
+        invalidateLocally(cacheName, List.of());
+        redisTemplate.convertAndSend(CHANNEL, nodeId + "\n" + cacheName);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+        if (lines.length < 2 || lines[0].equals(nodeId)) {
+            return;
+        }
+        List<String> keys = Arrays.asList(lines).subList(2, lines.length);
+        log.debug("Invalidating {} near-cache entries of '{}' on behalf of node {}", keys.size(), lines[1], lines[0]);
+        invalidateLocally(lines[1], keys);
+    }
+
+    private void invalidateLocally(String cacheName, Collection<String> keys) {
+        Cache<String, Object> localCache = localCaches.get(cacheName);
+        if (localCache == null) {
+            return;
+        }
+        if (keys.isEmpty()) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidateAll(keys);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.teamviewer.orderenricher.cache;
+
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Secondary index over the cached {@code getOrders} lists, kept in Redis.
+ * Every cached list key is recorded in one index set per filter combination, so a new order only
+ * evicts the lists it can appear in: the unfiltered list, its customer, each of its products and
+ * each customer/product pair. Single-order entries of other orders stay warm.
+ * The evicted keys are also broadcast so near caches drop them.
+ */
+@Component
+@Slf4j
+public class OrderCacheIndex {
+
+    public static final String CACHE_NAME = "orders";
+    private static final String INDEX_PREFIX = CACHE_NAME + ":index:";
+
+    // Deletes every list key found in the given index sets, the sets themselves and the orders' own entries,
+    // and returns the deleted cache keys. Runs atomically so a list cached concurrently is either evicted or still indexed afterwards.
+    // Iterates instead of unpacking KEYS so a bulk batch touching thousands of sets stays within Lua's stack limit.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> EVICT_SCRIPT = new DefaultRedisScript<>("""
+            local evicted = {}
+            for _, index in ipairs(KEYS) do
+                for _, member in ipairs(redis.call('SMEMBERS', index)) do
+                    redis.call('DEL', ARGV[1] .. member)
+                    table.insert(evicted, member)
+                end
+                redis.call('DEL', index)
+            end
+            for i = 2, #ARGV do
+                redis.call('DEL', ARGV[1] .. ARGV[i])
+                table.insert(evicted, ARGV[i])
+            end
+            return evicted
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final NearCacheInvalidator nearCacheInvalidator;
+    private final String keyPrefix;
+    private final Duration ttl;
+
+    public OrderCacheIndex(StringRedisTemplate redisTemplate, NearCacheInvalidator nearCacheInvalidator,
+                           CacheProperties cacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.nearCacheInvalidator = nearCacheInvalidator;
+        this.keyPrefix = CACHE_NAME + "::";
+        this.ttl = cacheProperties.getRedis().getTimeToLive();
+    }
+
+    /**
+     * Records a freshly cached list so later writes can find it.
+     */
+    public void register(OrderListKey key) {
+        register(key, key.toString());
+    }
+
+    /**
+     * Records a freshly cached entry that belongs to the list {@code key}, stored under {@code cacheKey}.
+     */
+    public void register(OrderListKey key, String cacheKey) {
+        String indexKey = indexKey(key);
+        redisTemplate.opsForSet().add(indexKey, cacheKey);
+        if (ttl != null) {
+            // The index never needs to outlive the entries it points to
+            redisTemplate.expire(indexKey, ttl);
+        }
+    }
+
+    /**
+     * Evicts the cached lists the order can appear in, once the surrounding transaction has committed.
+     */
+    public void evictAfterCommit(EnrichedOrder order) {
+        evictAfterCommit(List.of(order));
+    }
+
+    /**
+     * Evicts the cached lists any of the orders can appear in with a single round trip,
+     * once the surrounding transaction has committed.
+     */
+    public void evictAfterCommit(Collection<EnrichedOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(orders);
+                }
+            });
+        } else {
+            evict(orders);
+        }
+    }
+
+    void evict(EnrichedOrder order) {
+        evict(List.of(order));
+    }
+
+    void evict(Collection<EnrichedOrder> orders) {
+        Set<String> indexKeys = new LinkedHashSet<>();
+        indexKeys.add(indexKey(new OrderListKey(null, null)));
+        Object[] args = new Object[orders.size() + 1];
+        args[0] = keyPrefix;
+        int i = 1;
+        for (EnrichedOrder order : orders) {
+            args[i++] = order.getOrderId();
+            String customerId = order.getCustomer() != null ? order.getCustomer().getCustomerId() : null;
+            if (customerId != null) {
+                indexKeys.add(indexKey(new OrderListKey(customerId, null)));
+            }
+            if (order.getProducts() != null) {
+                for (ProductInfo product : order.getProducts()) {
+                    indexKeys.add(indexKey(new OrderListKey(null, product.getProductId())));
+                    if (customerId != null) {
+                        indexKeys.add(indexKey(new OrderListKey(customerId, product.getProductId())));
+                    }
+                }
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<String> evicted = redisTemplate.execute(EVICT_SCRIPT, List.copyOf(indexKeys), args);
+        if (evicted == null) {
+            return;
+        }
+        log.debug("Evicted {} cached entries for {} orders", evicted.size(), orders.size());
+        // Drop the same entries from the near caches of every node
+        nearCacheInvalidator.invalidate(CACHE_NAME, evicted);
+    }
+
+    static String indexKey(OrderListKey key) {
+        if (key.customerId() == null && key.productId() == null) {
+            return INDEX_PREFIX + "all";
+        }
+        if (key.productId() == null) {
+            return INDEX_PREFIX + "customer:" + key.customerId();
+        }
+        if (key.customerId() == null) {
+            return INDEX_PREFIX + "product:" + key.productId();
+        }
+        return INDEX_PREFIX + "customer-product:" + key.customerId() + ":" + key.productId();
+    }
+}
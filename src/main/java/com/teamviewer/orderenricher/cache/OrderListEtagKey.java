@@ -0,0 +1,13 @@
+package com.teamviewer.orderenricher.cache;
+
+/**
+ * Cache key for the ETag of a {@code getOrders} page. It lives next to the page in the orders cache and is
+ * indexed under the page's filter combination, so a new order evicts both together.
+ */
+public record OrderListEtagKey(OrderListKey page) {
+
+    @Override
+    public String toString() {
+        return page + ";etag";
+    }
+}
@@ -0,0 +1,33 @@
+package com.teamviewer.orderenricher.cache;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Cache key for {@code getOrders} pages. The string form is what ends up in Redis.
+ * Every page of a filter combination shares that combination's index set, so a new order evicts all of them.
+ */
+public record OrderListKey(String customerId, String productId, OffsetDateTime from, OffsetDateTime to,
+                           String cursor, Integer limit) {
+
+    /**
+     * Key for a filter combination as a whole, as used for the index sets.
+     */
+    public OrderListKey(String customerId, String productId) {
+        this(customerId, productId, null, null, null, null);
+    }
+
+    @Override
+    public String toString() {
+        String filters = "customerId=" + customerId + ";productId=" + productId;
+        if (limit == null) {
+            return filters;
+        }
+        return filters + ";from=" + instant(from) + ";to=" + instant(to) + ";cursor=" + cursor + ";limit=" + limit;
+    }
+
+    // The same instant in another offset is the same page
+    private static Instant instant(OffsetDateTime timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.teamviewer.orderenricher.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A bounded in-heap L1 in front of a shared Redis L2.
+ * L1 hits skip the network and deserialization entirely. Evictions go to L2 first and are then broadcast
+ * through the {@link NearCacheInvalidator} so no node keeps serving the stale L1 copy.
+ * Keys are held in L1 by their string form, which is also what identifies them in Redis and in invalidation messages.
+ * Lookups are counted in {@code cache.tiered.gets} by {@code tier} ({@code near}, {@code redis}) and {@code result};
+ * every near miss is followed by one Redis lookup, so the overall miss count is that of the Redis tier.
+ */
+public class TwoTierCache implements Cache {
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final NearCacheInvalidator invalidator;
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    public TwoTierCache(Cache remote, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                        NearCacheInvalidator invalidator, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.local = local;
+        this.invalidator = invalidator;
+        this.nearHits = gets(meterRegistry, remote.getName(), "near", "hit");
+        this.nearMisses = gets(meterRegistry, remote.getName(), "near", "miss");
+        this.remoteHits = gets(meterRegistry, remote.getName(), "redis", "hit");
+        this.remoteMisses = gets(meterRegistry, remote.getName(), "redis", "miss");
+        invalidator.register(remote.getName(), local);
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = local.getIfPresent(key.toString());
+        if (value != null) {
+            nearHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        nearMisses.increment();
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            local.put(key.toString(), wrapper.get());
+        } else {
+            remoteMisses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object value = local.getIfPresent(key.toString());
+        if (value != null && (type == null || type.isInstance(value))) {
+            nearHits.increment();
+            return (T) value;
+        }
+        nearMisses.increment();
+        T loaded = remote.get(key, type);
+        if (loaded != null) {
+            remoteHits.increment();
+            local.put(key.toString(), loaded);
+        } else {
+            remoteMisses.increment();
+        }
+        return loaded;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] nearMiss = new boolean[1];
+        T value = (T) local.get(key.toString(), k -> {
+            nearMiss[0] = true;
+            // Whether Redis had the value is not visible through the loader call, so only the near tier is counted
+            return remote.get(key, valueLoader);
+        });
+        (nearMiss[0] ? nearMisses : nearHits).increment();
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        if (value != null) {
+            local.put(key.toString(), value);
+        } else {
+            local.invalidate(key.toString());
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(key.toString());
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        invalidator.invalidate(getName(), List.of(key.toString()));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        invalidator.invalidate(getName(), List.of(key.toString()));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        invalidator.invalidateAll(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        invalidator.invalidateAll(getName());
+        return invalidated;
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String cacheName, String tier, String result) {
+        return Counter.builder("cache.tiered.gets")
+                .description("Lookups in each tier of a two-tier cache")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
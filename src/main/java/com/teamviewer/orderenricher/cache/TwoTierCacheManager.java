@@ -0,0 +1,51 @@
+package com.teamviewer.orderenricher.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every cache of the given Redis-backed manager in a {@link TwoTierCache}.
+ * The L1 TTL should stay well below the Redis TTL; it bounds how long a node can serve a value
+ * that was read from Redis just before a concurrent eviction.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final NearCacheInvalidator invalidator;
+    private final long maxEntries;
+    private final Duration ttl;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, NearCacheInvalidator invalidator,
+                               long maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidator = invalidator;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            return remote == null ? null : new TwoTierCache(remote, Caffeine.newBuilder()
+                    .maximumSize(maxEntries)
+                    .expireAfterWrite(ttl)
+                    .build(), invalidator, meterRegistry);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+}
@@ -0,0 +1,10 @@
+package com.teamviewer.orderenricher.client;
+
+/**
+ * Signals that the downstream service does not offer a bulk lookup endpoint.
+ */
+class BulkLookupUnsupportedException extends RuntimeException {
+    BulkLookupUnsupportedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -3,6 +3,7 @@ package com.teamviewer.orderenricher.client;
 import com.teamviewer.orderenricher.api.model.Customer;
 import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
 import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -13,25 +14,33 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class CustomerServiceClient {
     private final RestTemplate restTemplate;
+    private final DownstreamGuard guard;
+    private final RequestHedger hedger;
     private final String customerServiceUrl;
 
-    public CustomerServiceClient(RestTemplate restTemplate,
+    public CustomerServiceClient(@Qualifier("customerServiceRestTemplate") RestTemplate restTemplate,
+                                 @Qualifier("customerServiceGuard") DownstreamGuard guard,
+                                 @Qualifier("customerServiceHedger") RequestHedger hedger,
                                  @Value("${clients.customer-service.url}") String customerServiceUrl) {
         this.restTemplate = restTemplate;
+        this.guard = guard;
+        this.hedger = hedger;
         this.customerServiceUrl = customerServiceUrl;
     }
 
     public Customer getCustomerById(String customerId) {
         String url = customerServiceUrl + "/customers/{id}";
-        try {
-            return restTemplate.getForObject(url, Customer.class, customerId);
-        } catch (HttpClientErrorException ex) {
-            if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new ResourceNotFoundException("Customer with ID '" + customerId + "' not found.");
+        return hedger.call(() -> guard.call(() -> {
+            try {
+                return restTemplate.getForObject(url, Customer.class, customerId);
+            } catch (HttpClientErrorException ex) {
+                if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+                    throw new ResourceNotFoundException("Customer with ID '" + customerId + "' not found.");
+                }
+                throw new ServiceUnavailableException("Customer service returned a client error.", ex);
+            } catch (RestClientException ex) {
+                throw new ServiceUnavailableException("Customer service is currently unavailable.", ex);
             }
-            throw new ServiceUnavailableException("Customer service returned a client error.", ex);
-        } catch (RestClientException ex) {
-            throw new ServiceUnavailableException("Customer service is currently unavailable.", ex);
-        }
+        }));
     }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead and circuit breaker in front of one downstream service.
+ * The bulkhead caps concurrent calls and turns callers away once they have waited its {@code max-wait-duration};
+ * the circuit breaker opens when too many of the recent calls failed or were slow. Either way the call fails
+ * at once with {@link ServiceUnavailableException} instead of tying up a thread on a service that is not answering.
+ * Rejections are counted in {@code downstream.calls.rejected}, failed calls in {@code downstream.errors} by
+ * {@link ErrorType}. Calls abandoned by the caller are not counted as errors. Blocking calls go through {@link #call(Supplier)},
+ * non-blocking ones through {@link #call(Mono)}; both share the same permits and breaker state.
+ */
+public class DownstreamGuard {
+
+    /**
+     * What went wrong with a call that reached the downstream, as the {@code type} tag of {@code downstream.errors}.
+     */
+    public enum ErrorType {
+        NOT_FOUND("not-found"),
+        CLIENT_ERROR("client-error"),
+        SERVER_ERROR("server-error"),
+        TIMEOUT("timeout"),
+        UNAVAILABLE("unavailable");
+
+        private final String tag;
+
+        ErrorType(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final String serviceName;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter bulkheadRejections;
+    private final Counter circuitBreakerRejections;
+    private final Map<ErrorType, Counter> errors = new EnumMap<>(ErrorType.class);
+
+    public DownstreamGuard(String serviceName, Bulkhead bulkhead, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.serviceName = serviceName;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkheadRejections = rejections(meterRegistry, bulkhead.getName(), "bulkhead");
+        this.circuitBreakerRejections = rejections(meterRegistry, circuitBreaker.getName(), "circuit-breaker");
+        for (ErrorType type : ErrorType.values()) {
+            errors.put(type, Counter.builder("downstream.errors")
+                    .description("Downstream calls that failed, by cause")
+                    .tag("downstream", circuitBreaker.getName())
+                    .tag("type", type.tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T call(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            circuitBreakerRejections.increment();
+            throw new ServiceUnavailableException(serviceName + " is currently unavailable.");
+        }
+        try {
+            bulkhead.acquirePermission();
+        } catch (RuntimeException ex) {
+            circuitBreaker.releasePermission();
+            if (ex instanceof BulkheadFullException) {
+                bulkheadRejections.increment();
+                throw new ServiceUnavailableException(serviceName + " has too many calls in flight.", ex);
+            }
+            throw ex;
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (ResourceNotFoundException ex) {
+            // The service answered; an unknown ID says nothing about its health
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            errors.get(ErrorType.NOT_FOUND).increment();
+            throw ex;
+        } catch (BulkLookupUnsupportedException ex) {
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Abandoned by the caller (a lost hedge or a spent deadline); only its duration says something
+                circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw ex;
+            }
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, ex);
+            errors.get(classify(ex)).increment();
+            throw ex;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #call(Supplier)}: permits are taken when the returned {@link Mono} is
+     * subscribed and given back when it terminates or is cancelled. The bulkhead should have a
+     * {@code max-wait-duration} of zero here, since waiting for a permit would block the subscribing thread.
+     */
+    public <T> Mono<T> call(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                circuitBreakerRejections.increment();
+                return Mono.error(new ServiceUnavailableException(serviceName + " is currently unavailable."));
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                bulkheadRejections.increment();
+                return Mono.error(new ServiceUnavailableException(serviceName + " has too many calls in flight.",
+                        BulkheadFullException.createBulkheadFullException(bulkhead)));
+            }
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(result -> circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(ex -> {
+                        long duration = System.nanoTime() - start;
+                        if (ex instanceof ResourceNotFoundException || ex instanceof BulkLookupUnsupportedException) {
+                            circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+                        } else {
+                            circuitBreaker.onError(duration, TimeUnit.NANOSECONDS, ex);
+                        }
+                        if (!(ex instanceof BulkLookupUnsupportedException)) {
+                            errors.get(classify(ex)).increment();
+                        }
+                    })
+                    // Cancelled by the caller (a spent deadline); as with an interrupt, only the duration counts
+                    .doOnCancel(() -> circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doFinally(signal -> bulkhead.onComplete());
+        });
+    }
+
+    /**
+     * Classifies a failed call by the first cause that says what happened. The clients wrap transport errors
+     * in {@link ServiceUnavailableException}, so the cause chain is searched rather than the exception itself.
+     */
+    static ErrorType classify(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ResourceNotFoundException) {
+                return ErrorType.NOT_FOUND;
+            }
+            if (cause instanceof RestClientResponseException response) {
+                return response.getStatusCode().is4xxClientError() ? ErrorType.CLIENT_ERROR : ErrorType.SERVER_ERROR;
+            }
+            if (cause instanceof WebClientResponseException response) {
+                return response.getStatusCode().is4xxClientError() ? ErrorType.CLIENT_ERROR : ErrorType.SERVER_ERROR;
+            }
+            // Socket and connect timeouts of the blocking client, pool waits, and Netty's read timeout
+            if (cause instanceof InterruptedIOException || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                return ErrorType.TIMEOUT;
+            }
+        }
+        return ErrorType.UNAVAILABLE;
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String downstream, String reason) {
+        return Counter.builder("downstream.calls.rejected")
+                .description("Downstream calls refused without being sent")
+                .tag("downstream", downstream)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
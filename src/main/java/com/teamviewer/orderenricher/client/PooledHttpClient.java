@@ -0,0 +1,154 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.config.HttpClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.DefaultHttpClientConnectionOperator;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.TlsSocketStrategy;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Apache HttpClient with its own keep-alive connection pool for one downstream service.
+ * Idle and expired connections are evicted in the background, and automatic retries are off because the
+ * circuit breaker and hedger decide when a call is repeated.
+ * Besides the pool gauges ({@code httpcomponents.httpclient.pool.*}) it records how long calls wait for a
+ * connection ({@code http.client.pool.wait}) and how many leases reused one ({@code http.client.connections.reuse}).
+ */
+public class PooledHttpClient implements AutoCloseable {
+
+    private final MeteredConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    public PooledHttpClient(String downstream, HttpClientProperties.Spec spec, MeterRegistry meterRegistry) {
+        this.connectionManager = new MeteredConnectionManager(downstream, spec, meterRegistry);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(spec.poolWait()))
+                        .setResponseTimeout(timeout(spec.readTimeout()))
+                        .setDefaultKeepAlive(spec.keepAlive().toMillis(), TimeUnit.MILLISECONDS)
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(spec.idleTimeout().toMillis()))
+                .evictExpiredConnections()
+                .disableAutomaticRetries()
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, downstream).bindTo(meterRegistry);
+    }
+
+    public ClientHttpRequestFactory requestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Override
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    /**
+     * Pool that counts the connections it opens and times every lease.
+     */
+    private static final class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Timer leaseWait;
+        private final Counter leases;
+
+        MeteredConnectionManager(String downstream, HttpClientProperties.Spec spec, MeterRegistry meterRegistry) {
+            this(downstream, spec, meterRegistry, Counter.builder("http.client.connections.created")
+                    .description("Connections opened to the downstream service")
+                    .tag("httpclient", downstream)
+                    .register(meterRegistry));
+        }
+
+        private MeteredConnectionManager(String downstream, HttpClientProperties.Spec spec, MeterRegistry meterRegistry,
+                                         Counter connectionsCreated) {
+            super(new DefaultHttpClientConnectionOperator(null, null, RegistryBuilder.<TlsSocketStrategy>create()
+                            .register(URIScheme.HTTPS.id, DefaultClientTlsStrategy.createDefault())
+                            .build()),
+                    PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO,
+                    TimeValue.ofMilliseconds(spec.timeToLive().toMillis()),
+                    socket -> {
+                        connectionsCreated.increment();
+                        return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+                    });
+            // Each client talks to one host, so the route limit is the pool size
+            setMaxTotal(spec.maxConnections());
+            setDefaultMaxPerRoute(spec.maxConnections());
+            setDefaultConnectionConfig(ConnectionConfig.custom()
+                    .setConnectTimeout(timeout(spec.connectTimeout()))
+                    .setSocketTimeout(timeout(spec.readTimeout()))
+                    .setTimeToLive(TimeValue.ofMilliseconds(spec.timeToLive().toMillis()))
+                    .setValidateAfterInactivity(TimeValue.ofMilliseconds(spec.validateAfterInactivity().toMillis()))
+                    .build());
+            this.leaseWait = Timer.builder("http.client.pool.wait")
+                    .description("Time spent waiting for a pooled connection")
+                    .tag("httpclient", downstream)
+                    .register(meterRegistry);
+            this.leases = Counter.builder("http.client.pool.leases")
+                    .description("Connections taken from the pool, new or reused")
+                    .tag("httpclient", downstream)
+                    .register(meterRegistry);
+            Gauge.builder("http.client.connections.reuse", this,
+                            manager -> manager.reuseRatio(connectionsCreated.count()))
+                    .description("Share of leases served by an already open connection")
+                    .tag("httpclient", downstream)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest lease = super.lease(id, route, requestTimeout, state);
+            leases.increment();
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return lease.get(timeout);
+                    } finally {
+                        leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return lease.cancel();
+                }
+            };
+        }
+
+        private double reuseRatio(double connectionsCreated) {
+            double leased = leases.count();
+            return leased == 0 ? 0 : Math.max(0, 1 - connectionsCreated / leased);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces product lookups from all concurrent orders into bulk calls.
+ * Requests are collected until the batch window elapses or the batch is full, de-duplicated,
+ * and sent as one {@code GET /products?ids=...}. If the product service answers that it does not
+ * offer the bulk endpoint, the loader switches to per-ID calls and probes the bulk endpoint again
+ * once {@code bulk-retry-millis} have passed, since the answer may come from a deploy in progress.
+ */
+@Component
+@Slf4j
+public class ProductBatchLoader {
+
+    private final ProductServiceClient productClient;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long bulkRetryNanos;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-batch-flush").daemon().factory());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, CompletableFuture<Product>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    // System.nanoTime() before which batches go out as per-ID calls, after bulk lookups were refused
+    private volatile long perIdUntil;
+
+    public ProductBatchLoader(ProductServiceClient productClient,
+                              @Value("${clients.product-service.batch.enabled:true}") boolean enabled,
+                              @Value("${clients.product-service.batch.window-millis:5}") long windowMillis,
+                              @Value("${clients.product-service.batch.max-size:50}") int maxBatchSize,
+                              @Value("${clients.product-service.batch.bulk-retry-millis:60000}") long bulkRetryMillis) {
+        this.productClient = productClient;
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.bulkRetryNanos = TimeUnit.MILLISECONDS.toNanos(bulkRetryMillis);
+        this.perIdUntil = System.nanoTime();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a product lookup for the next batch. Cancelling the returned future only
+     * withdraws this caller; other orders waiting on the same ID are unaffected.
+     */
+    public CompletableFuture<Product> load(String productId) {
+        CompletableFuture<Product> shared;
+        Map<String, CompletableFuture<Product>> fullBatch = null;
+        lock.lock();
+        try {
+            shared = pending.computeIfAbsent(productId, id -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drainPending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return shared.copy();
+    }
+
+    void flush() {
+        Map<String, CompletableFuture<Product>> batch;
+        lock.lock();
+        try {
+            batch = drainPending();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    // Must be called while holding the lock
+    private Map<String, CompletableFuture<Product>> drainPending() {
+        Map<String, CompletableFuture<Product>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<String, CompletableFuture<Product>> batch) {
+        if (batch.size() > 1 && System.nanoTime() - perIdUntil >= 0) {
+            executor.execute(() -> loadBulk(batch));
+        } else {
+            batch.forEach((productId, future) -> executor.execute(() -> loadSingle(productId, future)));
+        }
+    }
+
+    private void loadBulk(Map<String, CompletableFuture<Product>> batch) {
+        log.debug("Fetching batch of {} products", batch.size());
+        try {
+            Map<String, Product> productsById = productClient.getProductsByIds(batch.keySet());
+            batch.forEach((productId, future) -> {
+                Product product = productsById.get(productId);
+                if (product != null) {
+                    future.complete(product);
+                } else {
+                    future.completeExceptionally(new ResourceNotFoundException("Product with ID '" + productId + "' not found."));
+                }
+            });
+        } catch (BulkLookupUnsupportedException ex) {
+            log.warn("Product service does not support bulk lookups, using per-ID calls for the next {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(bulkRetryNanos));
+            perIdUntil = System.nanoTime() + bulkRetryNanos;
+            batch.forEach((productId, future) -> executor.execute(() -> loadSingle(productId, future)));
+        } catch (RuntimeException ex) {
+            batch.values().forEach(future -> future.completeExceptionally(ex));
+        }
+    }
+
+    private void loadSingle(String productId, CompletableFuture<Product> future) {
+        try {
+            future.complete(productClient.getProductById(productId));
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+}
@@ -3,35 +3,89 @@ package com.teamviewer.orderenricher.client;
 import com.teamviewer.orderenricher.api.model.Product;
 import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
 import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 public class ProductServiceClient {
     private final RestTemplate restTemplate;
+    private final DownstreamGuard guard;
+    private final RequestHedger hedger;
     private final String productServiceUrl;
 
-    public ProductServiceClient(RestTemplate restTemplate,
+    public ProductServiceClient(@Qualifier("productServiceRestTemplate") RestTemplate restTemplate,
+                                @Qualifier("productServiceGuard") DownstreamGuard guard,
+                                @Qualifier("productServiceHedger") RequestHedger hedger,
                                 @Value("${clients.product-service.url}") String productServiceUrl) {
         this.restTemplate = restTemplate;
+        this.guard = guard;
+        this.hedger = hedger;
         this.productServiceUrl = productServiceUrl;
     }
 
     public Product getProductById(String productId) {
         String url = productServiceUrl + "/products/{id}";
-        try {
-            return restTemplate.getForObject(url, Product.class, productId);
-        } catch (HttpClientErrorException ex) {
-            if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new ResourceNotFoundException("Product with ID '" + productId + "' not found.");
+        return hedger.call(() -> guard.call(() -> {
+            try {
+                return restTemplate.getForObject(url, Product.class, productId);
+            } catch (HttpClientErrorException ex) {
+                if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+                    throw new ResourceNotFoundException("Product with ID '" + productId + "' not found.");
+                }
+                throw new ServiceUnavailableException("Product service returned a client error.", ex);
+            } catch (RestClientException ex) {
+                throw new ServiceUnavailableException("Product service is currently unavailable.", ex);
+            }
+        }));
+    }
+
+    /**
+     * Fetches several products with a single {@code GET /products?ids=A&ids=B} call. Each ID is its own
+     * parameter, so IDs may contain commas. IDs unknown to the product service are absent from the returned map.
+     * Not hedged: a batch is shared by several orders and its latency depends on its size.
+     */
+    public Map<String, Product> getProductsByIds(Collection<String> productIds) {
+        URI uri = UriComponentsBuilder.fromUriString(productServiceUrl)
+                .path("/products")
+                .queryParam("ids", productIds.toArray())
+                .build()
+                .encode()
+                .toUri();
+        return guard.call(() -> {
+            try {
+                Product[] products = restTemplate.getForObject(uri, Product[].class);
+                Map<String, Product> productsById = new HashMap<>();
+                if (products != null) {
+                    for (Product product : products) {
+                        productsById.put(product.getId(), product);
+                    }
+                }
+                return productsById;
+            } catch (HttpClientErrorException ex) {
+                if (ex.getStatusCode() == HttpStatus.NOT_FOUND || ex.getStatusCode() == HttpStatus.METHOD_NOT_ALLOWED) {
+                    throw new BulkLookupUnsupportedException("Product service does not support bulk lookups.", ex);
+                }
+                throw new ServiceUnavailableException("Product service returned a client error.", ex);
+            } catch (HttpServerErrorException ex) {
+                if (ex.getStatusCode() == HttpStatus.NOT_IMPLEMENTED) {
+                    throw new BulkLookupUnsupportedException("Product service does not support bulk lookups.", ex);
+                }
+                throw new ServiceUnavailableException("Product service is currently unavailable.", ex);
+            } catch (RestClientException ex) {
+                throw new ServiceUnavailableException("Product service is currently unavailable.", ex);
             }
-            throw new ServiceUnavailableException("Product service returned a client error.", ex);
-        } catch (RestClientException ex) {
-            throw new ServiceUnavailableException("Product service is currently unavailable.", ex);
-        }
+        });
     }
 }
\ No newline at end of file
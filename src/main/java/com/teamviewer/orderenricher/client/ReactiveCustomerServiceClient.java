@@ -0,0 +1,47 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link CustomerServiceClient}, with the same error mapping.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCustomerServiceClient {
+    private final WebClient webClient;
+    private final DownstreamGuard guard;
+
+    public ReactiveCustomerServiceClient(@Qualifier("customerServiceWebClient") WebClient webClient,
+                                         @Qualifier("customerServiceGuard") DownstreamGuard guard) {
+        this.webClient = webClient;
+        this.guard = guard;
+    }
+
+    public Mono<Customer> getCustomerById(String customerId) {
+        return guard.call(webClient.get()
+                .uri("/customers/{id}", customerId)
+                .retrieve()
+                .bodyToMono(Customer.class)
+                .onErrorMap(WebClientResponseException.class, ex -> {
+                    if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+                        return new ResourceNotFoundException("Customer with ID '" + customerId + "' not found.");
+                    }
+                    if (ex.getStatusCode().is4xxClientError()) {
+                        return new ServiceUnavailableException("Customer service returned a client error.", ex);
+                    }
+                    return new ServiceUnavailableException("Customer service is currently unavailable.", ex);
+                })
+                .onErrorMap(WebClientException.class,
+                        ex -> new ServiceUnavailableException("Customer service is currently unavailable.", ex)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ProductServiceClient#getProductById}, with the same error mapping.
+ * Bulk lookups are not needed here: concurrent single lookups cost no threads.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveProductServiceClient {
+    private final WebClient webClient;
+    private final DownstreamGuard guard;
+
+    public ReactiveProductServiceClient(@Qualifier("productServiceWebClient") WebClient webClient,
+                                         @Qualifier("productServiceGuard") DownstreamGuard guard) {
+        this.webClient = webClient;
+        this.guard = guard;
+    }
+
+    public Mono<Product> getProductById(String productId) {
+        return guard.call(webClient.get()
+                .uri("/products/{id}", productId)
+                .retrieve()
+                .bodyToMono(Product.class)
+                .onErrorMap(WebClientResponseException.class, ex -> {
+                    if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+                        return new ResourceNotFoundException("Product with ID '" + productId + "' not found.");
+                    }
+                    if (ex.getStatusCode().is4xxClientError()) {
+                        return new ServiceUnavailableException("Product service returned a client error.", ex);
+                    }
+                    return new ServiceUnavailableException("Product service is currently unavailable.", ex);
+                })
+                .onErrorMap(WebClientException.class,
+                        ex -> new ServiceUnavailableException("Product service is currently unavailable.", ex)));
+    }
+}
@@ -0,0 +1,203 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.config.HedgingProperties;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedges calls against one downstream service: if a call has not answered by the configured percentile of
+ * recent latencies, an identical second call is sent, the first answer wins and the other call is interrupted.
+ * Hedges are paid from a budget that every call tops up by a fraction of a hedge, so they cannot multiply
+ * the load on a service that is slow across the board. Only idempotent reads may be hedged.
+ * Counts are published as {@code downstream.hedges.sent}, {@code .won} and {@code .over-budget}.
+ */
+public class RequestHedger implements AutoCloseable {
+
+    // The budget is kept in thousandths of a hedge so fractional deposits need no floating point
+    private static final long ONE_HEDGE = 1000;
+
+    private final String serviceName;
+    private final HedgingProperties properties;
+    private final LatencyWindow latencies;
+    private final ExecutorService executor;
+    private final AtomicLong budget = new AtomicLong();
+    private final long deposit;
+    private final long maxBudget;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter overBudget;
+
+    public RequestHedger(String serviceName, String downstream, HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.serviceName = serviceName;
+        this.properties = properties;
+        this.latencies = new LatencyWindow(properties.sampleSize());
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(downstream + "-hedge-", 0).factory());
+        this.deposit = Math.round(properties.budget() * ONE_HEDGE);
+        this.maxBudget = properties.maxBurst() * ONE_HEDGE;
+        this.sent = hedges(meterRegistry, "sent", downstream, "Hedged calls sent");
+        this.won = hedges(meterRegistry, "won", downstream, "Hedged calls that answered before the original call");
+        this.overBudget = hedges(meterRegistry, "over-budget", downstream, "Hedges skipped because the budget was spent");
+    }
+
+    public <T> T call(Supplier<T> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+        budget.getAndUpdate(available -> Math.min(available + deposit, maxBudget));
+        long hedgeDelay = latencies.percentile(properties.percentile(), properties.minSamples());
+        if (hedgeDelay < 0) {
+            // Too few samples yet to tell a slow call from a normal one
+            long start = System.nanoTime();
+            try {
+                return call.get();
+            } finally {
+                latencies.record(System.nanoTime() - start);
+            }
+        }
+        return new Race<>(call).run(Math.max(hedgeDelay, properties.minDelay().toNanos()));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private boolean withdrawHedge() {
+        return budget.getAndUpdate(available -> available >= ONE_HEDGE ? available - ONE_HEDGE : available) >= ONE_HEDGE;
+    }
+
+    private static Counter hedges(MeterRegistry meterRegistry, String outcome, String downstream, String description) {
+        return Counter.builder("downstream.hedges." + outcome)
+                .description(description)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The attempts of one hedged call. Only the calling thread starts and cancels attempts.
+     */
+    private final class Race<T> {
+        private final Supplier<T> call;
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        private final List<Future<?>> attempts = new ArrayList<>(2);
+        private final AtomicInteger running = new AtomicInteger();
+
+        Race(Supplier<T> call) {
+            this.call = call;
+        }
+
+        T run(long hedgeDelayNanos) {
+            start(false);
+            try {
+                try {
+                    return winner.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ex) {
+                    if (withdrawHedge()) {
+                        sent.increment();
+                        start(true);
+                    } else {
+                        overBudget.increment();
+                    }
+                    return winner.get();
+                }
+            } catch (ExecutionException ex) {
+                throw propagate(ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException(serviceName + " call was interrupted.", ex);
+            } finally {
+                for (Future<?> attempt : attempts) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+
+        private void start(boolean hedge) {
+            running.incrementAndGet();
+            attempts.add(executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    T result = call.get();
+                    if (winner.complete(result) && hedge) {
+                        won.increment();
+                    }
+                } catch (ResourceNotFoundException ex) {
+                    // A definite answer; the other attempt would get the same one
+                    winner.completeExceptionally(ex);
+                } catch (Throwable ex) {
+                    // Fail only once no attempt is left that could still succeed
+                    if (running.decrementAndGet() == 0) {
+                        winner.completeExceptionally(ex);
+                    }
+                } finally {
+                    // Interrupted losers are recorded too, so the window keeps seeing the slow tail
+                    latencies.record(System.nanoTime() - start);
+                }
+            }));
+        }
+
+        private RuntimeException propagate(Throwable cause) {
+            if (cause instanceof RuntimeException runtimeException) {
+                return runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            return new ServiceUnavailableException(serviceName + " call failed.", cause);
+        }
+    }
+
+    /**
+     * The most recent call latencies. The percentile is re-sorted only after a twentieth of the window has changed.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private final int refreshEvery;
+        private long recorded;
+        private long recordedAtRefresh;
+        private long percentileNanos = -1;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+            this.refreshEvery = Math.max(1, size / 20);
+        }
+
+        synchronized void record(long nanos) {
+            samples[(int) (recorded++ % samples.length)] = nanos;
+        }
+
+        /**
+         * Returns the latency below which {@code percentile} percent of recent calls finished,
+         * or {@code -1} while fewer than {@code minSamples} calls were recorded.
+         */
+        synchronized long percentile(double percentile, int minSamples) {
+            if (recorded < minSamples) {
+                return -1;
+            }
+            if (percentileNanos < 0 || recorded - recordedAtRefresh >= refreshEvery) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, samples.length));
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+                percentileNanos = sorted[Math.clamp(index, 0, sorted.length - 1)];
+                recordedAtRefresh = recorded;
+            }
+            return percentileNanos;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.teamviewer.orderenricher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Hedged single-item lookups against the customer and product services.
+ * A second attempt is sent once the first has been running for the {@code percentile} of the last
+ * {@code sampleSize} call latencies (never earlier than {@code minDelay}). Each call earns {@code budget}
+ * hedges, up to {@code maxBurst} saved, so hedges add at most that fraction of extra load.
+ */
+@ConfigurationProperties(prefix = "clients.hedging")
+public record HedgingProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue("95") double percentile,
+                                @DefaultValue("5ms") Duration minDelay,
+                                @DefaultValue("0.05") double budget,
+                                @DefaultValue("10") int maxBurst,
+                                @DefaultValue("1000") int sampleSize,
+                                @DefaultValue("100") int minSamples) {
+}
@@ -0,0 +1,25 @@
+package com.teamviewer.orderenricher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeouts of the HTTP client of each downstream service.
+ * {@code poolWait} bounds how long a call waits for a free pooled connection; {@code keepAlive} applies when the
+ * server does not send its own {@code Keep-Alive} header, and connections idle for {@code idleTimeout} are closed.
+ */
+@ConfigurationProperties(prefix = "clients.http")
+public record HttpClientProperties(@DefaultValue Spec customerService, @DefaultValue Spec productService) {
+
+    public record Spec(@DefaultValue("1s") Duration connectTimeout,
+                       @DefaultValue("2s") Duration readTimeout,
+                       @DefaultValue("64") int maxConnections,
+                       @DefaultValue("100ms") Duration poolWait,
+                       @DefaultValue("30s") Duration keepAlive,
+                       @DefaultValue("30s") Duration idleTimeout,
+                       @DefaultValue("5m") Duration timeToLive,
+                       @DefaultValue("2s") Duration validateAfterInactivity) {
+    }
+}
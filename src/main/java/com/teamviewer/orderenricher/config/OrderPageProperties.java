@@ -0,0 +1,12 @@
+package com.teamviewer.orderenricher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Page sizes for {@code GET /orders}. Requests without a limit get the default; larger limits are capped.
+ */
+@ConfigurationProperties(prefix = "orders.page")
+public record OrderPageProperties(@DefaultValue("100") int defaultLimit,
+                                  @DefaultValue("1000") int maxLimit) {
+}
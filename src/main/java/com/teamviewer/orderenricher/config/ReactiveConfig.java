@@ -0,0 +1,76 @@
+package com.teamviewer.orderenricher.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Beans of the non-blocking mode ({@code reactive} profile): the server runs on Netty instead of Tomcat, and each
+ * downstream gets a {@link WebClient} on its own connection pool, sized and timed from the same
+ * {@code clients.http} settings as the blocking clients. Pool gauges are published as
+ * {@code reactor.netty.connection.provider.*}.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    // Both Tomcat and Netty are on the classpath; without this Boot would serve the reactive stack from Tomcat
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider customerServiceConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider("customer-service", properties.customerService());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productServiceConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider("product-service", properties.productService());
+    }
+
+    @Bean
+    public WebClient customerServiceWebClient(WebClient.Builder builder, HttpClientProperties properties,
+                                              @Qualifier("customerServiceConnectionProvider") ConnectionProvider provider,
+                                              @Value("${clients.customer-service.url}") String baseUrl) {
+        return webClient(builder, provider, properties.customerService(), baseUrl);
+    }
+
+    @Bean
+    public WebClient productServiceWebClient(WebClient.Builder builder, HttpClientProperties properties,
+                                             @Qualifier("productServiceConnectionProvider") ConnectionProvider provider,
+                                             @Value("${clients.product-service.url}") String baseUrl) {
+        return webClient(builder, provider, properties.productService(), baseUrl);
+    }
+
+    public static ConnectionProvider connectionProvider(String downstream, HttpClientProperties.Spec spec) {
+        return ConnectionProvider.builder(downstream)
+                .maxConnections(spec.maxConnections())
+                .pendingAcquireTimeout(spec.poolWait())
+                .maxIdleTime(spec.idleTimeout())
+                .maxLifeTime(spec.timeToLive())
+                .evictInBackground(spec.idleTimeout())
+                .metrics(true)
+                .build();
+    }
+
+    public static WebClient webClient(WebClient.Builder builder, ConnectionProvider provider,
+                                      HttpClientProperties.Spec spec, String baseUrl) {
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(spec.connectTimeout().toMillis()))
+                .responseTimeout(spec.readTimeout());
+        return builder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.teamviewer.orderenricher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * R2DBC connection pool of the {@code reactive} profile. It is kept apart from Boot's {@code spring.r2dbc}
+ * auto-configuration so that JDBC, JPA and Flyway stay in charge of the schema and of the background jobs.
+ */
+@ConfigurationProperties(prefix = "reactive.database")
+public record ReactiveDatabaseProperties(String url,
+                                         String username,
+                                         String password,
+                                         @DefaultValue("4") int initialSize,
+                                         @DefaultValue("20") int maxSize,
+                                         @DefaultValue("2s") Duration maxAcquireTime,
+                                         @DefaultValue("30m") Duration maxIdleTime) {
+}
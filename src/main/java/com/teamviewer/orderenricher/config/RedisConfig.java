@@ -4,17 +4,49 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teamviewer.orderenricher.cache.EnrichedOrderRedisSerializer;
+import com.teamviewer.orderenricher.cache.IndexingRedisCacheManager;
+import com.teamviewer.orderenricher.cache.NearCacheInvalidator;
+import com.teamviewer.orderenricher.cache.OrderCacheIndex;
+import com.teamviewer.orderenricher.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.time.Duration;
+
+// Boot's cache auto-configuration backs off for our own CacheManager and would take spring.cache.* with it
 @Configuration
+@EnableConfigurationProperties(CacheProperties.class)
 public class RedisConfig {
 
     @Bean
-    public RedisCacheConfiguration cacheConfiguration() {
+    public RedisCacheConfiguration cacheConfiguration(CacheProperties cacheProperties,
+                                                      @Value("${orders-cache.compression-threshold-bytes:16384}") int compressionThreshold) {
+        // Orders are stored in a compact binary form; anything else, and entries written by older releases, go through JSON
+        RedisSerializer<Object> valueSerializer = new EnrichedOrderRedisSerializer(jsonValueSerializer(), compressionThreshold);
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
+        // A custom configuration bean replaces Boot's, so carry over spring.cache.redis.time-to-live
+        Duration ttl = cacheProperties.getRedis().getTimeToLive();
+        return ttl != null ? config.entryTtl(ttl) : config;
+    }
+
+    public static RedisSerializer<Object> jsonValueSerializer() {
         // Create an ObjectMapper that knows how to handle Java 8 Time types
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -24,9 +56,32 @@ public class RedisConfig {
                 ObjectMapper.DefaultTyping.NON_FINAL,
                 JsonTypeInfo.As.PROPERTY
         );
-        return RedisCacheConfiguration.defaultCacheConfig()
-                .disableCachingNullValues()
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer(objectMapper)));
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisCacheConfiguration cacheConfiguration,
+                                     OrderCacheIndex orderCacheIndex,
+                                     NearCacheInvalidator nearCacheInvalidator,
+                                     @Value("${orders-cache.near.max-entries:10000}") long nearCacheMaxEntries,
+                                     @Value("${orders-cache.near.ttl:60s}") Duration nearCacheTtl,
+                                     MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = new IndexingRedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), cacheConfiguration, orderCacheIndex);
+        redisCacheManager.afterPropertiesSet();
+        // L1 on the heap of every node, L2 shared in Redis
+        return new TwoTierCacheManager(redisCacheManager, nearCacheInvalidator, nearCacheMaxEntries, nearCacheTtl,
+                meterRegistry);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer nearCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                       NearCacheInvalidator nearCacheInvalidator) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(nearCacheInvalidator, new ChannelTopic(NearCacheInvalidator.CHANNEL));
+        return container;
     }
 
 }
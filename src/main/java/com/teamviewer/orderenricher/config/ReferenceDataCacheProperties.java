@@ -0,0 +1,26 @@
+package com.teamviewer.orderenricher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Sizing and expiry for the in-heap customer and product caches.
+ * Caffeine bounds a cache either by entry count or by weight, so {@code maxWeight > 0} takes precedence over {@code maxEntries}.
+ * {@code notFound} applies to each type's cache of IDs the downstream service answered with 404.
+ */
+@ConfigurationProperties(prefix = "reference-data.cache")
+public record ReferenceDataCacheProperties(@DefaultValue Spec customers, @DefaultValue Spec products,
+                                           @DefaultValue NotFound notFound) {
+
+    public record Spec(@DefaultValue("10000") long maxEntries,
+                       @DefaultValue("0") long maxWeight,
+                       @DefaultValue("10m") Duration ttl,
+                       @DefaultValue("8m") Duration refreshAfter) {
+    }
+
+    public record NotFound(@DefaultValue("10000") long maxEntries,
+                           @DefaultValue("30s") Duration ttl) {
+    }
+}
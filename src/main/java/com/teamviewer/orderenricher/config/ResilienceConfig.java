@@ -0,0 +1,43 @@
+package com.teamviewer.orderenricher.config;
+
+import com.teamviewer.orderenricher.client.DownstreamGuard;
+import com.teamviewer.orderenricher.client.RequestHedger;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One guard and one hedger per downstream. Limits and thresholds come from the {@code resilience4j.bulkhead} and
+ * {@code resilience4j.circuitbreaker} instances of the same name; hedging from {@code clients.hedging}.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public DownstreamGuard customerServiceGuard(BulkheadRegistry bulkheadRegistry,
+                                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                                MeterRegistry meterRegistry) {
+        return new DownstreamGuard("Customer service", bulkheadRegistry.bulkhead("customer-service"),
+                circuitBreakerRegistry.circuitBreaker("customer-service"), meterRegistry);
+    }
+
+    @Bean
+    public DownstreamGuard productServiceGuard(BulkheadRegistry bulkheadRegistry,
+                                               CircuitBreakerRegistry circuitBreakerRegistry,
+                                               MeterRegistry meterRegistry) {
+        return new DownstreamGuard("Product service", bulkheadRegistry.bulkhead("product-service"),
+                circuitBreakerRegistry.circuitBreaker("product-service"), meterRegistry);
+    }
+
+    @Bean
+    public RequestHedger customerServiceHedger(HedgingProperties properties, MeterRegistry meterRegistry) {
+        return new RequestHedger("Customer service", "customer-service", properties, meterRegistry);
+    }
+
+    @Bean
+    public RequestHedger productServiceHedger(HedgingProperties properties, MeterRegistry meterRegistry) {
+        return new RequestHedger("Product service", "product-service", properties, meterRegistry);
+    }
+}
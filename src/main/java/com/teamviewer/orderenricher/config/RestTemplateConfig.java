@@ -1,14 +1,42 @@
 package com.teamviewer.orderenricher.config;
 
+import com.teamviewer.orderenricher.client.PooledHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * One {@link RestTemplate} per downstream, each on its own connection pool, so a slow service cannot hold
+ * the connections another one needs. The pools' timeouts are also the upper bound for shared product batches,
+ * which no single request can cancel.
+ */
 @Configuration
 public class RestTemplateConfig {
+
+    @Bean
+    public PooledHttpClient customerServiceHttpClient(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        return new PooledHttpClient("customer-service", properties.customerService(), meterRegistry);
+    }
+
+    @Bean
+    public PooledHttpClient productServiceHttpClient(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        return new PooledHttpClient("product-service", properties.productService(), meterRegistry);
+    }
+
+    // Boot only configures a RestTemplateBuilder for servlet apps; the reactive profile still creates the clients
+    @Bean
+    public RestTemplate customerServiceRestTemplate(ObjectProvider<RestTemplateBuilder> builder,
+                                                    @Qualifier("customerServiceHttpClient") PooledHttpClient httpClient) {
+        return builder.getIfAvailable(RestTemplateBuilder::new).requestFactory(httpClient::requestFactory).build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    public RestTemplate productServiceRestTemplate(ObjectProvider<RestTemplateBuilder> builder,
+                                                   @Qualifier("productServiceHttpClient") PooledHttpClient httpClient) {
+        return builder.getIfAvailable(RestTemplateBuilder::new).requestFactory(httpClient::requestFactory).build();
     }
 }
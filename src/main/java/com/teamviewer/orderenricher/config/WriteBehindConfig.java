@@ -0,0 +1,18 @@
+package com.teamviewer.orderenricher.config;
+
+import com.teamviewer.orderenricher.writebehind.OrderLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+@ConditionalOnProperty(prefix = "write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    @Bean(destroyMethod = "close")
+    public OrderLog orderLog(WriteBehindProperties properties) throws IOException {
+        return OrderLog.open(properties.directory(), Math.toIntExact(properties.segmentSize().toBytes()));
+    }
+}
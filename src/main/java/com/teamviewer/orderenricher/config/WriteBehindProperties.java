@@ -0,0 +1,22 @@
+package com.teamviewer.orderenricher.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Asynchronous order creation through a local write-behind log.
+ * {@code maxBacklog} bounds the log entries not yet in the database; beyond it new orders are refused
+ * instead of filling the disk while the database is unavailable.
+ */
+@ConfigurationProperties(prefix = "write-behind")
+public record WriteBehindProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("./data/order-log") Path directory,
+                                    @DefaultValue("64MB") DataSize segmentSize,
+                                    @DefaultValue("1GB") DataSize maxBacklog,
+                                    @DefaultValue("500") int drainBatchSize,
+                                    @DefaultValue("5s") Duration maxRetryBackoff) {
+}
@@ -0,0 +1,37 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.teamviewer.orderenricher.service.BulkOrderService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.io.IOException;
+
+/**
+ * Streaming bulk ingestion. Written by hand rather than generated from the OpenAPI spec because the
+ * generated interfaces bind the whole body to an object, which would buffer it; here both the request
+ * and the response are streamed line by line.
+ */
+@RequiredArgsConstructor
+@Controller
+@Profile("!reactive")
+@RequestMapping("${openapi.orderEnricherAPI.base-path:/v1}")
+public class BulkOrdersController {
+
+    private final BulkOrderService bulkOrderService;
+
+    @PostMapping(value = "/orders:bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createOrdersBulk(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Per-line outcomes carry their own status; the response itself is 200 once streaming starts
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        bulkOrderService.ingest(request.getInputStream(), response.getOutputStream());
+    }
+}
@@ -0,0 +1,27 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.teamviewer.orderenricher.api.CustomersApi;
+import com.teamviewer.orderenricher.api.model.CustomerSummary;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@RequiredArgsConstructor
+@Controller
+@Profile("!reactive")
+@RequestMapping("${openapi.orderEnricherAPI.base-path:/v1}")
+public class CustomersApiControllerImpl implements CustomersApi {
+
+    private final OrderService orderService;
+
+    @Override
+    public ResponseEntity<CustomerSummary> getCustomerSummary(String customerId) {
+        return orderService.getCustomerSummary(customerId)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("No orders stored for customer '" + customerId + "'."));
+    }
+}
@@ -3,36 +3,155 @@ package com.teamviewer.orderenricher.controller;
 import com.teamviewer.orderenricher.api.OrdersApi;
 import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
 import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
+import com.teamviewer.orderenricher.config.OrderPageProperties;
+import com.teamviewer.orderenricher.exception.InvalidRequestException;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.service.OrderCursor;
 import com.teamviewer.orderenricher.service.OrderService;
+import com.teamviewer.orderenricher.service.SubmittedOrder;
+import com.teamviewer.orderenricher.writebehind.WriteBehindOrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ETag;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 @RequiredArgsConstructor
 @Controller
+@Profile("!reactive")
 @RequestMapping("${openapi.orderEnricherAPI.base-path:/v1}")
 public class OrdersApiControllerImpl implements OrdersApi {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+
     private final OrderService orderService;
+    private final OrderPageProperties pageProperties;
+    // Only present when write-behind is enabled
+    private final ObjectProvider<WriteBehindOrderService> writeBehindOrderService;
 
     @Override
-    public ResponseEntity<EnrichedOrderResponse> createOrder(OrderRequest orderRequest) {
-        return new ResponseEntity<>(orderService.createOrder(orderRequest), HttpStatus.CREATED);
+    public ResponseEntity<EnrichedOrderResponse> createOrder(OrderRequest orderRequest, String prefer) {
+        WriteBehindOrderService writeBehind = writeBehindOrderService.getIfAvailable();
+        // Prefer is a hint (RFC 7240); without write-behind the order is simply stored synchronously
+        if (writeBehind != null && prefersAsync(prefer)) {
+            SubmittedOrder accepted = writeBehind.acceptOrder(orderRequest);
+            if (accepted.resent()) {
+                return ResponseEntity.ok(accepted.order());
+            }
+            URI status = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/{orderId}/status")
+                    .buildAndExpand(accepted.order().getOrderId())
+                    .toUri();
+            return ResponseEntity.accepted()
+                    .location(status)
+                    .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                    .body(accepted.order());
+        }
+        SubmittedOrder submitted = orderService.createOrder(orderRequest);
+        // A resend created nothing: it gets the stored order back with 200
+        return new ResponseEntity<>(submitted.order(), submitted.resent() ? HttpStatus.OK : HttpStatus.CREATED);
     }
 
     @Override
-    public ResponseEntity<EnrichedOrderResponse> getOrderById(String orderId) {
-        return orderService.getOrderById(orderId)
+    public ResponseEntity<OrderStatusResponse> getOrderStatus(String orderId) {
+        return orderService.getOrderStatus(orderId)
                 .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("Order with ID '" + orderId + "' not found."));
+    }
+
+    @Override
+    public ResponseEntity<EnrichedOrderResponse> getOrderById(String orderId, String ifNoneMatch) {
+        // A client whose copy is current costs one hash lookup; the order is neither read nor serialized
+        Optional<String> etag = orderService.getOrderEtag(orderId);
+        if (etag.isPresent() && matches(ifNoneMatch, etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(weakEtag(etag.get())).build();
+        }
+        return orderService.getOrderById(orderId)
+                .map(order -> withEtag(ResponseEntity.ok(), etag).body(order))
                 .orElse(ResponseEntity.noContent().build());
     }
 
     @Override
-    public ResponseEntity<List<EnrichedOrderResponse>> getOrders(String customerId, String productId) {
-        return ResponseEntity.ok(orderService.getOrders(customerId, productId));
+    public ResponseEntity<List<EnrichedOrderResponse>> getOrders(String customerId, String productId, OffsetDateTime from,
+                                                                 OffsetDateTime to, Integer limit, String cursor,
+                                                                 String ifNoneMatch) {
+        if (limit != null && limit < 1) {
+            throw new InvalidRequestException("limit must be at least 1.");
+        }
+        requireValidWindow(from, to);
+        int pageSize = limit == null ? pageProperties.defaultLimit() : Math.min(limit, pageProperties.maxLimit());
+        Optional<String> etag = orderService.getOrdersEtag(customerId, productId, from, to, cursor, pageSize);
+        if (etag.isPresent() && matches(ifNoneMatch, etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(weakEtag(etag.get())).build();
+        }
+        List<EnrichedOrderResponse> page = orderService.getOrders(customerId, productId, from, to, cursor, pageSize);
+
+        ResponseEntity.BodyBuilder response = withEtag(ResponseEntity.ok(), etag);
+        // A full page may have successors; the client learns there are none from an empty page
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, OrderCursor.after(page.get(page.size() - 1)).encode());
+        }
+        return response.body(page);
+    }
+
+    static void requireValidWindow(OffsetDateTime from, OffsetDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidRequestException("from must be before to.");
+        }
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names the given ETag. The comparison is weak (RFC 9110), as
+     * If-None-Match requires.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || candidate.compare(current, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity.BodyBuilder withEtag(ResponseEntity.BodyBuilder response, Optional<String> etag) {
+        etag.ifPresent(hash -> response.eTag(weakEtag(hash)));
+        return response;
+    }
+
+    /**
+     * ETags are sent weak: the hash is of the stored order content rather than of the bytes on the wire, and
+     * Tomcat leaves responses with a strong ETag uncompressed.
+     */
+    static String weakEtag(String hash) {
+        return "W/\"" + hash + "\"";
+    }
+
+    private static boolean prefersAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.strip().toLowerCase(Locale.ROOT).startsWith(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,69 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.teamviewer.orderenricher.config.OrderPageProperties;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.mapper.OrderJsonWriter;
+import com.teamviewer.orderenricher.service.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+
+/**
+ * Streaming variant of {@code GET /orders}, selected with {@code Accept: application/x-ndjson}.
+ * Orders are written one per line as they are read, page by page, so the full result never sits in memory.
+ * Entities go straight to the generator without being mapped to responses first.
+ */
+@RequiredArgsConstructor
+@Controller
+@Profile("!reactive")
+@RequestMapping("${openapi.orderEnricherAPI.base-path:/v1}")
+public class OrdersStreamController {
+
+    private static final SerializedString LINE_SEPARATOR = new SerializedString("\n");
+
+    private final OrderService orderService;
+    private final OrderPageProperties pageProperties;
+    private final OrderJsonWriter orderJsonWriter;
+
+    @GetMapping(value = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamOrders(@RequestParam(value = "customerId", required = false) String customerId,
+                             @RequestParam(value = "productId", required = false) String productId,
+                             @RequestParam(value = "from", required = false)
+                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                             @RequestParam(value = "to", required = false)
+                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                             HttpServletResponse response) throws IOException {
+        OrdersApiControllerImpl.requireValidWindow(from, to);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator generator = orderJsonWriter.createGenerator(response.getOutputStream())
+                .setRootValueSeparator(LINE_SEPARATOR)) {
+            orderService.streamOrders(customerId, productId, from, to, pageProperties.maxLimit(), page -> {
+                try {
+                    for (EnrichedOrder order : page) {
+                        orderJsonWriter.write(order, generator);
+                    }
+                    generator.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.teamviewer.orderenricher.api.model.CustomerSummary;
+import com.teamviewer.orderenricher.api.reactive.CustomersApi;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.service.ReactiveOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * The customers API on the non-blocking stack ({@code reactive} profile), as {@link CustomersApiControllerImpl}.
+ */
+@RequiredArgsConstructor
+@Controller
+@Profile("reactive")
+@RequestMapping("${openapi.orderEnricherAPI.base-path:/v1}")
+public class ReactiveCustomersController implements CustomersApi {
+
+    private final ReactiveOrderService orderService;
+
+    @Override
+    public Mono<ResponseEntity<CustomerSummary>> getCustomerSummary(String customerId, ServerWebExchange exchange) {
+        return orderService.getCustomerSummary(customerId)
+                .map(ResponseEntity::ok)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("No orders stored for customer '" + customerId + "'.")));
+    }
+}
@@ -0,0 +1,120 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
+import com.teamviewer.orderenricher.api.reactive.OrdersApi;
+import com.teamviewer.orderenricher.config.OrderPageProperties;
+import com.teamviewer.orderenricher.exception.InvalidRequestException;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.service.OrderCursor;
+import com.teamviewer.orderenricher.service.ReactiveOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static com.teamviewer.orderenricher.controller.OrdersApiControllerImpl.NEXT_CURSOR_HEADER;
+import static com.teamviewer.orderenricher.controller.OrdersApiControllerImpl.matches;
+import static com.teamviewer.orderenricher.controller.OrdersApiControllerImpl.requireValidWindow;
+import static com.teamviewer.orderenricher.controller.OrdersApiControllerImpl.weakEtag;
+import static com.teamviewer.orderenricher.controller.OrdersApiControllerImpl.withEtag;
+
+/**
+ * The orders API on the non-blocking stack ({@code reactive} profile), with the same status codes and headers
+ * as {@link OrdersApiControllerImpl} and {@link OrdersStreamController}. Write-behind is a servlet-stack feature,
+ * so {@code Prefer: respond-async} is ignored here and orders are always stored before the response.
+ * Bulk ingestion ({@code POST /orders:bulk}) is not offered in this mode.
+ */
+@RequiredArgsConstructor
+@Controller
+@Profile("reactive")
+@RequestMapping("${openapi.orderEnricherAPI.base-path:/v1}")
+public class ReactiveOrdersController implements OrdersApi {
+
+    private final ReactiveOrderService orderService;
+    private final OrderPageProperties pageProperties;
+
+    @Override
+    public Mono<ResponseEntity<EnrichedOrderResponse>> createOrder(Mono<OrderRequest> orderRequest, String prefer,
+                                                                   ServerWebExchange exchange) {
+        return orderRequest.flatMap(orderService::createOrder)
+                .map(submitted -> new ResponseEntity<>(submitted.order(),
+                        submitted.resent() ? HttpStatus.OK : HttpStatus.CREATED));
+    }
+
+    @Override
+    public Mono<ResponseEntity<OrderStatusResponse>> getOrderStatus(String orderId, ServerWebExchange exchange) {
+        return orderService.getOrderStatus(orderId)
+                .map(ResponseEntity::ok)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Order with ID '" + orderId + "' not found.")));
+    }
+
+    @Override
+    public Mono<ResponseEntity<EnrichedOrderResponse>> getOrderById(String orderId, String ifNoneMatch,
+                                                                    ServerWebExchange exchange) {
+        return orderService.getOrderEtag(orderId)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(etag -> etag.isPresent() && matches(ifNoneMatch, etag.get())
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(weakEtag(etag.get())).build())
+                        : orderService.getOrderById(orderId)
+                                .map(order -> withEtag(ResponseEntity.ok(), etag).body(order))
+                                .defaultIfEmpty(ResponseEntity.noContent().build()));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<EnrichedOrderResponse>>> getOrders(String customerId, String productId,
+                                                                       OffsetDateTime from, OffsetDateTime to,
+                                                                       Integer limit, String cursor,
+                                                                       String ifNoneMatch, ServerWebExchange exchange) {
+        if (limit != null && limit < 1) {
+            return Mono.error(new InvalidRequestException("limit must be at least 1."));
+        }
+        int pageSize = limit == null ? pageProperties.defaultLimit() : Math.min(limit, pageProperties.maxLimit());
+        return Mono.fromRunnable(() -> requireValidWindow(from, to))
+                .then(Mono.defer(() -> orderService.getOrdersEtag(customerId, productId, from, to, cursor, pageSize)))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(etag -> etag.isPresent() && matches(ifNoneMatch, etag.get())
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(weakEtag(etag.get())).build())
+                        // The page is collected first: whether there is a next cursor is only known at its end
+                        : orderService.getOrders(customerId, productId, from, to, cursor, pageSize).collectList()
+                                .map(page -> {
+                                    ResponseEntity.BodyBuilder response = withEtag(ResponseEntity.ok(), etag);
+                                    if (page.size() == pageSize) {
+                                        response.header(NEXT_CURSOR_HEADER, OrderCursor.after(page.get(page.size() - 1)).encode());
+                                    }
+                                    return response.body(Flux.fromIterable(page));
+                                }));
+    }
+
+    /**
+     * Streaming variant of {@code GET /orders}, selected with {@code Accept: application/x-ndjson}. Orders are
+     * written as the client reads them; the next page is only fetched once the previous one has been sent.
+     */
+    @GetMapping(value = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseBody
+    public Flux<EnrichedOrderResponse> streamOrders(@RequestParam(value = "customerId", required = false) String customerId,
+                                                    @RequestParam(value = "productId", required = false) String productId,
+                                                    @RequestParam(value = "from", required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                                    @RequestParam(value = "to", required = false)
+                                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return Mono.fromRunnable(() -> requireValidWindow(from, to))
+                .thenMany(Flux.defer(() -> orderService.streamOrders(customerId, productId, from, to, pageProperties.maxLimit())));
+    }
+}
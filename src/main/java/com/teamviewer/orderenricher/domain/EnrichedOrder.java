@@ -9,6 +9,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "enriched_orders")
+@IdClass(EnrichedOrderKey.class)
 @Data
 @NoArgsConstructor
 public class EnrichedOrder {
@@ -16,13 +17,17 @@ public class EnrichedOrder {
     @Id
     private String orderId;
 
+    @Id
     private OffsetDateTime timestamp;
 
     @Embedded
     private CustomerInfo customer;
 
     @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "order_products", joinColumns = @JoinColumn(name = "order_id"))
+    // In the order of the key's properties: orderId, timestamp
+    @CollectionTable(name = "order_products", joinColumns = {
+            @JoinColumn(name = "order_id"),
+            @JoinColumn(name = "order_timestamp")})
     private List<ProductInfo> products;
 
     private BigDecimal totalPrice;
@@ -0,0 +1,20 @@
+package com.teamviewer.orderenricher.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * Primary key of {@link EnrichedOrder}. The order tables are partitioned by timestamp, which must therefore be
+ * part of the key; order IDs on their own are kept unique in {@code order_keys}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichedOrderKey implements Serializable {
+    private String orderId;
+    private OffsetDateTime timestamp;
+}
@@ -1,10 +1,10 @@
 package com.teamviewer.orderenricher.domain;
 
-import com.teamviewer.orderenricher.domain.converter.StringListConverter;
-import jakarta.persistence.Convert;
+import com.teamviewer.orderenricher.domain.converter.StringListJavaType;
 import jakarta.persistence.Embeddable;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JavaType;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,6 +18,6 @@ public class ProductInfo {
     private BigDecimal price;
     private String category;
 
-    @Convert(converter = StringListConverter.class)
+    @JavaType(StringListJavaType.class)
     private List<String> tags;
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.teamviewer.orderenricher.domain.converter;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+import org.hibernate.type.descriptor.java.MutableMutabilityPlan;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.type.descriptor.jdbc.JdbcTypeIndicators;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps a list of strings to one text column, in the format of {@link StringListConverter}. Mapped through
+ * {@code @Convert} instead, Hibernate describes the list with its generic collection type, which cannot hash a
+ * value: dirty-checking an order's product bag then fails with an {@code UnsupportedOperationException} from
+ * {@code CollectionJavaType.extractHashCode}. Here lists are compared and hashed by their elements, and
+ * snapshots are copies, so changes made in place are detected too.
+ */
+public class StringListJavaType extends AbstractClassJavaType<List<String>> {
+
+    private static final StringListConverter CONVERTER = new StringListConverter();
+
+    private static final MutableMutabilityPlan<List<String>> MUTABILITY_PLAN = new MutableMutabilityPlan<>() {
+        @Override
+        protected List<String> deepCopyNotNull(List<String> value) {
+            return new ArrayList<>(value);
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    public StringListJavaType() {
+        super((Class<List<String>>) (Class<?>) List.class, MUTABILITY_PLAN);
+    }
+
+    @Override
+    public JdbcType getRecommendedJdbcType(JdbcTypeIndicators context) {
+        return context.getJdbcType(Types.VARCHAR);
+    }
+
+    @Override
+    public <X> X unwrap(List<String> value, Class<X> type, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return type.cast(CONVERTER.convertToDatabaseColumn(value));
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> List<String> wrap(X value, WrapperOptions options) {
+        // A null column reads as an empty list, as with the converter
+        if (value == null || value instanceof String) {
+            return CONVERTER.convertToEntityAttribute((String) value);
+        }
+        throw unknownWrap(value.getClass());
+    }
+}
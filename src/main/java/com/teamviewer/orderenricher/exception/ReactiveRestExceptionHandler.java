@@ -0,0 +1,37 @@
+package com.teamviewer.orderenricher.exception;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * {@link RestExceptionHandler} for the {@code reactive} profile, with the same status codes and error body.
+ */
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveRestExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Object> handleResourceNotFound(ResourceNotFoundException ex, ServerWebExchange exchange) {
+        return RestExceptionHandler.buildErrorResponse(ex, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Object> handleInvalidRequest(InvalidRequestException ex, ServerWebExchange exchange) {
+        return RestExceptionHandler.buildErrorResponse(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ResourceConflictException.class)
+    public ResponseEntity<Object> handleResourceConflict(ResourceConflictException ex, ServerWebExchange exchange) {
+        return RestExceptionHandler.buildErrorResponse(ex, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Object> handleServiceUnavailable(ServiceUnavailableException ex, ServerWebExchange exchange) {
+        return RestExceptionHandler.buildErrorResponse(ex, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
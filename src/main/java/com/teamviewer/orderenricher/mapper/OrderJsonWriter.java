@@ -0,0 +1,128 @@
+package com.teamviewer.orderenricher.mapper;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Writes an {@link EnrichedOrder} as the JSON of its {@link EnrichedOrderResponse}, straight from the entity
+ * onto a Jackson generator. {@link OrderMapper#toApi} followed by serialization builds a response, customer and
+ * product objects and a list per order only for Jackson to walk them once; this writes the same fields in the
+ * same order without them. Timestamps and prices go through the application mapper's own serializers, and
+ * null fields follow its inclusion setting, so the output matches the mapped response byte for byte.
+ */
+@Component
+public class OrderJsonWriter {
+
+    private final ObjectMapper objectMapper;
+    private final SerializerProvider serializers;
+    private final JsonSerializer<Object> timestampSerializer;
+    private final JsonSerializer<Object> priceSerializer;
+    private final boolean writeNulls;
+
+    public OrderJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.serializers = objectMapper.getSerializerProviderInstance();
+        try {
+            this.timestampSerializer = serializers.findValueSerializer(OffsetDateTime.class);
+            this.priceSerializer = serializers.findValueSerializer(BigDecimal.class);
+        } catch (JsonMappingException ex) {
+            throw new IllegalStateException("No serializer for order timestamps or prices", ex);
+        }
+        JsonInclude.Include inclusion = objectMapper.getSerializationConfig().getDefaultPropertyInclusion().getValueInclusion();
+        this.writeNulls = inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+    }
+
+    /**
+     * A UTF-8 generator configured like the application mapper. Closing it does not close the stream.
+     */
+    public JsonGenerator createGenerator(OutputStream out) {
+        try {
+            return objectMapper.createGenerator(out, JsonEncoding.UTF8)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void write(EnrichedOrder order, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, "orderId", order.getOrderId());
+        writeValue(generator, "timestamp", order.getTimestamp(), timestampSerializer);
+        writeCustomer(generator, order.getCustomer());
+        generator.writeFieldName("products");
+        generator.writeStartArray();
+        List<ProductInfo> products = order.getProducts();
+        for (int i = 0; i < products.size(); i++) {
+            writeProduct(generator, products.get(i));
+        }
+        generator.writeEndArray();
+        writeValue(generator, "totalPrice", order.getTotalPrice(), priceSerializer);
+        generator.writeEndObject();
+    }
+
+    private void writeCustomer(JsonGenerator generator, CustomerInfo customer) throws IOException {
+        generator.writeFieldName("customer");
+        generator.writeStartObject();
+        writeString(generator, "id", customer.getCustomerId());
+        writeString(generator, "name", customer.getName());
+        writeString(generator, "street", customer.getStreet());
+        writeString(generator, "zip", customer.getZip());
+        writeString(generator, "country", customer.getCountry());
+        generator.writeEndObject();
+    }
+
+    private void writeProduct(JsonGenerator generator, ProductInfo product) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, "id", product.getProductId());
+        writeString(generator, "name", product.getName());
+        writeValue(generator, "price", product.getPrice(), priceSerializer);
+        writeString(generator, "category", product.getCategory());
+        List<String> tags = product.getTags();
+        if (tags != null) {
+            generator.writeFieldName("tags");
+            generator.writeStartArray();
+            for (int i = 0; i < tags.size(); i++) {
+                generator.writeString(tags.get(i));
+            }
+            generator.writeEndArray();
+        } else if (writeNulls) {
+            generator.writeNullField("tags");
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeString(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        } else if (writeNulls) {
+            generator.writeNullField(name);
+        }
+    }
+
+    private void writeValue(JsonGenerator generator, String name, Object value, JsonSerializer<Object> serializer)
+            throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            serializer.serialize(value, generator, serializers);
+        } else if (writeNulls) {
+            generator.writeNullField(name);
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.teamviewer.orderenricher.mapper;
 
 import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.CustomerSummary;
 import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
 import com.teamviewer.orderenricher.api.model.OrderRequest;
 import com.teamviewer.orderenricher.api.model.Product;
 import com.teamviewer.orderenricher.domain.CustomerInfo;
 import com.teamviewer.orderenricher.domain.EnrichedOrder;
 import com.teamviewer.orderenricher.domain.ProductInfo;
+import com.teamviewer.orderenricher.repository.CustomerTotals;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,14 +26,17 @@ public class OrderMapper {
         entity.setCustomer(toCustomerInfo(customer));
         entity.setProducts(products.stream().map(this::toProductInfo).collect(Collectors.toList()));
 
-        BigDecimal totalPrice = products.stream()
-                .map(Product::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        entity.setTotalPrice(totalPrice);
+        entity.setTotalPrice(totalPrice(products));
 
         return entity;
     }
 
+    public BigDecimal totalPrice(List<Product> products) {
+        return products.stream()
+                .map(Product::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     public EnrichedOrderResponse toApi(EnrichedOrder entity) {
         EnrichedOrderResponse api = new EnrichedOrderResponse();
         api.setOrderId(entity.getOrderId());
@@ -41,6 +47,14 @@ public class OrderMapper {
         return api;
     }
 
+    public CustomerSummary toSummary(CustomerTotals totals) {
+        CustomerSummary api = new CustomerSummary(totals.customerId(), totals.orderCount(), totals.totalSpend(),
+                new HashMap<>(totals.categoryCounts()));
+        api.setFirstOrderAt(totals.firstOrderAt());
+        api.setLastOrderAt(totals.lastOrderAt());
+        return api;
+    }
+
     private CustomerInfo toCustomerInfo(Customer customer) {
         CustomerInfo info = new CustomerInfo();
         info.setCustomerId(customer.getId());
@@ -0,0 +1,263 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-customer order aggregates in {@code customer_summaries}, over the orders in the attached partitions of
+ * the order tables. Orders are added with an upsert in the transaction that stores them, and subtracted with
+ * {@link #subtractDetached} when their month is detached; {@link #rebuildRange} recomputes the rows of a range
+ * of customers from the order tables.
+ */
+@Repository
+public class CustomerSummaryRepository {
+
+    /**
+     * Adds the inserted row's values to an existing summary row, aliased {@code s}. Shared with
+     * {@link ReactiveOrderRepository}.
+     */
+    static final String ADD_ON_CONFLICT = """
+            ON CONFLICT (customer_id) DO UPDATE SET
+                order_count = s.order_count + EXCLUDED.order_count,
+                total_spend = s.total_spend + EXCLUDED.total_spend,
+                first_order_at = LEAST(s.first_order_at, EXCLUDED.first_order_at),
+                last_order_at = GREATEST(s.last_order_at, EXCLUDED.last_order_at),
+                category_counts = (
+                    SELECT COALESCE(jsonb_object_agg(c.key, c.count), '{}')
+                    FROM (SELECT e.key, SUM(CAST(e.value AS bigint)) AS count
+                          FROM (SELECT * FROM jsonb_each_text(s.category_counts)
+                                UNION ALL
+                                SELECT * FROM jsonb_each_text(EXCLUDED.category_counts)) e
+                          GROUP BY e.key) c)
+            """;
+
+    private static final String ADD = """
+            INSERT INTO customer_summaries AS s
+                (customer_id, order_count, total_spend, first_order_at, last_order_at, category_counts)
+            SELECT t.customer_id, t.order_count, CAST(t.total_spend AS numeric),
+                   CAST(t.first_order_at AS timestamptz), CAST(t.last_order_at AS timestamptz),
+                   CAST(t.category_counts AS jsonb)
+            FROM unnest(?::text[], ?::bigint[], ?::text[], ?::text[], ?::text[], ?::text[])
+                AS t(customer_id, order_count, total_spend, first_order_at, last_order_at, category_counts)
+            """ + ADD_ON_CONFLICT;
+
+    private static final String FIND = """
+            SELECT customer_id, order_count, total_spend, first_order_at, last_order_at, category_counts::text AS category_counts
+            FROM customer_summaries
+            WHERE customer_id = ?
+            """;
+
+    // Writers wait for the lock, so an order stored meanwhile is either in the recount or added after it
+    private static final String LOCK = "LOCK TABLE customer_summaries IN EXCLUSIVE MODE";
+
+    // Ranges are (after, last], or everything above after if last is null
+    private static final String DELETE_RANGE = """
+            DELETE FROM customer_summaries
+            WHERE customer_id > ? AND (CAST(? AS text) IS NULL OR customer_id <= ?)
+            """;
+
+    private static final String RECOUNT_RANGE = """
+            INSERT INTO customer_summaries (customer_id, order_count, total_spend, first_order_at, last_order_at, category_counts)
+            SELECT o.customer_id, COUNT(*), COALESCE(SUM(o.total_price), 0), MIN(o.timestamp), MAX(o.timestamp),
+                   COALESCE((SELECT jsonb_object_agg(c.category, c.products)
+                             FROM (SELECT p.category, COUNT(*) AS products
+                                   FROM enriched_orders co
+                                   JOIN order_products p ON p.order_id = co.order_id AND p.order_timestamp = co.timestamp
+                                   WHERE co.customer_id = o.customer_id AND p.category IS NOT NULL
+                                   GROUP BY p.category) c), '{}')
+            FROM enriched_orders o
+            WHERE o.customer_id > ? AND (CAST(? AS text) IS NULL OR o.customer_id <= ?)
+            GROUP BY o.customer_id
+            """;
+
+    // Takes each customer's totals in the detached tables, %1$s of orders and %2$s of products, off their
+    // summary. First and last order times are read again from the orders still attached.
+    private static final String SUBTRACT_DETACHED = """
+            WITH detached AS (
+                SELECT o.customer_id, COUNT(*) AS order_count, COALESCE(SUM(o.total_price), 0) AS total_spend,
+                       COALESCE((SELECT jsonb_object_agg(c.category, c.products)
+                                 FROM (SELECT p.category, COUNT(*) AS products
+                                       FROM %1$s co
+                                       JOIN %2$s p ON p.order_id = co.order_id AND p.order_timestamp = co.timestamp
+                                       WHERE co.customer_id = o.customer_id AND p.category IS NOT NULL
+                                       GROUP BY p.category) c), '{}') AS category_counts
+                FROM %1$s o
+                WHERE o.customer_id IS NOT NULL
+                GROUP BY o.customer_id
+            )
+            UPDATE customer_summaries s SET
+                order_count = s.order_count - d.order_count,
+                total_spend = s.total_spend - d.total_spend,
+                first_order_at = (SELECT MIN(o.timestamp) FROM enriched_orders o WHERE o.customer_id = s.customer_id),
+                last_order_at = (SELECT MAX(o.timestamp) FROM enriched_orders o WHERE o.customer_id = s.customer_id),
+                category_counts = (
+                    SELECT COALESCE(jsonb_object_agg(c.key, c.count), '{}')
+                    FROM (SELECT e.key, SUM(e.count) AS count
+                          FROM (SELECT key, CAST(value AS bigint) AS count FROM jsonb_each_text(s.category_counts)
+                                UNION ALL
+                                SELECT key, -CAST(value AS bigint) FROM jsonb_each_text(d.category_counts)) e
+                          GROUP BY e.key
+                          HAVING SUM(e.count) > 0) c)
+            FROM detached d
+            WHERE s.customer_id = d.customer_id
+            """;
+
+    private static final String DELETE_EMPTY = "DELETE FROM customer_summaries WHERE order_count <= 0";
+
+    // The customer that closes a range of the given size, or none if fewer are left
+    private static final String RANGE_END = """
+            SELECT DISTINCT customer_id FROM enriched_orders
+            WHERE customer_id > ?
+            ORDER BY customer_id
+            OFFSET ? LIMIT 1
+            """;
+
+    // Held by the session that runs a rebuild, so only one instance rebuilds at a time
+    private static final String TRY_REBUILD_LOCK = "SELECT pg_try_advisory_lock(hashtext('customer_summaries.rebuild'))";
+    private static final String REBUILD_UNLOCK = "SELECT pg_advisory_unlock(hashtext('customer_summaries.rebuild'))";
+
+    private static final TypeReference<Map<String, Long>> CATEGORY_COUNTS = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CustomerSummaryRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Adds the totals to the customers' summaries with one statement, creating missing ones.
+     * Must run in the transaction that stores the orders.
+     */
+    public void add(Collection<CustomerTotals> totals) {
+        if (totals.isEmpty()) {
+            return;
+        }
+        String[] customerIds = totals.stream().map(CustomerTotals::customerId).toArray(String[]::new);
+        Long[] orderCounts = totals.stream().map(CustomerTotals::orderCount).toArray(Long[]::new);
+        String[] totalSpends = totals.stream().map(t -> t.totalSpend().toPlainString()).toArray(String[]::new);
+        String[] firstOrders = totals.stream().map(t -> format(t.firstOrderAt())).toArray(String[]::new);
+        String[] lastOrders = totals.stream().map(t -> format(t.lastOrderAt())).toArray(String[]::new);
+        String[] categoryCounts = totals.stream().map(t -> toJson(objectMapper, t.categoryCounts())).toArray(String[]::new);
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(ADD)) {
+                statement.setArray(1, connection.createArrayOf("text", customerIds));
+                statement.setArray(2, connection.createArrayOf("bigint", orderCounts));
+                statement.setArray(3, connection.createArrayOf("text", totalSpends));
+                statement.setArray(4, connection.createArrayOf("text", firstOrders));
+                statement.setArray(5, connection.createArrayOf("text", lastOrders));
+                statement.setArray(6, connection.createArrayOf("text", categoryCounts));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    public Optional<CustomerTotals> find(String customerId) {
+        return jdbcTemplate.query(FIND, this::mapRow, customerId).stream().findFirst();
+    }
+
+    /**
+     * Removes the orders of detached partitions from the summaries: customers left without orders lose their
+     * row. Must run in the transaction that detaches them, after the detach.
+     *
+     * @param ordersTable   the detached partition of {@code enriched_orders}
+     * @param productsTable the detached partition of {@code order_products} of the same month
+     * @return the number of summaries changed
+     */
+    public int subtractDetached(String ordersTable, String productsTable) {
+        int changed = jdbcTemplate.update(SUBTRACT_DETACHED.formatted(ordersTable, productsTable));
+        jdbcTemplate.update(DELETE_EMPTY);
+        return changed;
+    }
+
+    /**
+     * The last customer of the next {@code customers} customers with orders after {@code after}, in ID order.
+     * Empty if fewer are left, i.e. the rest of the customers make up the last range.
+     */
+    public Optional<String> findRangeEnd(String after, int customers) {
+        return jdbcTemplate.queryForList(RANGE_END, String.class, after, customers - 1).stream().findFirst();
+    }
+
+    /**
+     * Replaces the summaries of the customers in {@code (after, last]} with ones recomputed from their stored
+     * orders, or of every customer after {@code after} if {@code last} is null. Order writes wait until it commits.
+     *
+     * @return the number of customers in the range with orders
+     */
+    @Transactional
+    public int rebuildRange(String after, String last) {
+        jdbcTemplate.execute(LOCK);
+        jdbcTemplate.update(DELETE_RANGE, after, last, last);
+        return jdbcTemplate.update(RECOUNT_RANGE, after, last, last);
+    }
+
+    /**
+     * Runs the rebuild while holding the rebuild lock, unless another session, e.g. of another instance,
+     * holds it. The lock is held by a connection of its own, so the rebuild takes a second one.
+     *
+     * @return whether the rebuild ran
+     */
+    public boolean runExclusively(Runnable rebuild) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            if (!queryBoolean(connection, TRY_REBUILD_LOCK)) {
+                return false;
+            }
+            try {
+                rebuild.run();
+                return true;
+            } finally {
+                queryBoolean(connection, REBUILD_UNLOCK);
+            }
+        }));
+    }
+
+    private static boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            return result.next() && result.getBoolean(1);
+        }
+    }
+
+    static String toJson(ObjectMapper objectMapper, Map<String, Long> categoryCounts) {
+        try {
+            return objectMapper.writeValueAsString(categoryCounts);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize category counts", ex);
+        }
+    }
+
+    static Map<String, Long> readCategoryCounts(ObjectMapper objectMapper, String customerId, String json) {
+        try {
+            return objectMapper.readValue(json, CATEGORY_COUNTS);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable category counts of customer " + customerId, ex);
+        }
+    }
+
+    static String format(OffsetDateTime timestamp) {
+        return timestamp != null ? timestamp.toString() : null;
+    }
+
+    private CustomerTotals mapRow(ResultSet row, int rowNum) throws SQLException {
+        String customerId = row.getString("customer_id");
+        return new CustomerTotals(customerId, row.getLong("order_count"), row.getBigDecimal("total_spend"),
+                row.getObject("first_order_at", OffsetDateTime.class), row.getObject("last_order_at", OffsetDateTime.class),
+                readCategoryCounts(objectMapper, customerId, row.getString("category_counts")));
+    }
+}
@@ -0,0 +1,66 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates of a customer's orders, as stored in {@code customer_summaries}, or what a set of new orders adds
+ * to them. {@code categoryCounts} is the number of ordered products per category; products without one are
+ * only counted in the order total.
+ */
+public record CustomerTotals(String customerId, long orderCount, BigDecimal totalSpend,
+                             OffsetDateTime firstOrderAt, OffsetDateTime lastOrderAt, Map<String, Long> categoryCounts) {
+
+    /**
+     * What the orders add to each customer's totals, in customer ID order so concurrent writers lock the
+     * summary rows in the same order.
+     */
+    public static List<CustomerTotals> of(Collection<EnrichedOrder> orders) {
+        Map<String, CustomerTotals> byCustomer = new HashMap<>();
+        for (EnrichedOrder order : orders) {
+            if (order.getCustomer() != null && order.getCustomer().getCustomerId() != null) {
+                byCustomer.merge(order.getCustomer().getCustomerId(), of(order), CustomerTotals::plus);
+            }
+        }
+        return byCustomer.values().stream().sorted(Comparator.comparing(CustomerTotals::customerId)).toList();
+    }
+
+    static CustomerTotals of(EnrichedOrder order) {
+        Map<String, Long> categoryCounts = new TreeMap<>();
+        if (order.getProducts() != null) {
+            for (ProductInfo product : order.getProducts()) {
+                if (product.getCategory() != null) {
+                    categoryCounts.merge(product.getCategory(), 1L, Long::sum);
+                }
+            }
+        }
+        BigDecimal total = order.getTotalPrice() != null ? order.getTotalPrice() : BigDecimal.ZERO;
+        return new CustomerTotals(order.getCustomer().getCustomerId(), 1, total,
+                order.getTimestamp(), order.getTimestamp(), categoryCounts);
+    }
+
+    CustomerTotals plus(CustomerTotals other) {
+        Map<String, Long> categories = new TreeMap<>(categoryCounts);
+        other.categoryCounts.forEach((category, count) -> categories.merge(category, count, Long::sum));
+        return new CustomerTotals(customerId, orderCount + other.orderCount, totalSpend.add(other.totalSpend),
+                earlier(firstOrderAt, other.firstOrderAt), later(lastOrderAt, other.lastOrderAt), categories);
+    }
+
+    // Like LEAST and GREATEST in Postgres, a missing timestamp loses to any present one
+    private static OffsetDateTime earlier(OffsetDateTime a, OffsetDateTime b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static OffsetDateTime later(OffsetDateTime a, OffsetDateTime b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+}
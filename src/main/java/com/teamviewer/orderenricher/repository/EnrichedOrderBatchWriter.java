@@ -0,0 +1,154 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import com.teamviewer.orderenricher.domain.converter.StringListConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Set-based inserts for bulk ingestion. Each call writes a whole batch of orders with one statement
+ * per table: the columns are shipped as parallel arrays and expanded server side with {@code unnest},
+ * so a batch costs two round trips regardless of its size and no row is read back first.
+ * Orders whose ID already exists are skipped, not overwritten.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EnrichedOrderBatchWriter {
+
+    // IDs are registered first; only the first occurrence of each ID that was not registered yet is inserted
+    private static final String INSERT_ORDERS = """
+            WITH batch AS (
+                SELECT DISTINCT ON (o.order_id) o.*
+                FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[])
+                    WITH ORDINALITY AS o(order_id, ts, customer_id, name, street, zip, country, total_price, position)
+                ORDER BY o.order_id, o.position
+            ), registered AS (
+                INSERT INTO order_keys (order_id, timestamp)
+                SELECT order_id, ts::timestamptz FROM batch
+                ON CONFLICT (order_id) DO NOTHING
+                RETURNING order_id
+            )
+            INSERT INTO enriched_orders (order_id, timestamp, customer_id, name, street, zip, country, total_price)
+            SELECT b.order_id, b.ts::timestamptz, b.customer_id, b.name, b.street, b.zip, b.country, b.total_price::numeric
+            FROM batch b
+            JOIN registered r ON r.order_id = b.order_id
+            RETURNING order_id
+            """;
+
+    private static final String INSERT_PRODUCTS = """
+            INSERT INTO order_products (order_id, order_timestamp, product_id, name, price, category, tags)
+            SELECT p.order_id, p.order_timestamp::timestamptz, p.product_id, p.name, p.price::numeric, p.category, p.tags
+            FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[])
+                AS p(order_id, order_timestamp, product_id, name, price, category, tags)
+            """;
+
+    private static final StringListConverter TAGS_CONVERTER = new StringListConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the orders and their products, skipping IDs that are already stored.
+     * Must run inside a transaction so orders never become visible without their products.
+     *
+     * @return the IDs that were actually inserted
+     */
+    public Set<String> insertNew(List<EnrichedOrder> orders) {
+        if (orders.isEmpty()) {
+            return Set.of();
+        }
+        List<String> insertedIds = jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ORDERS)) {
+                bindColumns(connection, statement, orders,
+                        EnrichedOrder::getOrderId,
+                        order -> Objects.toString(order.getTimestamp(), null),
+                        order -> customer(order).getCustomerId(),
+                        order -> customer(order).getName(),
+                        order -> customer(order).getStreet(),
+                        order -> customer(order).getZip(),
+                        order -> customer(order).getCountry(),
+                        order -> plainString(order.getTotalPrice()));
+                List<String> ids = new ArrayList<>(orders.size());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getString(1));
+                    }
+                }
+                return ids;
+            }
+        });
+        Set<String> inserted = new HashSet<>(Objects.requireNonNull(insertedIds));
+
+        // A duplicate ID inside the batch is inserted once; only its first occurrence gets the products
+        List<String[]> productRows = new ArrayList<>();
+        Set<String> written = new HashSet<>();
+        for (EnrichedOrder order : orders) {
+            if (!inserted.contains(order.getOrderId()) || !written.add(order.getOrderId()) || order.getProducts() == null) {
+                continue;
+            }
+            for (ProductInfo product : order.getProducts()) {
+                productRows.add(new String[]{
+                        order.getOrderId(),
+                        Objects.toString(order.getTimestamp(), null),
+                        product.getProductId(),
+                        product.getName(),
+                        plainString(product.getPrice()),
+                        product.getCategory(),
+                        TAGS_CONVERTER.convertToDatabaseColumn(product.getTags())});
+            }
+        }
+        if (!productRows.isEmpty()) {
+            jdbcTemplate.execute((Connection connection) -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_PRODUCTS)) {
+                    for (int column = 0; column < 7; column++) {
+                        int index = column;
+                        bindColumn(connection, statement, column + 1, productRows, row -> row[index]);
+                    }
+                    return statement.executeUpdate();
+                }
+            });
+        }
+        return inserted;
+    }
+
+    @SafeVarargs
+    private static <T> void bindColumns(Connection connection, PreparedStatement statement, List<T> rows,
+                                        Function<T, String>... columns) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            bindColumn(connection, statement, i + 1, rows, columns[i]);
+        }
+    }
+
+    private static <T> void bindColumn(Connection connection, PreparedStatement statement, int parameterIndex,
+                                       List<T> rows, Function<T, String> column) throws SQLException {
+        String[] values = new String[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = column.apply(rows.get(i));
+        }
+        Array array = connection.createArrayOf("text", values);
+        statement.setArray(parameterIndex, array);
+    }
+
+    private static CustomerInfo customer(EnrichedOrder order) {
+        return order.getCustomer() != null ? order.getCustomer() : new CustomerInfo();
+    }
+
+    private static String plainString(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+}
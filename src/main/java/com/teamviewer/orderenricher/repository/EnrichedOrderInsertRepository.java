@@ -0,0 +1,17 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+
+/**
+ * Create path for orders that are known to be new.
+ */
+public interface EnrichedOrderInsertRepository {
+
+    /**
+     * Registers the order ID and inserts the order and its products without first reading them back.
+     * {@code save} would merge, because the ID is assigned by the client, and merging loads the
+     * order and its product rows before every insert. An existing ID fails on the primary key of
+     * {@code order_keys} with a {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    void insert(EnrichedOrder order);
+}
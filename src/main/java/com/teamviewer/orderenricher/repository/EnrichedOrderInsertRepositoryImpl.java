@@ -0,0 +1,23 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class EnrichedOrderInsertRepositoryImpl implements EnrichedOrderInsertRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insert(EnrichedOrder order) {
+        // The partitioned order table cannot reject a duplicate ID with another timestamp; the key table does
+        entityManager.createNativeQuery("INSERT INTO order_keys (order_id, timestamp) VALUES (?1, ?2)")
+                .setParameter(1, order.getOrderId())
+                .setParameter(2, order.getTimestamp())
+                .executeUpdate();
+        entityManager.persist(order);
+        // Flush now so a duplicate ID surfaces here rather than at commit
+        entityManager.flush();
+    }
+}
@@ -1,27 +1,94 @@
 package com.teamviewer.orderenricher.repository;
 
 import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.EnrichedOrderKey;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface EnrichedOrderRepository extends JpaRepository<EnrichedOrder, String> {
+public interface EnrichedOrderRepository extends JpaRepository<EnrichedOrder, EnrichedOrderKey>, EnrichedOrderInsertRepository {
+
+    // Without the timestamp these look the ID up in every partition; order IDs are unique across them
+    Optional<EnrichedOrder> findByOrderId(String orderId);
+
+    boolean existsByOrderId(String orderId);
+
+    List<EnrichedOrder> findByOrderIdIn(Collection<String> orderIds);
 
     /**
-     * Finds orders by customerId and/or productId.
-     * If a parameter is null, it is ignored.
-     * The DISTINCT keyword prevents duplicate orders when an order matches multiple products.
+     * Keyset page of orders, optionally for one customer, ordered by {@code (timestamp, orderId)}.
+     * Starts after the given position, or at the beginning if it is null, and ends before
+     * {@code beforeTimestamp} if that is set. Unlike an offset, the position is found through the ordering,
+     * so later pages cost the same as the first; both bounds also limit the partitions that are read.
+     * The casts type the bounds for Postgres, which cannot infer a parameter that is only compared to null.
      */
     @Query("""
-            select distinct o
+            select o
             from EnrichedOrder o
-            left join o.products p
             where (:customerId is null or o.customer.customerId = :customerId)
-            and (:productId  is null or p.productId = :productId)
+            and (cast(:afterTimestamp as OffsetDateTime) is null
+                    or o.timestamp > :afterTimestamp
+                    or (o.timestamp = :afterTimestamp and o.orderId > :afterOrderId))
+            and (cast(:beforeTimestamp as OffsetDateTime) is null or o.timestamp < :beforeTimestamp)
+            order by o.timestamp, o.orderId
+           """)
+    List<EnrichedOrder> findPage(@Param("customerId") String customerId,
+                                 @Param("afterTimestamp") OffsetDateTime afterTimestamp,
+                                 @Param("afterOrderId") String afterOrderId,
+                                 @Param("beforeTimestamp") OffsetDateTime beforeTimestamp,
+                                 Limit limit);
+
+    /**
+     * Keyset page of the orders containing a product, as {@link #findPage} but without loading any products.
+     * Orders are taken in keyset order and each is checked through the {@code (order_id, order_timestamp)}
+     * index, which only touches the order's own partition of {@code order_products}.
+     */
+    @Query("""
+            select new com.teamviewer.orderenricher.repository.OrderHeader(o.orderId, o.timestamp, o.customer, o.totalPrice)
+            from EnrichedOrder o
+            where exists (select 1 from o.products p where p.productId = :productId)
+            and (:customerId is null or o.customer.customerId = :customerId)
+            and (cast(:afterTimestamp as OffsetDateTime) is null
+                    or o.timestamp > :afterTimestamp
+                    or (o.timestamp = :afterTimestamp and o.orderId > :afterOrderId))
+            and (cast(:beforeTimestamp as OffsetDateTime) is null or o.timestamp < :beforeTimestamp)
+            order by o.timestamp, o.orderId
            """)
-    List<EnrichedOrder> findByCriteria(@Param("customerId") String customerId, @Param("productId") String productId);
-}
\ No newline at end of file
+    List<OrderHeader> findPageByProduct(@Param("customerId") String customerId,
+                                        @Param("productId") String productId,
+                                        @Param("afterTimestamp") OffsetDateTime afterTimestamp,
+                                        @Param("afterOrderId") String afterOrderId,
+                                        @Param("beforeTimestamp") OffsetDateTime beforeTimestamp,
+                                        Limit limit);
+
+    /**
+     * Only the rows of the given product within the given orders, whose timestamps lie between
+     * {@code firstTimestamp} and {@code lastTimestamp} inclusive.
+     */
+    @Query("""
+            select new com.teamviewer.orderenricher.repository.OrderProductRow(o.orderId, p)
+            from EnrichedOrder o
+            join o.products p
+            where o.orderId in :orderIds
+            and o.timestamp between :firstTimestamp and :lastTimestamp
+            and p.productId = :productId
+           """)
+    List<OrderProductRow> findProductRows(@Param("orderIds") Collection<String> orderIds,
+                                          @Param("firstTimestamp") OffsetDateTime firstTimestamp,
+                                          @Param("lastTimestamp") OffsetDateTime lastTimestamp,
+                                          @Param("productId") String productId);
+
+    /**
+     * The next registered order IDs after the given one, in ID order, including those of detached partitions.
+     */
+    @Query(value = "SELECT order_id FROM order_keys WHERE order_id > :after ORDER BY order_id", nativeQuery = true)
+    List<String> findOrderIdsAfter(@Param("after") String after, Limit limit);
+}
@@ -0,0 +1,145 @@
+package com.teamviewer.orderenricher.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Stores the JSON documents of the order read model in {@code order_documents}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderDocumentRepository {
+
+    // Documents are partitioned like their orders; the order's timestamp comes from its registered key.
+    // The content hash is taken of the text as serialized, before Postgres normalizes it to JSONB.
+    private static final String UPSERT = """
+            INSERT INTO order_documents (order_id, order_timestamp, version, document, content_hash)
+            SELECT d.order_id, k.timestamp, ?, d.document::jsonb, encode(sha256(convert_to(d.document, 'UTF8')), 'hex')
+            FROM unnest(?::text[], ?::text[]) AS d(order_id, document)
+            JOIN order_keys k ON k.order_id = d.order_id
+            ON CONFLICT (order_id, order_timestamp) DO UPDATE
+                SET version = EXCLUDED.version, document = EXCLUDED.document, content_hash = EXCLUDED.content_hash
+            """;
+
+    // The timestamp limits the lookup to the order's partition
+    private static final String FIND_DOCUMENT = """
+            SELECT document::text
+            FROM order_documents
+            WHERE order_id = ?
+            AND order_timestamp = (SELECT timestamp FROM order_keys WHERE order_id = ?)
+            """;
+
+    private static final String FIND_CONTENT_HASH = """
+            SELECT content_hash
+            FROM order_documents
+            WHERE order_id = ?
+            AND order_timestamp = (SELECT timestamp FROM order_keys WHERE order_id = ?)
+            """;
+
+    /**
+     * Hash over the content hashes of a page of orders, in page order, or NULL if an order of the page has
+     * no hash yet. The page conditions follow {@code WHERE true}. Shared with {@link ReactiveOrderRepository}.
+     */
+    static final String PAGE_CONTENT_HASH = """
+            SELECT CASE WHEN bool_and(page.content_hash IS NOT NULL) IS FALSE THEN NULL
+                        ELSE encode(sha256(convert_to(COALESCE(string_agg(page.content_hash, ',' ORDER BY page.timestamp, page.order_id), ''), 'UTF8')), 'hex')
+                   END
+            FROM (SELECT o.timestamp, o.order_id, d.content_hash
+                  FROM enriched_orders o
+                  LEFT JOIN order_documents d ON d.order_id = o.order_id AND d.order_timestamp = o.timestamp
+                  WHERE true%s
+                  ORDER BY o.timestamp, o.order_id
+                  LIMIT %s) page
+            """;
+
+    private static final String FIND_STALE_ORDER_IDS = """
+            SELECT o.order_id
+            FROM enriched_orders o
+            LEFT JOIN order_documents d ON d.order_id = o.order_id AND d.order_timestamp = o.timestamp
+            WHERE o.order_id > ?
+            AND (d.order_id IS NULL OR d.version < ?)
+            ORDER BY o.order_id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<String> findContentHash(String orderId) {
+        List<String> hashes = jdbcTemplate.queryForList(FIND_CONTENT_HASH, String.class, orderId, orderId);
+        return hashes.stream().filter(Objects::nonNull).findFirst();
+    }
+
+    /**
+     * The hash of the page {@link EnrichedOrderRepository#findPage} or {@link EnrichedOrderRepository#findPageByProduct}
+     * would return, computed from the stored content hashes without reading any order. Empty if an order of the
+     * page has no hash yet.
+     */
+    public Optional<String> findPageContentHash(String customerId, String productId, OffsetDateTime afterTimestamp,
+                                                String afterOrderId, OffsetDateTime beforeTimestamp, int limit) {
+        // Only the filters that are set, so the plan can prune partitions without knowing the parameters
+        StringBuilder conditions = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        if (customerId != null) {
+            conditions.append(" AND o.customer_id = ?");
+            args.add(customerId);
+        }
+        if (productId != null) {
+            conditions.append(" AND EXISTS (SELECT 1 FROM order_products p WHERE p.order_id = o.order_id"
+                    + " AND p.order_timestamp = o.timestamp AND p.product_id = ?)");
+            args.add(productId);
+        }
+        if (afterTimestamp != null) {
+            conditions.append(" AND (o.timestamp > ? OR (o.timestamp = ? AND o.order_id > ?))");
+            args.addAll(List.of(afterTimestamp, afterTimestamp, afterOrderId));
+        }
+        if (beforeTimestamp != null) {
+            conditions.append(" AND o.timestamp < ?");
+            args.add(beforeTimestamp);
+        }
+        args.add(limit);
+        String hash = jdbcTemplate.queryForObject(PAGE_CONTENT_HASH.formatted(conditions, "?"), String.class, args.toArray());
+        return Optional.ofNullable(hash);
+    }
+
+    public Optional<String> findDocument(String orderId) {
+        List<String> documents = jdbcTemplate.queryForList(FIND_DOCUMENT, String.class, orderId, orderId);
+        return documents.stream().findFirst();
+    }
+
+    /**
+     * Inserts or replaces the documents, keyed by order ID, with one statement. The orders' IDs must be
+     * registered already, which they are once the orders are inserted.
+     */
+    public void upsert(Map<String, String> documentsByOrderId, int version) {
+        if (documentsByOrderId.isEmpty()) {
+            return;
+        }
+        String[] orderIds = documentsByOrderId.keySet().toArray(String[]::new);
+        String[] documents = documentsByOrderId.values().toArray(String[]::new);
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                statement.setInt(1, version);
+                statement.setArray(2, connection.createArrayOf("text", orderIds));
+                statement.setArray(3, connection.createArrayOf("text", documents));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Orders after {@code afterOrderId} whose document is missing or older than {@code version}, in ID order.
+     */
+    public List<String> findOrderIdsWithStaleDocument(String afterOrderId, int version, int limit) {
+        return jdbcTemplate.queryForList(FIND_STALE_ORDER_IDS, String.class, afterOrderId, version, limit);
+    }
+}
@@ -0,0 +1,12 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * An order without its products, for queries that pick the product rows themselves.
+ */
+public record OrderHeader(String orderId, OffsetDateTime timestamp, CustomerInfo customer, BigDecimal totalPrice) {
+}
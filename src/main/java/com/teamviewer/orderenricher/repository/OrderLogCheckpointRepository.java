@@ -0,0 +1,37 @@
+package com.teamviewer.orderenricher.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Positions of the write-behind drainer in {@code order_log_checkpoints}, one row per order log.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderLogCheckpointRepository {
+
+    private static final String UPSERT = """
+            INSERT INTO order_log_checkpoints (log_id, position, updated_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (log_id) DO UPDATE SET position = EXCLUDED.position, updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OptionalLong findPosition(String logId) {
+        List<Long> positions = jdbcTemplate.queryForList(
+                "SELECT position FROM order_log_checkpoints WHERE log_id = ?", Long.class, logId);
+        return positions.isEmpty() ? OptionalLong.empty() : OptionalLong.of(positions.get(0));
+    }
+
+    /**
+     * Must run in the transaction that wrote the entries before {@code position}.
+     */
+    public void savePosition(String logId, long position) {
+        jdbcTemplate.update(UPSERT, logId, position);
+    }
+}
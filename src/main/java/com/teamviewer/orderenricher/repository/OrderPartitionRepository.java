@@ -0,0 +1,87 @@
+package com.teamviewer.orderenricher.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The monthly partitions of the order tables (see V6). A month has one partition in each of
+ * {@code enriched_orders}, {@code order_products} and {@code order_documents}, named
+ * {@code <table>_yYYYYmMM} and bounded by the month in UTC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderPartitionRepository {
+
+    private static final String CREATE = "SELECT create_order_partitions(?)";
+
+    private static final String FIND = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'enriched_orders'::regclass
+            """;
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("enriched_orders_y(\\d{4})m(\\d{2})");
+
+    // Before the order tables, in the order a reconciliation range takes them, so the two cannot deadlock
+    private static final String LOCK_SUMMARIES = "LOCK TABLE customer_summaries IN ROW EXCLUSIVE MODE";
+
+    // Referencing tables first: a partition of enriched_orders can only be detached once nothing points at it
+    private static final List<String> TABLES = List.of("order_documents", "order_products", "enriched_orders");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerSummaryRepository customerSummaryRepository;
+
+    /**
+     * @return whether the partitions were created; false if the month already had them
+     */
+    public boolean createMonth(YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(CREATE, Boolean.class, month.atDay(1)));
+    }
+
+    /**
+     * @return the months that have partitions attached, in no particular order
+     */
+    public List<YearMonth> findMonths() {
+        return jdbcTemplate.queryForList(FIND, String.class).stream()
+                .map(OrderPartitionRepository::parseMonth)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Detaches the month's partitions. Their rows disappear from the order tables at once but stay in the
+     * detached tables, which can be archived or dropped separately. Order IDs stay registered in
+     * {@code order_keys}, so they are not accepted again. Customer summaries only cover attached months, so the
+     * month's orders are taken off them in the same transaction.
+     */
+    @Transactional
+    public void detachMonth(YearMonth month) {
+        jdbcTemplate.execute(LOCK_SUMMARIES);
+        for (String table : TABLES) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partitionName(table, month));
+        }
+        customerSummaryRepository.subtractDetached(partitionName("enriched_orders", month),
+                partitionName("order_products", month));
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    static YearMonth parseMonth(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+}
@@ -0,0 +1,9 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.ProductInfo;
+
+/**
+ * One product row together with the order it belongs to.
+ */
+public record OrderProductRow(String orderId, ProductInfo product) {
+}
@@ -0,0 +1,366 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamviewer.orderenricher.config.ReactiveDatabaseProperties;
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import com.teamviewer.orderenricher.domain.converter.StringListConverter;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking access to the order tables for the {@code reactive} profile, over its own R2DBC pool.
+ * Queries match those of {@link EnrichedOrderRepository} and {@link OrderDocumentRepository}; a waiting query
+ * holds a pooled connection but no thread.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveOrderRepository {
+
+    private static final String INSERT_KEY = """
+            INSERT INTO order_keys (order_id, timestamp) VALUES (:orderId, :timestamp)
+            """;
+
+    private static final String INSERT_ORDER = """
+            INSERT INTO enriched_orders (order_id, timestamp, customer_id, name, street, zip, country, total_price)
+            VALUES (:orderId, :timestamp, :customerId, :name, :street, :zip, :country, :totalPrice)
+            """;
+
+    private static final String INSERT_PRODUCTS = """
+            INSERT INTO order_products (order_id, order_timestamp, product_id, name, price, category, tags)
+            SELECT :orderId, :timestamp, p.product_id, p.name, CAST(p.price AS numeric), p.category, p.tags
+            FROM unnest(CAST(:productIds AS text[]), CAST(:names AS text[]), CAST(:prices AS text[]),
+                        CAST(:categories AS text[]), CAST(:tags AS text[]))
+                AS p(product_id, name, price, category, tags)
+            """;
+
+    private static final String INSERT_DOCUMENT = """
+            INSERT INTO order_documents (order_id, order_timestamp, version, document, content_hash)
+            VALUES (:orderId, :timestamp, :version, CAST(:document AS jsonb),
+                    encode(sha256(convert_to(:document, 'UTF8')), 'hex'))
+            """;
+
+    private static final String ADD_TO_SUMMARY = """
+            INSERT INTO customer_summaries AS s
+                (customer_id, order_count, total_spend, first_order_at, last_order_at, category_counts)
+            VALUES (:customerId, :orderCount, :totalSpend, :firstOrderAt, :lastOrderAt, CAST(:categoryCounts AS jsonb))
+            """ + CustomerSummaryRepository.ADD_ON_CONFLICT;
+
+    private static final String FIND_SUMMARY = """
+            SELECT order_count, total_spend, first_order_at, last_order_at, CAST(category_counts AS text) AS category_counts
+            FROM customer_summaries
+            WHERE customer_id = :customerId
+            """;
+
+    // Limits a lookup by order ID to the partition of the order
+    private static final String KEY_TIMESTAMP = "(SELECT timestamp FROM order_keys WHERE order_id = :orderId)";
+
+    private static final String SELECT_ORDERS = """
+            SELECT order_id, timestamp, customer_id, name, street, zip, country, total_price
+            FROM enriched_orders
+            """;
+
+    private static final String SELECT_PRODUCTS = """
+            SELECT order_id, product_id, name, price, category, tags
+            FROM order_products
+            """;
+
+    private static final StringListConverter TAGS_CONVERTER = new StringListConverter();
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveOrderRepository(ReactiveDatabaseProperties properties, ObjectMapper objectMapper) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.url()).mutate();
+        if (properties.username() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.username());
+        }
+        if (properties.password() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.password());
+        }
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("reactive-orders")
+                .initialSize(properties.initialSize())
+                .maxSize(properties.maxSize())
+                .maxAcquireTime(properties.maxAcquireTime())
+                .maxIdleTime(properties.maxIdleTime())
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registers the order ID, inserts the order, its products and its document and adds it to its customer's
+     * summary, in one transaction. A duplicate order ID fails with {@code DataIntegrityViolationException}.
+     */
+    public Mono<Void> insert(EnrichedOrder order, String document, int documentVersion) {
+        CustomerInfo customer = order.getCustomer();
+        GenericExecuteSpec insertKey = bind(databaseClient.sql(INSERT_KEY).bind("orderId", order.getOrderId()),
+                "timestamp", order.getTimestamp(), OffsetDateTime.class);
+
+        GenericExecuteSpec insertOrder = databaseClient.sql(INSERT_ORDER).bind("orderId", order.getOrderId());
+        insertOrder = bind(insertOrder, "timestamp", order.getTimestamp(), OffsetDateTime.class);
+        insertOrder = bind(insertOrder, "customerId", customer.getCustomerId(), String.class);
+        insertOrder = bind(insertOrder, "name", customer.getName(), String.class);
+        insertOrder = bind(insertOrder, "street", customer.getStreet(), String.class);
+        insertOrder = bind(insertOrder, "zip", customer.getZip(), String.class);
+        insertOrder = bind(insertOrder, "country", customer.getCountry(), String.class);
+        insertOrder = bind(insertOrder, "totalPrice", order.getTotalPrice(), BigDecimal.class);
+
+        Mono<Long> insertProducts = Mono.just(0L);
+        List<ProductInfo> products = order.getProducts();
+        if (products != null && !products.isEmpty()) {
+            insertProducts = bind(databaseClient.sql(INSERT_PRODUCTS), "timestamp", order.getTimestamp(), OffsetDateTime.class)
+                    .bind("orderId", order.getOrderId())
+                    .bind("productIds", column(products, ProductInfo::getProductId))
+                    .bind("names", column(products, ProductInfo::getName))
+                    .bind("prices", column(products, product -> product.getPrice() != null ? product.getPrice().toPlainString() : null))
+                    .bind("categories", column(products, ProductInfo::getCategory))
+                    .bind("tags", column(products, product -> TAGS_CONVERTER.convertToDatabaseColumn(product.getTags())))
+                    .fetch()
+                    .rowsUpdated();
+        }
+
+        Mono<Long> insertDocument = bind(databaseClient.sql(INSERT_DOCUMENT), "timestamp", order.getTimestamp(), OffsetDateTime.class)
+                .bind("orderId", order.getOrderId())
+                .bind("version", documentVersion)
+                .bind("document", document)
+                .fetch()
+                .rowsUpdated();
+
+        Mono<Long> addToSummary = Mono.just(0L);
+        if (customer.getCustomerId() != null) {
+            CustomerTotals totals = CustomerTotals.of(order);
+            GenericExecuteSpec add = databaseClient.sql(ADD_TO_SUMMARY)
+                    .bind("customerId", totals.customerId())
+                    .bind("orderCount", totals.orderCount())
+                    .bind("totalSpend", totals.totalSpend())
+                    .bind("categoryCounts", CustomerSummaryRepository.toJson(objectMapper, totals.categoryCounts()));
+            add = bind(add, "firstOrderAt", totals.firstOrderAt(), OffsetDateTime.class);
+            add = bind(add, "lastOrderAt", totals.lastOrderAt(), OffsetDateTime.class);
+            addToSummary = add.fetch().rowsUpdated();
+        }
+
+        return insertKey.fetch().rowsUpdated()
+                .then(insertOrder.fetch().rowsUpdated())
+                .then(insertProducts)
+                .then(insertDocument)
+                .then(addToSummary)
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<String> findDocument(String orderId) {
+        return databaseClient.sql("SELECT CAST(document AS text) AS document FROM order_documents "
+                        + "WHERE order_id = :orderId AND order_timestamp = " + KEY_TIMESTAMP)
+                .bind("orderId", orderId)
+                .map(row -> row.get("document", String.class))
+                .one();
+    }
+
+    public Mono<Boolean> existsById(String orderId) {
+        return databaseClient.sql("SELECT 1 FROM enriched_orders WHERE order_id = :orderId AND timestamp = " + KEY_TIMESTAMP)
+                .bind("orderId", orderId)
+                .map(row -> true)
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<EnrichedOrder> findById(String orderId) {
+        Mono<EnrichedOrder> header = databaseClient.sql(SELECT_ORDERS + "WHERE order_id = :orderId AND timestamp = " + KEY_TIMESTAMP)
+                .bind("orderId", orderId)
+                .map(ReactiveOrderRepository::toOrder)
+                .one();
+        Mono<List<ProductInfo>> products = databaseClient.sql(SELECT_PRODUCTS
+                        + "WHERE order_id = :orderId AND order_timestamp = " + KEY_TIMESTAMP)
+                .bind("orderId", orderId)
+                .map(ReactiveOrderRepository::toProduct)
+                .all()
+                .collectList();
+        return header.zipWith(products, (order, productList) -> {
+            order.setProducts(productList);
+            return order;
+        });
+    }
+
+    public Mono<CustomerTotals> findCustomerSummary(String customerId) {
+        return databaseClient.sql(FIND_SUMMARY)
+                .bind("customerId", customerId)
+                .map(row -> new CustomerTotals(customerId, row.get("order_count", Long.class),
+                        row.get("total_spend", BigDecimal.class),
+                        row.get("first_order_at", OffsetDateTime.class), row.get("last_order_at", OffsetDateTime.class),
+                        CustomerSummaryRepository.readCategoryCounts(objectMapper, customerId,
+                                row.get("category_counts", String.class))))
+                .one();
+    }
+
+    /**
+     * Keyset page of orders, as {@link EnrichedOrderRepository#findPage} and
+     * {@link EnrichedOrderRepository#findPageByProduct}: when filtered by product, orders only carry that product.
+     */
+    public Flux<EnrichedOrder> findPage(String customerId, String productId, OffsetDateTime afterTimestamp,
+                                        String afterOrderId, OffsetDateTime beforeTimestamp, int limit) {
+        String sql = SELECT_ORDERS + "WHERE true"
+                + pageConditions("enriched_orders", customerId, productId, afterTimestamp, beforeTimestamp)
+                + " ORDER BY timestamp, order_id LIMIT :limit";
+        return bindPage(databaseClient.sql(sql), customerId, productId, afterTimestamp, afterOrderId, beforeTimestamp, limit)
+                .map(ReactiveOrderRepository::toOrder)
+                .all()
+                .collectList()
+                .flatMapMany(orders -> orders.isEmpty()
+                        ? Flux.empty()
+                        : withProducts(orders, productId));
+    }
+
+    /**
+     * As {@link OrderDocumentRepository#findPageContentHash}; empty if an order of the page has no hash yet.
+     */
+    public Mono<String> findPageContentHash(String customerId, String productId, OffsetDateTime afterTimestamp,
+                                            String afterOrderId, OffsetDateTime beforeTimestamp, int limit) {
+        String sql = OrderDocumentRepository.PAGE_CONTENT_HASH.formatted(
+                pageConditions("o", customerId, productId, afterTimestamp, beforeTimestamp), ":limit");
+        return bindPage(databaseClient.sql(sql), customerId, productId, afterTimestamp, afterOrderId, beforeTimestamp, limit)
+                .map(row -> Optional.ofNullable(row.get(0, String.class)))
+                .one()
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    public Mono<String> findContentHash(String orderId) {
+        return databaseClient.sql("SELECT content_hash FROM order_documents "
+                        + "WHERE order_id = :orderId AND order_timestamp = " + KEY_TIMESTAMP)
+                .bind("orderId", orderId)
+                .map(row -> Optional.ofNullable(row.get("content_hash", String.class)))
+                .one()
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    // Only the filters that are set, so the plan can prune partitions without knowing the parameters
+    private static String pageConditions(String orders, String customerId, String productId,
+                                         OffsetDateTime afterTimestamp, OffsetDateTime beforeTimestamp) {
+        StringBuilder conditions = new StringBuilder();
+        if (customerId != null) {
+            conditions.append(" AND ").append(orders).append(".customer_id = :customerId");
+        }
+        if (productId != null) {
+            conditions.append(" AND EXISTS (SELECT 1 FROM order_products p WHERE p.order_id = ").append(orders)
+                    .append(".order_id AND p.order_timestamp = ").append(orders)
+                    .append(".timestamp AND p.product_id = :productId)");
+        }
+        if (afterTimestamp != null) {
+            conditions.append(" AND (").append(orders).append(".timestamp > :afterTimestamp OR (")
+                    .append(orders).append(".timestamp = :afterTimestamp AND ")
+                    .append(orders).append(".order_id > :afterOrderId))");
+        }
+        if (beforeTimestamp != null) {
+            conditions.append(" AND ").append(orders).append(".timestamp < :beforeTimestamp");
+        }
+        return conditions.toString();
+    }
+
+    private static GenericExecuteSpec bindPage(GenericExecuteSpec query, String customerId, String productId,
+                                               OffsetDateTime afterTimestamp, String afterOrderId,
+                                               OffsetDateTime beforeTimestamp, int limit) {
+        query = query.bind("limit", limit);
+        if (customerId != null) {
+            query = query.bind("customerId", customerId);
+        }
+        if (productId != null) {
+            query = query.bind("productId", productId);
+        }
+        if (afterTimestamp != null) {
+            query = query.bind("afterTimestamp", afterTimestamp).bind("afterOrderId", afterOrderId);
+        }
+        if (beforeTimestamp != null) {
+            query = query.bind("beforeTimestamp", beforeTimestamp);
+        }
+        return query;
+    }
+
+    // The page is in timestamp order, so its first and last order bound the partitions holding its products
+    private Flux<EnrichedOrder> withProducts(List<EnrichedOrder> orders, String productId) {
+        String sql = SELECT_PRODUCTS + "WHERE order_id = ANY(:orderIds)"
+                + " AND order_timestamp BETWEEN :firstTimestamp AND :lastTimestamp"
+                + (productId != null ? " AND product_id = :productId" : "");
+        GenericExecuteSpec query = databaseClient.sql(sql)
+                .bind("orderIds", orders.stream().map(EnrichedOrder::getOrderId).toArray(String[]::new))
+                .bind("firstTimestamp", orders.get(0).getTimestamp())
+                .bind("lastTimestamp", orders.get(orders.size() - 1).getTimestamp());
+        if (productId != null) {
+            query = query.bind("productId", productId);
+        }
+        return query.map((row, metadata) -> Map.entry(row.get("order_id", String.class), toProduct(row)))
+                .all()
+                .collect(Collectors.groupingBy(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())))
+                .flatMapIterable(productsByOrder -> {
+                    for (EnrichedOrder order : orders) {
+                        order.setProducts(productsByOrder.getOrDefault(order.getOrderId(), List.of()));
+                    }
+                    return orders;
+                });
+    }
+
+    private static EnrichedOrder toOrder(Readable row) {
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId(row.get("customer_id", String.class));
+        customer.setName(row.get("name", String.class));
+        customer.setStreet(row.get("street", String.class));
+        customer.setZip(row.get("zip", String.class));
+        customer.setCountry(row.get("country", String.class));
+
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(row.get("order_id", String.class));
+        order.setTimestamp(row.get("timestamp", OffsetDateTime.class));
+        order.setCustomer(customer);
+        order.setTotalPrice(row.get("total_price", BigDecimal.class));
+        return order;
+    }
+
+    private static ProductInfo toProduct(Readable row) {
+        ProductInfo product = new ProductInfo();
+        product.setProductId(row.get("product_id", String.class));
+        product.setName(row.get("name", String.class));
+        product.setPrice(row.get("price", BigDecimal.class));
+        product.setCategory(row.get("category", String.class));
+        product.setTags(TAGS_CONVERTER.convertToEntityAttribute(row.get("tags", String.class)));
+        return product;
+    }
+
+    private static String[] column(List<ProductInfo> products, Function<ProductInfo, String> getter) {
+        return products.stream().map(getter).toArray(String[]::new);
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+}
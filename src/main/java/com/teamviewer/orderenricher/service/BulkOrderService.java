@@ -0,0 +1,302 @@
+package com.teamviewer.orderenricher.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Ingests orders from an NDJSON stream and writes one NDJSON result per input line, in input order.
+ * Lines are read one at a time, enriched concurrently through the reference data cache with at most
+ * {@code max-in-flight} orders outstanding, and persisted in set-based batches of {@code batch-size},
+ * one transaction per batch. Results are flushed after every batch, so memory is bounded by those two
+ * settings and not by the size of the body.
+ * <p>
+ * Duplicates follow the rule of {@code POST /orders}: a line that resends a stored order, or an order of an
+ * earlier line, reports {@code 200} without storing anything; a different order under a taken ID reports
+ * {@code 409}. IDs the order ID filter rules out are not looked up before enrichment.
+ */
+@Service
+@Slf4j
+public class BulkOrderService {
+
+    private final ReferenceDataCache referenceDataCache;
+    private final OrderService orderService;
+    private final OrderMapper orderMapper;
+    private final OrderBatchPersister batchPersister;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final int maxInFlight;
+    private final int batchSize;
+
+    public BulkOrderService(ReferenceDataCache referenceDataCache,
+                            OrderService orderService,
+                            OrderMapper orderMapper,
+                            OrderBatchPersister batchPersister,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${bulk.max-in-flight:256}") int maxInFlight,
+                            @Value("${bulk.batch-size:500}") int batchSize) {
+        this.referenceDataCache = referenceDataCache;
+        this.orderService = orderService;
+        this.orderMapper = orderMapper;
+        this.batchPersister = batchPersister;
+        this.transactionTemplate = transactionTemplate;
+        this.requestReader = objectMapper.readerFor(OrderRequest.class);
+        this.resultWriter = objectMapper.writerFor(LineResult.class).withRootValueSeparator("\n");
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Result for one input line. {@code status} uses the HTTP status the single-order endpoint would have returned.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record LineResult(long line, String orderId, int status, String error) {
+    }
+
+    public record Summary(long lines, long created, long resent, long failed) {
+    }
+
+    public Summary ingest(InputStream body, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try (SequenceWriter results = resultWriter.writeValues(out)) {
+            Ingestion ingestion = new Ingestion(results);
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    ingestion.accept(lineNumber, line);
+                }
+            }
+            ingestion.finish();
+            log.info("Bulk ingestion finished: {} lines, {} created, {} resent, {} failed",
+                    lineNumber, ingestion.created, ingestion.resent, ingestion.failed);
+            return new Summary(lineNumber, ingestion.created, ingestion.resent, ingestion.failed);
+        }
+    }
+
+    private CompletableFuture<EnrichedOrder> enrich(OrderRequest request) {
+        CompletableFuture<Customer> customerFuture = referenceDataCache.getCustomer(request.getCustomerId());
+        List<CompletableFuture<Product>> productFutures = request.getProductIds().stream()
+                .map(referenceDataCache::getProduct)
+                .toList();
+        List<CompletableFuture<?>> lookups = new ArrayList<>(productFutures);
+        lookups.add(customerFuture);
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> orderMapper.toEntity(request, customerFuture.join(),
+                        productFutures.stream().map(CompletableFuture::join).toList()));
+    }
+
+    private OrderRequest parse(String json) {
+        OrderRequest request;
+        try {
+            request = requestReader.readValue(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+        }
+        if (request.getOrderId() == null || request.getCustomerId() == null
+                || request.getProductIds() == null || request.getTimestamp() == null) {
+            throw new IllegalArgumentException("orderId, customerId, productIds and timestamp are required.");
+        }
+        return request;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    private static HttpStatus statusOf(Throwable ex) {
+        if (ex instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (ex instanceof ResourceNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (ex instanceof ResourceConflictException) {
+            return HttpStatus.CONFLICT;
+        }
+        if (ex instanceof ServiceUnavailableException || ex instanceof CancellationException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * State of one bulk request. Not thread safe; only the request thread touches it.
+     */
+    private final class Ingestion {
+
+        private final SequenceWriter results;
+        // Orders being enriched, oldest first
+        private final Deque<Pending> inFlight = new ArrayDeque<>();
+        // Lines whose result is not written yet, in input order
+        private final List<Pending> unwritten = new ArrayList<>();
+        private final List<Pending> batch = new ArrayList<>();
+        private long created;
+        private long resent;
+        private long failed;
+
+        private Ingestion(SequenceWriter results) {
+            this.results = results;
+        }
+
+        void accept(long lineNumber, String json) throws IOException {
+            Pending pending;
+            try {
+                pending = pending(lineNumber, parse(json));
+            } catch (IllegalArgumentException ex) {
+                pending = new Pending(lineNumber, null, CompletableFuture.failedFuture(ex));
+            }
+            inFlight.addLast(pending);
+            if (inFlight.size() >= maxInFlight) {
+                completeOldest();
+            }
+        }
+
+        private Pending pending(long lineNumber, OrderRequest request) {
+            try {
+                // A resent order is not enriched again
+                return orderService.findResent(request).isPresent()
+                        ? new Pending(lineNumber, request, CompletableFuture.completedFuture(null))
+                        : new Pending(lineNumber, request, enrich(request));
+            } catch (ResourceConflictException ex) {
+                return new Pending(lineNumber, request, CompletableFuture.failedFuture(ex));
+            }
+        }
+
+        void finish() throws IOException {
+            while (!inFlight.isEmpty()) {
+                completeOldest();
+            }
+            flush();
+        }
+
+        private void completeOldest() throws IOException {
+            Pending pending = inFlight.removeFirst();
+            try {
+                pending.order = pending.enrichment.join();
+                if (pending.order != null) {
+                    batch.add(pending);
+                } else {
+                    pending.status = HttpStatus.OK;
+                }
+            } catch (CompletionException | CancellationException ex) {
+                pending.fail(unwrap(ex));
+            }
+            unwritten.add(pending);
+            if (unwritten.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (!batch.isEmpty()) {
+                persist();
+            }
+            for (Pending pending : unwritten) {
+                if (pending.status == HttpStatus.CREATED) {
+                    created++;
+                } else if (pending.status == HttpStatus.OK) {
+                    resent++;
+                } else {
+                    failed++;
+                }
+                results.write(new LineResult(pending.line, pending.orderId, pending.status.value(), pending.error));
+            }
+            results.flush();
+            unwritten.clear();
+            batch.clear();
+        }
+
+        private void persist() {
+            List<EnrichedOrder> orders = batch.stream().map(pending -> pending.order).toList();
+            Set<String> inserted;
+            try {
+                inserted = transactionTemplate.execute(status -> batchPersister.persist(orders));
+            } catch (RuntimeException ex) {
+                log.error("Failed to persist a batch of {} orders", batch.size(), ex);
+                batch.forEach(pending -> pending.fail(new ServiceUnavailableException("Failed to persist the order.", ex)));
+                return;
+            }
+            Set<String> claimed = new HashSet<>();
+            for (Pending pending : batch) {
+                if (inserted != null && inserted.contains(pending.orderId) && claimed.add(pending.orderId)) {
+                    pending.status = HttpStatus.CREATED;
+                } else {
+                    // Taken by an earlier line, or stored since the line was read; committed by now either way
+                    resendOrConflict(pending);
+                }
+            }
+        }
+
+        private void resendOrConflict(Pending pending) {
+            try {
+                orderService.requireResent(pending.request);
+                pending.status = HttpStatus.OK;
+            } catch (RuntimeException ex) {
+                pending.fail(ex);
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final long line;
+        private final OrderRequest request;
+        private final String orderId;
+        // Completes with null when the line resends a stored order
+        private final CompletableFuture<EnrichedOrder> enrichment;
+        private EnrichedOrder order;
+        private HttpStatus status;
+        private String error;
+
+        private Pending(long line, OrderRequest request, CompletableFuture<EnrichedOrder> enrichment) {
+            this.line = line;
+            this.request = request;
+            this.orderId = request != null ? request.getOrderId() : null;
+            this.enrichment = enrichment;
+        }
+
+        private void fail(Throwable ex) {
+            this.order = null;
+            this.status = statusOf(ex);
+            this.error = ex.getMessage();
+        }
+    }
+}
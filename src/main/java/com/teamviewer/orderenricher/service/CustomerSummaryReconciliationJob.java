@@ -0,0 +1,51 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.repository.CustomerSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes every customer summary from the order tables on a schedule, nightly by default. Summaries are
+ * kept current by the order writes themselves; this only repairs drift, e.g. from orders changed by hand.
+ * Customers are recomputed {@code customers-per-range} at a time, one short transaction each, and order
+ * writes only wait for the range being recomputed. Only one instance runs it at a time.
+ */
+@Component
+@Slf4j
+public class CustomerSummaryReconciliationJob {
+
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final int customersPerRange;
+
+    public CustomerSummaryReconciliationJob(CustomerSummaryRepository customerSummaryRepository,
+                                            @Value("${customer-summaries.reconcile.customers-per-range:1000}") int customersPerRange) {
+        this.customerSummaryRepository = customerSummaryRepository;
+        this.customersPerRange = customersPerRange;
+    }
+
+    @Scheduled(cron = "${customer-summaries.reconcile.cron:0 0 3 * * *}")
+    public void reconcile() {
+        if (!customerSummaryRepository.runExclusively(this::rebuild)) {
+            log.info("Skipped reconciling customer summaries: another instance is running it");
+        }
+    }
+
+    /**
+     * Walks the customers in ID order. The last range is open-ended, so it also removes the summaries of
+     * customers after the last one with orders.
+     */
+    void rebuild() {
+        long started = System.nanoTime();
+        long customers = 0;
+        String after = "";
+        String last;
+        do {
+            last = customerSummaryRepository.findRangeEnd(after, customersPerRange).orElse(null);
+            customers += customerSummaryRepository.rebuildRange(after, last);
+            after = last;
+        } while (last != null);
+        log.info("Reconciled summaries of {} customers in {} ms", customers, (System.nanoTime() - started) / 1_000_000);
+    }
+}
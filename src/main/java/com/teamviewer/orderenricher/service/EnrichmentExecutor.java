@@ -0,0 +1,165 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs downstream lookups concurrently on virtual threads.
+ * Concurrency per downstream is capped by the clients' bulkheads; this class bounds time instead.
+ * Every call is cut off after {@code call-timeout}. Calls are shared cache loads that several requests may wait
+ * for, so no single request's budget applies to them; only the aggregate wait is bounded: inside
+ * {@link #withinBudget}, {@link #awaitAll} gives up once {@code request-budget} is spent, so a slow downstream
+ * cannot hold a request thread for longer than the budget.
+ */
+@Component
+public class EnrichmentExecutor {
+
+    public enum Downstream {
+        CUSTOMER("Customer service"), PRODUCT("Product service");
+
+        private final String serviceName;
+
+        Downstream(String serviceName) {
+            this.serviceName = serviceName;
+        }
+    }
+
+    // System.nanoTime() at which the budget of the request running on this thread is spent
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration callTimeout;
+    private final Duration requestBudget;
+
+    public EnrichmentExecutor(@Value("${enrichment.call-timeout:1s}") Duration callTimeout,
+                              @Value("${enrichment.request-budget:2s}") Duration requestBudget) {
+        this.callTimeout = callTimeout;
+        this.requestBudget = requestBudget;
+    }
+
+    /**
+     * Runs {@code work} on the calling thread with a fresh request budget, unless one is already running.
+     */
+    public <T> T withinBudget(Supplier<T> work) {
+        if (DEADLINE.get() != null) {
+            return work.get();
+        }
+        DEADLINE.set(System.nanoTime() + requestBudget.toNanos());
+        try {
+            return work.get();
+        } finally {
+            DEADLINE.remove();
+        }
+    }
+
+    /**
+     * Submits a call whose result several requests may wait for, such as a shared cache load or refresh.
+     * Cancelling the returned future interrupts the call; so does reaching {@code call-timeout}, which fails the
+     * future with {@link ServiceUnavailableException}. Each request's budget bounds its own wait, through
+     * {@link #awaitAll} on a copy of the future.
+     */
+    public <T> CompletableFuture<T> submitShared(Downstream downstream, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        CompletableFuture.delayedExecutor(callTimeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.completeExceptionally(new ServiceUnavailableException(
+                    downstream.serviceName + " did not respond within " + callTimeout.toMillis() + " ms."))) {
+                task.cancel(true);
+            }
+        });
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits until all futures are done, failing fast on the first error.
+     * On failure the remaining calls are cancelled and the original exception is rethrown unchanged,
+     * so {@code ResourceNotFoundException} and {@code ServiceUnavailableException} reach the exception handler as before.
+     * Inside {@link #withinBudget}, waiting stops when the budget is spent.
+     */
+    public void awaitAll(List<? extends CompletableFuture<?>> futures) {
+        CompletableFuture<?>[] all = futures.toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> firstFailureOrAll = new CompletableFuture<>();
+        for (CompletableFuture<?> future : all) {
+            future.whenComplete((value, ex) -> {
+                if (ex != null) {
+                    firstFailureOrAll.completeExceptionally(ex);
+                }
+            });
+        }
+        CompletableFuture.allOf(all).whenComplete((value, ex) -> {
+            if (ex != null) {
+                firstFailureOrAll.completeExceptionally(ex);
+            } else {
+                firstFailureOrAll.complete(null);
+            }
+        });
+
+        Long deadline = DEADLINE.get();
+        try {
+            if (deadline == null) {
+                firstFailureOrAll.get();
+            } else {
+                firstFailureOrAll.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException ex) {
+            cancelAll(all);
+            throw new ServiceUnavailableException("Order enrichment did not finish within " + requestBudget.toMillis() + " ms.");
+        } catch (ExecutionException ex) {
+            cancelAll(all);
+            throw propagate(ex.getCause());
+        } catch (InterruptedException ex) {
+            cancelAll(all);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Order enrichment was interrupted.", ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void cancelAll(CompletableFuture<?>[] futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new ServiceUnavailableException("Order enrichment failed.", cause);
+    }
+}
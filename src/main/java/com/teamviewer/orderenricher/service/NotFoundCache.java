@@ -0,0 +1,70 @@
+package com.teamviewer.orderenricher.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.teamviewer.orderenricher.config.ReferenceDataCacheProperties;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.service.EnrichmentExecutor.Downstream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Customer and product IDs the downstream services recently answered with 404, kept apart from the
+ * reference data itself so unknown IDs cannot evict real entries. While an ID is listed, lookups fail with
+ * {@link ResourceNotFoundException} without a call. Entries expire after a short TTL, or are evicted one by one
+ * once the ID is created upstream. Metrics are published as the caches {@code customers-not-found} and
+ * {@code products-not-found}.
+ */
+@Component
+public class NotFoundCache {
+
+    // The failure message per ID; a fresh exception is thrown on each hit rather than sharing one across threads
+    private final Map<Downstream, Cache<String, String>> missing = new EnumMap<>(Downstream.class);
+
+    public NotFoundCache(ReferenceDataCacheProperties properties, MeterRegistry meterRegistry) {
+        ReferenceDataCacheProperties.NotFound spec = properties.notFound();
+        missing.put(Downstream.CUSTOMER, build(spec, meterRegistry, "customers-not-found"));
+        missing.put(Downstream.PRODUCT, build(spec, meterRegistry, "products-not-found"));
+    }
+
+    /**
+     * A failed future if the ID is listed as not found, otherwise {@code null}.
+     */
+    public <V> CompletableFuture<V> find(Downstream downstream, String id) {
+        String message = missing.get(downstream).getIfPresent(id);
+        return message != null ? CompletableFuture.failedFuture(new ResourceNotFoundException(message)) : null;
+    }
+
+    /**
+     * Lists the ID if the lookup fails with {@link ResourceNotFoundException}.
+     */
+    public <V> CompletableFuture<V> record(Downstream downstream, String id, CompletableFuture<V> lookup) {
+        return lookup.whenComplete((value, ex) -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof ResourceNotFoundException) {
+                missing.get(downstream).put(id, cause.getMessage());
+            }
+        });
+    }
+
+    public void evict(Downstream downstream, String id) {
+        missing.get(downstream).invalidate(id);
+    }
+
+    private static Cache<String, String> build(ReferenceDataCacheProperties.NotFound spec, MeterRegistry meterRegistry,
+                                               String name) {
+        Cache<String, String> cache = Caffeine.newBuilder()
+                .maximumSize(spec.maxEntries())
+                .expireAfterWrite(spec.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+}
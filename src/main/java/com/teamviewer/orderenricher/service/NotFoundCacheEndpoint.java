@@ -0,0 +1,25 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.service.EnrichmentExecutor.Downstream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code DELETE /actuator/notfound/{customer|product}/{id}} forgets that an ID was not found, for when it has
+ * just been created upstream and should not wait out the TTL of the {@link NotFoundCache}.
+ */
+@RequiredArgsConstructor
+@Component
+@Endpoint(id = "notfound")
+public class NotFoundCacheEndpoint {
+
+    private final NotFoundCache notFoundCache;
+
+    @DeleteOperation
+    public void evict(@Selector Downstream type, @Selector String id) {
+        notFoundCache.evict(type, id);
+    }
+}
@@ -0,0 +1,48 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.cache.OrderCacheIndex;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.CustomerSummaryRepository;
+import com.teamviewer.orderenricher.repository.CustomerTotals;
+import com.teamviewer.orderenricher.repository.EnrichedOrderBatchWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores a batch of enriched orders with their documents and customer totals, and evicts the affected cached
+ * lists once the transaction commits. Callers own the transaction, so they can add their own writes to it.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderBatchPersister {
+
+    private final EnrichedOrderBatchWriter batchWriter;
+    private final OrderMapper orderMapper;
+    private final OrderDocumentStore orderDocumentStore;
+    private final OrderCacheIndex orderCacheIndex;
+    private final OrderIdFilter orderIdFilter;
+    private final CustomerSummaryRepository customerSummaryRepository;
+
+    /**
+     * Must run inside a transaction. Orders whose ID is already stored are skipped.
+     *
+     * @return the IDs that were inserted; an ID repeated within the batch was inserted from its first occurrence
+     */
+    public Set<String> persist(List<EnrichedOrder> orders) {
+        Set<String> ids = batchWriter.insertNew(orders);
+        orderIdFilter.addAll(ids);
+        Set<String> seen = new HashSet<>();
+        List<EnrichedOrder> created = orders.stream()
+                .filter(order -> ids.contains(order.getOrderId()) && seen.add(order.getOrderId()))
+                .toList();
+        orderDocumentStore.writeAll(created.stream().map(orderMapper::toApi).toList());
+        customerSummaryRepository.add(CustomerTotals.of(created));
+        orderCacheIndex.evictAfterCommit(created);
+        return ids;
+    }
+}
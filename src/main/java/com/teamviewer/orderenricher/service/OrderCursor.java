@@ -0,0 +1,60 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the {@code (timestamp, orderId)} ordering of orders. Clients only see the opaque encoded form
+ * and hand it back unchanged to fetch the page after it.
+ */
+public record OrderCursor(OffsetDateTime timestamp, String orderId) {
+
+    private static final char SEPARATOR = '|';
+
+    public static OrderCursor after(EnrichedOrderResponse order) {
+        return new OrderCursor(order.getTimestamp(), order.getOrderId());
+    }
+
+    public static OrderCursor after(EnrichedOrder order) {
+        return new OrderCursor(order.getTimestamp(), order.getOrderId());
+    }
+
+    /**
+     * Where a page starts: after the cursor, but not before the first order at {@code from}. Either may be null.
+     */
+    public static OrderCursor start(OrderCursor cursor, OffsetDateTime from) {
+        if (from == null || cursor != null && !cursor.timestamp().isBefore(from)) {
+            return cursor;
+        }
+        // Every order ID sorts after the empty one
+        return new OrderCursor(from, "");
+    }
+
+    public String encode() {
+        String raw = timestamp.toInstant().toString() + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            // Instants never contain the separator, so the order ID may
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidRequestException("Invalid cursor.");
+            }
+            OffsetDateTime timestamp = Instant.parse(raw.substring(0, separator)).atOffset(ZoneOffset.UTC);
+            return new OrderCursor(timestamp, raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidRequestException("Invalid cursor.");
+        }
+    }
+}
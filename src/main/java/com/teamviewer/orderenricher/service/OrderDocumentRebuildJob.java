@@ -0,0 +1,81 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.EnrichedOrderRepository;
+import com.teamviewer.orderenricher.repository.OrderDocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes documents for orders that have none, or only one of an older {@link OrderDocumentStore#VERSION}.
+ * Walks the orders in ID order in batches, so it can run against a live table and simply picks up where
+ * the previous run stopped. Runs in the background after startup unless disabled.
+ */
+@Component
+@Slf4j
+public class OrderDocumentRebuildJob {
+
+    private final OrderDocumentRepository documentRepository;
+    private final EnrichedOrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final OrderDocumentStore documentStore;
+    private final boolean runOnStartup;
+    private final int batchSize;
+
+    public OrderDocumentRebuildJob(OrderDocumentRepository documentRepository,
+                                   EnrichedOrderRepository orderRepository,
+                                   OrderMapper orderMapper,
+                                   OrderDocumentStore documentStore,
+                                   @Value("${order-documents.rebuild.on-startup:true}") boolean runOnStartup,
+                                   @Value("${order-documents.rebuild.batch-size:500}") int batchSize) {
+        this.documentRepository = documentRepository;
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.documentStore = documentStore;
+        this.runOnStartup = runOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (runOnStartup) {
+            Thread.ofVirtual().name("order-document-rebuild").start(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException ex) {
+                    log.error("Order document rebuild failed", ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the number of documents written
+     */
+    public long rebuild() {
+        long rebuilt = 0;
+        String after = "";
+        List<String> orderIds;
+        do {
+            orderIds = documentRepository.findOrderIdsWithStaleDocument(after, OrderDocumentStore.VERSION, batchSize);
+            if (orderIds.isEmpty()) {
+                break;
+            }
+            List<EnrichedOrder> orders = orderRepository.findByOrderIdIn(orderIds);
+            documentStore.writeAll(orders.stream().map(orderMapper::toApi).toList());
+            rebuilt += orders.size();
+            after = orderIds.get(orderIds.size() - 1);
+        } while (orderIds.size() == batchSize);
+
+        if (rebuilt > 0) {
+            log.info("Rebuilt {} order documents", rebuilt);
+        }
+        return rebuilt;
+    }
+}
@@ -0,0 +1,92 @@
+package com.teamviewer.orderenricher.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.repository.OrderDocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read model for single-order reads: the finished API representation of each order, stored as JSONB
+ * next to the normalized tables. A point read is one primary-key lookup plus JSON parsing, with no join,
+ * no tag splitting and no entity mapping. Documents are written in the same transaction as the order.
+ */
+@Component
+@Slf4j
+public class OrderDocumentStore {
+
+    /**
+     * Bump when the document shape changes; the rebuild job then rewrites older documents.
+     * Version 2 adds the content hash.
+     */
+    static final int VERSION = 2;
+
+    private final OrderDocumentRepository documentRepository;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public OrderDocumentStore(OrderDocumentRepository documentRepository, ObjectMapper objectMapper) {
+        this.documentRepository = documentRepository;
+        this.reader = objectMapper.readerFor(EnrichedOrderResponse.class);
+        this.writer = objectMapper.writerFor(EnrichedOrderResponse.class);
+    }
+
+    public void write(EnrichedOrderResponse order) {
+        writeAll(List.of(order));
+    }
+
+    public void writeAll(Collection<EnrichedOrderResponse> orders) {
+        Map<String, String> documents = new LinkedHashMap<>();
+        for (EnrichedOrderResponse order : orders) {
+            try {
+                documents.put(order.getOrderId(), writer.writeValueAsString(order));
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Could not serialize order " + order.getOrderId(), ex);
+            }
+        }
+        documentRepository.upsert(documents, VERSION);
+    }
+
+    /**
+     * The hash of the order's stored document, which is the order's response body; empty if it has no
+     * document with a hash yet.
+     */
+    public Optional<String> readContentHash(String orderId) {
+        return documentRepository.findContentHash(orderId);
+    }
+
+    /**
+     * A hash over the content hashes of a keyset page of orders, see {@link OrderDocumentRepository#findPageContentHash};
+     * empty if one of them has no document with a hash yet.
+     */
+    public Optional<String> readPageContentHash(String customerId, String productId, OffsetDateTime afterTimestamp,
+                                                String afterOrderId, OffsetDateTime beforeTimestamp, int limit) {
+        return documentRepository.findPageContentHash(customerId, productId, afterTimestamp, afterOrderId,
+                beforeTimestamp, limit);
+    }
+
+    /**
+     * Returns the stored document, or empty if there is none yet (or it cannot be read), in which case
+     * callers fall back to the normalized tables.
+     */
+    public Optional<EnrichedOrderResponse> read(String orderId) {
+        return documentRepository.findDocument(orderId).flatMap(document -> {
+            try {
+                return Optional.of(reader.readValue(document));
+            } catch (JsonProcessingException ex) {
+                log.warn("Ignoring unreadable document for order {}", orderId, ex);
+                return Optional.empty();
+            }
+        });
+    }
+}
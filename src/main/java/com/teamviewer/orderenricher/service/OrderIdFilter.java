@@ -0,0 +1,137 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.repository.EnrichedOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of the stored order IDs, so creating an order can rule out a duplicate without a query.
+ * Filled from the database in the background after startup and updated on every write of this node;
+ * until the first fill completes, every ID might be contained. A "no" is only as complete as what this
+ * node has seen, so orders stored by other nodes still end at the primary key.
+ * Beyond {@code expected-orders} IDs the false positive rate, and with it the share of definite lookups, grows.
+ */
+@Component
+@Slf4j
+public class OrderIdFilter {
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final EnrichedOrderRepository orderRepository;
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean loaded;
+
+    public OrderIdFilter(EnrichedOrderRepository orderRepository,
+                         @Value("${order-ids.filter.expected-orders:5000000}") long expectedOrders,
+                         @Value("${order-ids.filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.orderRepository = orderRepository;
+        // Optimal size and hash count for n entries at rate p: m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long bits = (long) Math.ceil(-expectedOrders * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedOrders * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("order-id-filter-load").start(() -> {
+            try {
+                load();
+            } catch (RuntimeException ex) {
+                log.error("Loading the order ID filter failed; every order ID is checked against the database", ex);
+            }
+        });
+    }
+
+    /**
+     * Adds every stored order ID. Orders written meanwhile are added by their writers.
+     *
+     * @return the number of IDs read
+     */
+    public long load() {
+        long count = 0;
+        String after = "";
+        List<String> orderIds;
+        do {
+            orderIds = orderRepository.findOrderIdsAfter(after, Limit.of(LOAD_BATCH_SIZE));
+            orderIds.forEach(this::add);
+            count += orderIds.size();
+            if (!orderIds.isEmpty()) {
+                after = orderIds.get(orderIds.size() - 1);
+            }
+        } while (orderIds.size() == LOAD_BATCH_SIZE);
+        loaded = true;
+        log.info("Loaded {} order IDs into the order ID filter", count);
+        return count;
+    }
+
+    /**
+     * {@code false} only if no order with this ID has been stored, as far as this node knows.
+     */
+    public boolean mightContain(String orderId) {
+        if (!loaded) {
+            return true;
+        }
+        long hash1 = hash(orderId);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1 + i * hash2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String orderId) {
+        long hash1 = hash(orderId);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1 + i * hash2);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.accumulateAndGet(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+
+    public void addAll(Collection<String> orderIds) {
+        orderIds.forEach(this::add);
+    }
+
+    private long index(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitCount;
+    }
+
+    // FNV-1a over the UTF-16 units, finished with a 64-bit mixer so similar IDs spread over the whole array
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,74 @@
+package com.teamviewer.orderenricher.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stage timers of order creation, published as {@code orders.create.stage} with a {@code stage} tag:
+ * {@code customer-fetch} and {@code product-fetch} (one sample per product) from the start of enrichment until
+ * the lookup completes, cache hits included; {@code mapping} for building the entity; {@code persist} for storing
+ * the order and its document. {@code orders.products} is the distribution of products per order.
+ * All meters are registered up front, so recording is a field access rather than a registry lookup.
+ */
+@Component
+public class OrderMetrics {
+
+    private final Timer customerFetch;
+    private final Timer productFetch;
+    private final Timer mapping;
+    private final Timer persist;
+    private final DistributionSummary productsPerOrder;
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        this.customerFetch = stage(meterRegistry, "customer-fetch");
+        this.productFetch = stage(meterRegistry, "product-fetch");
+        this.mapping = stage(meterRegistry, "mapping");
+        this.persist = stage(meterRegistry, "persist");
+        this.productsPerOrder = DistributionSummary.builder("orders.products")
+                .description("Products per created order")
+                .baseUnit("products")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1_000.0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the customer lookup once it completes, successfully or not.
+     */
+    public <T> CompletableFuture<T> timeCustomerFetch(CompletableFuture<T> lookup, long startNanos) {
+        return lookup.whenComplete((result, ex) -> record(customerFetch, startNanos));
+    }
+
+    public <T> CompletableFuture<T> timeProductFetch(CompletableFuture<T> lookup, long startNanos) {
+        return lookup.whenComplete((result, ex) -> record(productFetch, startNanos));
+    }
+
+    public void recordMapping(long startNanos) {
+        record(mapping, startNanos);
+    }
+
+    public void recordPersist(long startNanos) {
+        record(persist, startNanos);
+    }
+
+    public void recordProducts(int count) {
+        productsPerOrder.record(count);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer stage(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("orders.create.stage")
+                .description("Time spent in each stage of creating an order")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
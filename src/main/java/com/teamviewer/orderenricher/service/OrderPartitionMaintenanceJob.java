@@ -0,0 +1,97 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.cache.OrderCacheIndex;
+import com.teamviewer.orderenricher.repository.OrderPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Keeps the monthly order partitions ahead of time: creates those of the current month and the next
+ * {@code premake-months}, so orders never fall into the default partition. With {@code retention-months} set,
+ * it also detaches the partitions of months older than that, and their orders leave the customer summaries and
+ * the order caches. Runs after startup and then daily.
+ */
+@Component
+@Slf4j
+public class OrderPartitionMaintenanceJob {
+
+    // Single orders, order lists and their ETags
+    private static final List<String> ORDER_CACHES = List.of(OrderCacheIndex.CACHE_NAME, "order-etags");
+
+    private final OrderPartitionRepository partitionRepository;
+    private final CacheManager cacheManager;
+    private final int premakeMonths;
+    private final int retentionMonths;
+
+    public OrderPartitionMaintenanceJob(OrderPartitionRepository partitionRepository,
+                                        CacheManager cacheManager,
+                                        @Value("${order-partitions.premake-months:3}") int premakeMonths,
+                                        @Value("${order-partitions.retention-months:0}") int retentionMonths) {
+        this.partitionRepository = partitionRepository;
+        this.cacheManager = cacheManager;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("order-partition-maintenance").start(this::runSafely);
+    }
+
+    @Scheduled(cron = "${order-partitions.maintenance.cron:0 30 2 * * *}")
+    public void onSchedule() {
+        runSafely();
+    }
+
+    private void runSafely() {
+        try {
+            maintain(YearMonth.now(ZoneOffset.UTC));
+        } catch (RuntimeException ex) {
+            log.error("Order partition maintenance failed", ex);
+        }
+    }
+
+    /**
+     * @param current the current month in UTC
+     */
+    void maintain(YearMonth current) {
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (partitionRepository.createMonth(month)) {
+                log.info("Created order partitions for {}", month);
+            }
+        }
+        // 0 keeps every month
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+            for (YearMonth month : partitionRepository.findMonths()) {
+                if (month.isBefore(oldestKept)) {
+                    partitionRepository.detachMonth(month);
+                    // The detach has committed; until evicted, cached orders of the month would still be served
+                    evictOrderCaches();
+                    log.info("Detached order partitions for {}", month);
+                }
+            }
+        }
+    }
+
+    // Entries are not indexed by month, and a detach is rare enough for the caches to refill from scratch
+    private void evictOrderCaches() {
+        for (String cacheName : ORDER_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package com.teamviewer.orderenricher.service;
 
 import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.CustomerSummary;
 import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
 import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
 import com.teamviewer.orderenricher.api.model.Product;
-import com.teamviewer.orderenricher.client.CustomerServiceClient;
-import com.teamviewer.orderenricher.client.ProductServiceClient;
+import com.teamviewer.orderenricher.cache.OrderCacheIndex;
 import com.teamviewer.orderenricher.domain.EnrichedOrder;
 import com.teamviewer.orderenricher.domain.ProductInfo;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
 import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.CustomerSummaryRepository;
+import com.teamviewer.orderenricher.repository.CustomerTotals;
 import com.teamviewer.orderenricher.repository.EnrichedOrderRepository;
+import com.teamviewer.orderenricher.repository.OrderHeader;
+import com.teamviewer.orderenricher.repository.OrderProductRow;
+import com.teamviewer.orderenricher.writebehind.OrderStatusTracker;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,67 +43,286 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderService {
 
-    private final CustomerServiceClient customerClient;
-    private final ProductServiceClient productClient;
+    private final ReferenceDataCache referenceDataCache;
     private final EnrichedOrderRepository orderRepository;
     private final OrderMapper orderMapper;
+    private final EnrichmentExecutor enrichmentExecutor;
+    private final OrderCacheIndex orderCacheIndex;
+    private final OrderDocumentStore orderDocumentStore;
+    private final OrderStatusTracker orderStatusTracker;
+    private final OrderMetrics orderMetrics;
+    private final OrderIdFilter orderIdFilter;
+    private final CustomerSummaryRepository customerSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
-    @Transactional
-    @CacheEvict(value = "orders", allEntries = true) // Evict all entries in the 'orders' cache
-    public EnrichedOrderResponse createOrder(OrderRequest orderRequest) {
-        log.info("Creating order and clearing cache...");
+    /**
+     * Enriches and stores the order. Resending a stored order returns it as stored, without enriching it again;
+     * a different order under a stored ID is a conflict. Only storing the order runs in a transaction, so no
+     * connection is held during the lookups and a rejected insert can still be answered from the database.
+     */
+    public SubmittedOrder createOrder(OrderRequest orderRequest) {
+        Optional<EnrichedOrderResponse> stored = findResent(orderRequest);
+        if (stored.isPresent()) {
+            log.info("Order {} is already stored", orderRequest.getOrderId());
+            return SubmittedOrder.resent(stored.get());
+        }
+        EnrichedOrder enrichedOrderEntity = enrich(orderRequest);
 
-        log.info("Starting enrichment for orderId: {}", orderRequest.getOrderId());
+        long persistStart = System.nanoTime();
+        EnrichedOrderResponse response;
+        try {
+            response = transactionTemplate.execute(status -> store(enrichedOrderEntity));
+        } catch (DataIntegrityViolationException ex) {
+            // Stored meanwhile, or by a node whose writes this filter has not seen; rolled back by now
+            log.info("Order {} was stored meanwhile", orderRequest.getOrderId());
+            return SubmittedOrder.resent(requireResent(orderRequest));
+        }
+        orderMetrics.recordPersist(persistStart);
+        log.info("Successfully persisted enriched order: {}", enrichedOrderEntity.getOrderId());
+        return SubmittedOrder.created(response);
+    }
 
-        log.info("Fetching customer: {}", orderRequest.getCustomerId());
-        Customer customer = customerClient.getCustomerById(orderRequest.getCustomerId());
+    private EnrichedOrderResponse store(EnrichedOrder enrichedOrderEntity) {
+        orderRepository.insert(enrichedOrderEntity);
+        orderIdFilter.add(enrichedOrderEntity.getOrderId());
+        EnrichedOrderResponse response = orderMapper.toApi(enrichedOrderEntity);
+        orderDocumentStore.write(response);
+        customerSummaryRepository.add(CustomerTotals.of(List.of(enrichedOrderEntity)));
 
-        log.info("Fetching {} products", orderRequest.getProductIds().size());
-        List<Product> products = orderRequest.getProductIds().stream()
-                .map(productId -> {
-                    log.info("Fetching product: {}", productId);
-                    return productClient.getProductById(productId);
-                })
-                .collect(Collectors.toList());
+        // Only evict the cached lists this order belongs to
+        orderCacheIndex.evictAfterCommit(enrichedOrderEntity);
+        return response;
+    }
 
-        EnrichedOrder enrichedOrderEntity = orderMapper.toEntity(orderRequest, customer, products);
+    /**
+     * Looks up the customer and products of the order and builds the entity, without storing it.
+     */
+    public EnrichedOrder enrich(OrderRequest orderRequest) {
+        // The lookups share the request budget, so a slow downstream fails the order instead of stalling the thread
+        return enrichmentExecutor.withinBudget(() -> {
+            log.info("Starting enrichment for orderId: {}", orderRequest.getOrderId());
+            long start = System.nanoTime();
 
-        orderRepository.save(enrichedOrderEntity);
-        log.info("Successfully persisted enriched order: {}", enrichedOrderEntity.getOrderId());
+            // Customer and product lookups run concurrently; latency tracks the slowest call
+            log.info("Fetching customer: {}", orderRequest.getCustomerId());
+            CompletableFuture<Customer> customerFuture = orderMetrics.timeCustomerFetch(
+                    referenceDataCache.getCustomer(orderRequest.getCustomerId()), start);
+
+            log.info("Fetching {} products", orderRequest.getProductIds().size());
+            orderMetrics.recordProducts(orderRequest.getProductIds().size());
+            List<CompletableFuture<Product>> productFutures = orderRequest.getProductIds().stream()
+                    .map(productId -> orderMetrics.timeProductFetch(referenceDataCache.getProduct(productId), start))
+                    .toList();
+
+            List<CompletableFuture<?>> lookups = new ArrayList<>(productFutures);
+            lookups.add(customerFuture);
+            enrichmentExecutor.awaitAll(lookups);
 
-        return orderMapper.toApi(enrichedOrderEntity);
+            Customer customer = customerFuture.join();
+            List<Product> products = productFutures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+
+            long mappingStart = System.nanoTime();
+            EnrichedOrder enrichedOrder = orderMapper.toEntity(orderRequest, customer, products);
+            orderMetrics.recordMapping(mappingStart);
+            return enrichedOrder;
+        });
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "orders", key = "#orderId") // Cache result based on orderId
+    // Unknown IDs, e.g. of detached months, are not cached: the cache holds no nulls
+    @Cacheable(value = "orders", key = "#orderId", unless = "#result == null")
     public Optional<EnrichedOrderResponse> getOrderById(String orderId) {
         log.info("Fetching order by ID from database: {}", orderId);
-        return orderRepository.findById(orderId)
-                .map(orderMapper::toApi);
+        return findStored(orderId);
+    }
+
+    // Orders not yet covered by the document rebuild are read from the normalized tables
+    private Optional<EnrichedOrderResponse> findStored(String orderId) {
+        return orderDocumentStore.read(orderId)
+                .or(() -> orderRepository.findByOrderId(orderId).map(orderMapper::toApi));
     }
 
+    /**
+     * The stored order, if the request is a resend of it; empty if the ID is not stored.
+     *
+     * @throws ResourceConflictException if a different order is stored under the ID
+     */
     @Transactional(readOnly = true)
-    @Cacheable(value = "orders", key = "'customerId=' + #customerId + ';productId=' + #productId")
-    public List<EnrichedOrderResponse> getOrders(String customerId, String productId) {
-        log.info("Fetching orders from the database by customerId: {} and productId: {}", customerId, productId);
+    public Optional<EnrichedOrderResponse> findResent(OrderRequest orderRequest) {
+        // Most IDs are new and ruled out by the filter; only possible duplicates cost a lookup
+        if (!orderIdFilter.mightContain(orderRequest.getOrderId())) {
+            return Optional.empty();
+        }
+        return findStored(orderRequest.getOrderId()).map(stored -> resent(orderRequest, stored));
+    }
 
-        if(customerId == null && productId == null) {
-            return orderRepository.findAll()
-                    .stream().map(orderMapper::toApi)
-                    .collect(Collectors.toList());
+    /**
+     * Like {@link #findResent}, for an ID an insert has just found taken, possibly by another node: the filter is
+     * not asked, and an ID that cannot be read back is a conflict too.
+     */
+    @Transactional(readOnly = true)
+    public EnrichedOrderResponse requireResent(OrderRequest orderRequest) {
+        return findStored(orderRequest.getOrderId())
+                .map(stored -> resent(orderRequest, stored))
+                .orElseThrow(() -> conflict(orderRequest.getOrderId()));
+    }
+
+    /**
+     * Whether the same order is stored under its ID, for a write-behind entry whose insert found the ID taken.
+     */
+    @Transactional(readOnly = true)
+    public boolean isStored(EnrichedOrder order) {
+        OrderRequest request = new OrderRequest(order.getOrderId(), order.getCustomer().getCustomerId(),
+                order.getProducts().stream().map(ProductInfo::getProductId).toList(), order.getTimestamp());
+        try {
+            return findStored(order.getOrderId()).map(stored -> resent(request, stored)).isPresent();
+        } catch (ResourceConflictException ex) {
+            return false;
         }
+    }
 
-        List<EnrichedOrder> enrichedOrders = orderRepository.findByCriteria(customerId, productId);
-        if(productId != null) {
-            enrichedOrders.forEach(eorder -> {
-                List<ProductInfo> filteredProducts = eorder.getProducts().stream()
-                        .filter(prod -> prod.getProductId().equals(productId)).toList();
-                eorder.setProducts(filteredProducts);
-            });
+    /**
+     * The stored order, if the request is a resend of it: same customer, products and timestamp. Timestamps are
+     * compared as instants to the microsecond, the precision Postgres stores them with.
+     *
+     * @throws ResourceConflictException if the request is a different order under the same ID
+     */
+    static EnrichedOrderResponse resent(OrderRequest orderRequest, EnrichedOrderResponse stored) {
+        List<String> storedProductIds = stored.getProducts().stream().map(Product::getId).toList();
+        if (!Objects.equals(stored.getCustomer().getId(), orderRequest.getCustomerId())
+                || !storedProductIds.equals(orderRequest.getProductIds())
+                || !sameInstant(stored.getTimestamp(), orderRequest.getTimestamp())) {
+            throw conflict(orderRequest.getOrderId());
         }
+        return stored;
+    }
+
+    private static boolean sameInstant(OffsetDateTime stored, OffsetDateTime requested) {
+        return stored != null && requested != null
+                && stored.truncatedTo(ChronoUnit.MICROS).isEqual(requested.truncatedTo(ChronoUnit.MICROS));
+    }
 
-        return  enrichedOrders.stream()
+    static ResourceConflictException conflict(String orderId) {
+        return new ResourceConflictException("Order with ID '" + orderId + "' already exists.");
+    }
+
+    /**
+     * Orders accepted through the write-behind log are PENDING until the drainer stores them.
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrderStatusResponse> getOrderStatus(String orderId) {
+        return orderStatusTracker.find(orderId).or(() -> orderRepository.existsByOrderId(orderId)
+                ? Optional.of(new OrderStatusResponse(orderId, OrderStatusResponse.StatusEnum.PERSISTED))
+                : Optional.empty());
+    }
+
+    /**
+     * The order's ETag: the hash of its stored content, without reading the order itself. Orders do not change
+     * once stored, so it is cached apart from them and survives their eviction.
+     */
+    @Cacheable(value = "order-etags", key = "#orderId", unless = "#result == null")
+    public Optional<String> getOrderEtag(String orderId) {
+        return orderDocumentStore.readContentHash(orderId);
+    }
+
+    /**
+     * The ETag of the page {@link #getOrders} returns for the same arguments, computed from the stored content
+     * hashes of its orders without reading them. Cached next to the page and evicted with it.
+     */
+    @Cacheable(value = "orders", unless = "#result == null", key = "new com.teamviewer.orderenricher.cache.OrderListEtagKey("
+            + "new com.teamviewer.orderenricher.cache.OrderListKey(#customerId, #productId, #from, #to, #cursor, #limit))")
+    public Optional<String> getOrdersEtag(String customerId, String productId, OffsetDateTime from, OffsetDateTime to,
+                                          String cursor, int limit) {
+        OrderCursor start = OrderCursor.start(cursor != null ? OrderCursor.decode(cursor) : null, from);
+        return orderDocumentStore.readPageContentHash(customerId, productId,
+                start != null ? start.timestamp() : null, start != null ? start.orderId() : null, to, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(value = "orders", key = "new com.teamviewer.orderenricher.cache.OrderListKey(#customerId, #productId, #from, #to, #cursor, #limit)")
+    public List<EnrichedOrderResponse> getOrders(String customerId, String productId, OffsetDateTime from, OffsetDateTime to,
+                                                 String cursor, int limit) {
+        log.info("Fetching page of {} orders from the database by customerId: {}, productId: {}, from: {} and to: {}",
+                limit, customerId, productId, from, to);
+        OrderCursor start = OrderCursor.start(cursor != null ? OrderCursor.decode(cursor) : null, from);
+        return findPage(customerId, productId, start, to, limit);
+    }
+
+    /**
+     * The customer's order totals, kept up to date by every order write, so this is one row read.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CustomerSummary> getCustomerSummary(String customerId) {
+        return customerSummaryRepository.find(customerId).map(orderMapper::toSummary);
+    }
+
+    /**
+     * Hands every matching order from {@code from} (inclusive) to {@code to} (exclusive) to the consumer, one page
+     * at a time; either bound may be null.
+     * Each page is read, handed over and released before the next one is fetched, so heap use depends on the
+     * page size only. Pages are not cached; a full scan would just push everything else out of Redis.
+     * The orders are entities rather than responses, for writers that serialize them directly.
+     */
+    public void streamOrders(String customerId, String productId, OffsetDateTime from, OffsetDateTime to, int pageSize,
+                             Consumer<List<EnrichedOrder>> pageConsumer) {
+        log.info("Streaming orders from the database by customerId: {}, productId: {}, from: {} and to: {}",
+                customerId, productId, from, to);
+        OrderCursor after = OrderCursor.start(null, from);
+        List<EnrichedOrder> page;
+        do {
+            page = findOrders(customerId, productId, after, to, pageSize);
+            if (!page.isEmpty()) {
+                pageConsumer.accept(page);
+                after = OrderCursor.after(page.get(page.size() - 1));
+                // A persistence context the caller keeps open, e.g. a transaction, would otherwise hold every page
+                page.forEach(entityManager::detach);
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private List<EnrichedOrderResponse> findPage(String customerId, String productId, OrderCursor after,
+                                                 OffsetDateTime before, int limit) {
+        return findOrders(customerId, productId, after, before, limit).stream()
                 .map(orderMapper::toApi)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private List<EnrichedOrder> findOrders(String customerId, String productId, OrderCursor after,
+                                           OffsetDateTime before, int limit) {
+        OffsetDateTime afterTimestamp = after != null ? after.timestamp() : null;
+        String afterOrderId = after != null ? after.orderId() : null;
+        return productId == null
+                ? orderRepository.findPage(customerId, afterTimestamp, afterOrderId, before, Limit.of(limit))
+                : findPageByProduct(customerId, productId, afterTimestamp, afterOrderId, before, limit);
+    }
+
+    // Filtered orders only carry the matching products, so those rows are selected directly instead of
+    // loading every product of each order and discarding the rest
+    private List<EnrichedOrder> findPageByProduct(String customerId, String productId, OffsetDateTime afterTimestamp,
+                                                  String afterOrderId, OffsetDateTime before, int limit) {
+        List<OrderHeader> headers = orderRepository.findPageByProduct(customerId, productId, afterTimestamp, afterOrderId,
+                before, Limit.of(limit));
+        if (headers.isEmpty()) {
+            return List.of();
+        }
+        // Headers are in timestamp order, so the first and last bound the partitions holding their products
+        Map<String, List<ProductInfo>> productsByOrder = orderRepository.findProductRows(
+                        headers.stream().map(OrderHeader::orderId).toList(),
+                        headers.get(0).timestamp(), headers.get(headers.size() - 1).timestamp(), productId).stream()
+                .collect(Collectors.groupingBy(OrderProductRow::orderId,
+                        Collectors.mapping(OrderProductRow::product, Collectors.toList())));
+
+        return headers.stream().map(header -> {
+            EnrichedOrder order = new EnrichedOrder();
+            order.setOrderId(header.orderId());
+            order.setTimestamp(header.timestamp());
+            order.setCustomer(header.customer());
+            order.setTotalPrice(header.totalPrice());
+            order.setProducts(productsByOrder.getOrDefault(header.orderId(), List.of()));
+            return order;
+        }).toList();
+    }
+}
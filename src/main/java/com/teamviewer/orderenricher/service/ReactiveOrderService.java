@@ -0,0 +1,205 @@
+package com.teamviewer.orderenricher.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.CustomerSummary;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.ReactiveOrderRepository;
+import com.teamviewer.orderenricher.writebehind.OrderStatusTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * {@link OrderService} for the {@code reactive} profile. Every step returns as soon as its I/O is started,
+ * so an order waiting on a downstream service or the database holds no thread. Enrichment keeps the limits of
+ * {@link EnrichmentExecutor}: each lookup is cut off after {@code call-timeout} and all of them together after
+ * {@code request-budget}, with the same messages.
+ */
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveOrderService {
+
+    private final ReactiveReferenceDataCache referenceDataCache;
+    private final ReactiveOrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final OrderStatusTracker orderStatusTracker;
+    private final OrderIdFilter orderIdFilter;
+    private final ObjectReader documentReader;
+    private final ObjectWriter documentWriter;
+    private final Duration callTimeout;
+    private final Duration requestBudget;
+
+    public ReactiveOrderService(ReactiveReferenceDataCache referenceDataCache,
+                                ReactiveOrderRepository orderRepository,
+                                OrderMapper orderMapper,
+                                OrderStatusTracker orderStatusTracker,
+                                OrderIdFilter orderIdFilter,
+                                ObjectMapper objectMapper,
+                                @Value("${enrichment.call-timeout:1s}") Duration callTimeout,
+                                @Value("${enrichment.request-budget:2s}") Duration requestBudget) {
+        this.referenceDataCache = referenceDataCache;
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.orderStatusTracker = orderStatusTracker;
+        this.orderIdFilter = orderIdFilter;
+        this.documentReader = objectMapper.readerFor(EnrichedOrderResponse.class);
+        this.documentWriter = objectMapper.writerFor(EnrichedOrderResponse.class);
+        this.callTimeout = callTimeout;
+        this.requestBudget = requestBudget;
+    }
+
+    /**
+     * Enriches and stores the order together with its read-model document. Resending a stored order returns
+     * it as stored, without enriching it again; a different order under a stored ID is a conflict.
+     */
+    public Mono<SubmittedOrder> createOrder(OrderRequest orderRequest) {
+        // Most IDs are new and ruled out by the filter; only possible duplicates cost a lookup
+        Mono<SubmittedOrder> stored = orderIdFilter.mightContain(orderRequest.getOrderId())
+                ? getOrderById(orderRequest.getOrderId())
+                        .map(order -> SubmittedOrder.resent(OrderService.resent(orderRequest, order)))
+                : Mono.empty();
+        return stored.switchIfEmpty(Mono.defer(() -> enrichAndStore(orderRequest)));
+    }
+
+    private Mono<SubmittedOrder> enrichAndStore(OrderRequest orderRequest) {
+        return enrich(orderRequest).flatMap(enrichedOrder -> {
+            EnrichedOrderResponse response = orderMapper.toApi(enrichedOrder);
+            String document;
+            try {
+                document = documentWriter.writeValueAsString(response);
+            } catch (JsonProcessingException ex) {
+                return Mono.error(new IllegalStateException("Could not serialize order " + response.getOrderId(), ex));
+            }
+            return orderRepository.insert(enrichedOrder, document, OrderDocumentStore.VERSION)
+                    .doOnSuccess(done -> {
+                        orderIdFilter.add(enrichedOrder.getOrderId());
+                        log.info("Successfully persisted enriched order: {}", enrichedOrder.getOrderId());
+                    })
+                    .thenReturn(SubmittedOrder.created(response))
+                    // Stored meanwhile, or by a node whose writes this filter has not seen; rolled back by now
+                    .onErrorResume(DataIntegrityViolationException.class, ex -> storedMeanwhile(orderRequest));
+        });
+    }
+
+    private Mono<SubmittedOrder> storedMeanwhile(OrderRequest orderRequest) {
+        return getOrderById(orderRequest.getOrderId())
+                .map(order -> SubmittedOrder.resent(OrderService.resent(orderRequest, order)))
+                .switchIfEmpty(Mono.error(() -> OrderService.conflict(orderRequest.getOrderId())));
+    }
+
+    /**
+     * Looks up the customer and products concurrently and builds the entity, failing fast on the first error.
+     */
+    public Mono<EnrichedOrder> enrich(OrderRequest orderRequest) {
+        Mono<Customer> customer = referenceDataCache
+                .getCustomer(orderRequest.getCustomerId())
+                .timeout(callTimeout, timedOut("Customer service"));
+        Mono<List<Product>> products = Flux.fromIterable(orderRequest.getProductIds())
+                .flatMapSequential(productId -> referenceDataCache.getProduct(productId)
+                        .timeout(callTimeout, timedOut("Product service")))
+                .collectList();
+
+        return Mono.zip(customer, products)
+                .map(lookups -> orderMapper.toEntity(orderRequest, lookups.getT1(), lookups.getT2()))
+                .timeout(requestBudget, Mono.error(() -> new ServiceUnavailableException(
+                        "Order enrichment did not finish within " + requestBudget.toMillis() + " ms.")))
+                .doOnSubscribe(subscription -> log.info("Starting enrichment for orderId: {}", orderRequest.getOrderId()));
+    }
+
+    /**
+     * Reads the order's document, falling back to the normalized tables for orders the rebuild has not reached.
+     */
+    public Mono<EnrichedOrderResponse> getOrderById(String orderId) {
+        return orderRepository.findDocument(orderId)
+                .flatMap(document -> {
+                    try {
+                        return Mono.just(documentReader.<EnrichedOrderResponse>readValue(document));
+                    } catch (JsonProcessingException ex) {
+                        log.warn("Ignoring unreadable document for order {}", orderId, ex);
+                        return Mono.empty();
+                    }
+                })
+                .switchIfEmpty(Mono.defer(() -> orderRepository.findById(orderId).map(orderMapper::toApi)));
+    }
+
+    public Mono<CustomerSummary> getCustomerSummary(String customerId) {
+        return orderRepository.findCustomerSummary(customerId).map(orderMapper::toSummary);
+    }
+
+    public Mono<OrderStatusResponse> getOrderStatus(String orderId) {
+        return Mono.justOrEmpty(orderStatusTracker.find(orderId))
+                .switchIfEmpty(Mono.defer(() -> orderRepository.existsById(orderId)
+                        .filter(exists -> exists)
+                        .map(exists -> new OrderStatusResponse(orderId, OrderStatusResponse.StatusEnum.PERSISTED))));
+    }
+
+    /**
+     * The order's ETag, as {@link OrderService#getOrderEtag}; empty if the order has no document with a hash yet.
+     */
+    public Mono<String> getOrderEtag(String orderId) {
+        return orderRepository.findContentHash(orderId);
+    }
+
+    /**
+     * The ETag of the page {@link #getOrders} returns for the same arguments, as {@link OrderService#getOrdersEtag}.
+     */
+    public Mono<String> getOrdersEtag(String customerId, String productId, OffsetDateTime from, OffsetDateTime to,
+                                      String cursor, int limit) {
+        return Mono.defer(() -> {
+            OrderCursor start = OrderCursor.start(cursor != null ? OrderCursor.decode(cursor) : null, from);
+            return orderRepository.findPageContentHash(customerId, productId,
+                    start != null ? start.timestamp() : null, start != null ? start.orderId() : null, to, limit);
+        });
+    }
+
+    public Flux<EnrichedOrderResponse> getOrders(String customerId, String productId, OffsetDateTime from, OffsetDateTime to,
+                                                 String cursor, int limit) {
+        OrderCursor start = OrderCursor.start(cursor != null ? OrderCursor.decode(cursor) : null, from);
+        return findPage(customerId, productId, start, to, limit);
+    }
+
+    /**
+     * Every matching order in [from, to), one page at a time. The next page is only queried once the subscriber
+     * has asked for more than the current one holds, so a slow client slows the database reads instead of
+     * filling the heap.
+     */
+    public Flux<EnrichedOrderResponse> streamOrders(String customerId, String productId, OffsetDateTime from, OffsetDateTime to,
+                                                    int pageSize) {
+        return findPage(customerId, productId, OrderCursor.start(null, from), to, pageSize).collectList()
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : findPage(customerId, productId, OrderCursor.after(page.get(page.size() - 1)), to, pageSize).collectList())
+                .concatMapIterable(page -> page, 1);
+    }
+
+    private Flux<EnrichedOrderResponse> findPage(String customerId, String productId, OrderCursor after,
+                                                 OffsetDateTime before, int limit) {
+        return orderRepository.findPage(customerId, productId,
+                        after != null ? after.timestamp() : null, after != null ? after.orderId() : null, before, limit)
+                .map(orderMapper::toApi);
+    }
+
+    private <T> Mono<T> timedOut(String serviceName) {
+        return Mono.error(() -> new ServiceUnavailableException(
+                serviceName + " did not respond within " + callTimeout.toMillis() + " ms."));
+    }
+}
@@ -0,0 +1,67 @@
+package com.teamviewer.orderenricher.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.client.ReactiveCustomerServiceClient;
+import com.teamviewer.orderenricher.client.ReactiveProductServiceClient;
+import com.teamviewer.orderenricher.config.ReferenceDataCacheProperties;
+import com.teamviewer.orderenricher.service.EnrichmentExecutor.Downstream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link ReferenceDataCache} for the {@code reactive} profile: same sizing, TTLs and refresh, but misses are
+ * loaded through the non-blocking clients instead of on a thread, and the same {@link NotFoundCache} answers
+ * for unknown IDs. Metrics are published as the caches {@code reactive-customers} and {@code reactive-products}.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveReferenceDataCache {
+
+    private final AsyncLoadingCache<String, Customer> customers;
+    private final AsyncLoadingCache<String, Product> products;
+    private final NotFoundCache notFoundCache;
+
+    public ReactiveReferenceDataCache(ReactiveCustomerServiceClient customerClient,
+                                      ReactiveProductServiceClient productClient,
+                                      NotFoundCache notFoundCache,
+                                      ReferenceDataCacheProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.notFoundCache = notFoundCache;
+        this.customers = ReferenceDataCache.build(properties.customers(), ReferenceDataCache::weigh,
+                (customerId, executor) -> notFoundCache.record(Downstream.CUSTOMER, customerId,
+                        customerClient.getCustomerById(customerId).toFuture()));
+        this.products = ReferenceDataCache.build(properties.products(), ReferenceDataCache::weigh,
+                (productId, executor) -> notFoundCache.record(Downstream.PRODUCT, productId,
+                        productClient.getProductById(productId).toFuture()));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "reactive-customers");
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "reactive-products");
+    }
+
+    /**
+     * Returns the customer, loading it on a miss. Cancelling the returned {@link Mono} does not abort a shared load.
+     */
+    public Mono<Customer> getCustomer(String customerId) {
+        return Mono.fromFuture(() -> {
+            CompletableFuture<Customer> notFound = notFoundCache.find(Downstream.CUSTOMER, customerId);
+            return notFound != null ? notFound : customers.get(customerId);
+        }, true);
+    }
+
+    /**
+     * Returns the product, loading it on a miss. Cancelling the returned {@link Mono} does not abort a shared load.
+     */
+    public Mono<Product> getProduct(String productId) {
+        return Mono.fromFuture(() -> {
+            CompletableFuture<Product> notFound = notFoundCache.find(Downstream.PRODUCT, productId);
+            return notFound != null ? notFound : products.get(productId);
+        }, true);
+    }
+}
@@ -0,0 +1,109 @@
+package com.teamviewer.orderenricher.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.client.CustomerServiceClient;
+import com.teamviewer.orderenricher.client.ProductBatchLoader;
+import com.teamviewer.orderenricher.client.ProductServiceClient;
+import com.teamviewer.orderenricher.config.ReferenceDataCacheProperties;
+import com.teamviewer.orderenricher.service.EnrichmentExecutor.Downstream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-heap cache in front of the customer and product services.
+ * Uses Caffeine (W-TinyLFU eviction) with a per-type TTL. Entries older than {@code refresh-after} are
+ * reloaded in the background on the next read while callers keep getting the current value.
+ * Concurrent misses for the same ID share a single downstream call, bounded by the call timeout alone so that
+ * it does not end with the budget of whichever request missed first. IDs the services answered with 404
+ * fail from the {@link NotFoundCache} until that entry expires.
+ */
+@Component
+public class ReferenceDataCache {
+
+    // Rough per-object overhead used by the weighers, in bytes
+    private static final int OBJECT_OVERHEAD = 64;
+
+    private final AsyncLoadingCache<String, Customer> customers;
+    private final AsyncLoadingCache<String, Product> products;
+    private final NotFoundCache notFoundCache;
+
+    public ReferenceDataCache(CustomerServiceClient customerClient,
+                              ProductServiceClient productClient,
+                              ProductBatchLoader productBatchLoader,
+                              EnrichmentExecutor enrichmentExecutor,
+                              NotFoundCache notFoundCache,
+                              ReferenceDataCacheProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.notFoundCache = notFoundCache;
+        this.customers = build(properties.customers(), ReferenceDataCache::weigh, (customerId, executor) ->
+                notFoundCache.record(Downstream.CUSTOMER, customerId,
+                        enrichmentExecutor.submitShared(Downstream.CUSTOMER, () -> customerClient.getCustomerById(customerId))));
+        this.products = build(properties.products(), ReferenceDataCache::weigh, (productId, executor) ->
+                notFoundCache.record(Downstream.PRODUCT, productId, productBatchLoader.isEnabled()
+                        ? productBatchLoader.load(productId)
+                        : enrichmentExecutor.submitShared(Downstream.PRODUCT, () -> productClient.getProductById(productId))));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "customers");
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+    }
+
+    /**
+     * Returns the customer, loading it on a miss. Cancelling the returned future does not abort a shared load.
+     */
+    public CompletableFuture<Customer> getCustomer(String customerId) {
+        CompletableFuture<Customer> notFound = notFoundCache.find(Downstream.CUSTOMER, customerId);
+        return notFound != null ? notFound : customers.get(customerId).copy();
+    }
+
+    /**
+     * Returns the product, loading it on a miss. Cancelling the returned future does not abort a shared load.
+     */
+    public CompletableFuture<Product> getProduct(String productId) {
+        CompletableFuture<Product> notFound = notFoundCache.find(Downstream.PRODUCT, productId);
+        return notFound != null ? notFound : products.get(productId).copy();
+    }
+
+    static <V> AsyncLoadingCache<String, V> build(ReferenceDataCacheProperties.Spec spec,
+                                                           Weigher<String, V> weigher,
+                                                           AsyncCacheLoader<String, V> loader) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(spec.ttl())
+                .recordStats();
+        if (spec.refreshAfter().compareTo(spec.ttl()) < 0) {
+            builder.refreshAfterWrite(spec.refreshAfter());
+        }
+        if (spec.maxWeight() > 0) {
+            return builder.maximumWeight(spec.maxWeight()).weigher(weigher).buildAsync(loader);
+        }
+        return builder.maximumSize(spec.maxEntries()).buildAsync(loader);
+    }
+
+    static int weigh(String customerId, Customer customer) {
+        return OBJECT_OVERHEAD + length(customerId) + length(customer.getName()) + length(customer.getStreet())
+                + length(customer.getZip()) + length(customer.getCountry());
+    }
+
+    static int weigh(String productId, Product product) {
+        int weight = OBJECT_OVERHEAD + length(productId) + length(product.getName()) + length(product.getCategory());
+        List<String> tags = product.getTags();
+        if (tags != null) {
+            for (String tag : tags) {
+                weight += length(tag);
+            }
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : 2 * value.length();
+    }
+}
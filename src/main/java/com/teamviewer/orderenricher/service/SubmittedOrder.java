@@ -0,0 +1,18 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+
+/**
+ * Outcome of submitting an order: the stored order, and whether it was stored before, i.e. the request was a
+ * resend of it and created nothing.
+ */
+public record SubmittedOrder(EnrichedOrderResponse order, boolean resent) {
+
+    public static SubmittedOrder created(EnrichedOrderResponse order) {
+        return new SubmittedOrder(order, false);
+    }
+
+    public static SubmittedOrder resent(EnrichedOrderResponse order) {
+        return new SubmittedOrder(order, true);
+    }
+}
@@ -0,0 +1,424 @@
+package com.teamviewer.orderenricher.writebehind;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque entries in a directory of fixed-size, memory-mapped segment files.
+ * <p>
+ * Entries are addressed by a byte offset that grows across segments; a segment file is named after the
+ * offset of its first entry. Each entry is stored as its length, a CRC32C of the payload and the payload.
+ * A single writer thread takes every append that is queued, copies them into the mapped segment and
+ * forces the written range to disk once for the whole group, so concurrent appenders share one fsync.
+ * An append's future completes only after that force, and readers never see entries beyond it.
+ * <p>
+ * On {@link #open}, the segments are scanned and the log ends at the first entry that is missing or fails
+ * its checksum, which is where a crash during a write leaves it. Consumers record how far they got
+ * themselves and call {@link #release} so that fully consumed segments are deleted.
+ */
+@Slf4j
+public final class OrderLog implements Closeable {
+
+    // length + checksum
+    static final int HEADER_BYTES = 8;
+    private static final int MAX_GROUP_SIZE = 1024;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String ID_FILE = "log-id";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final String id;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    // End of the last entry that has been forced to disk
+    private volatile long durableEnd;
+    private volatile long releasedTo;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    // Only touched by the writer thread after open
+    private Segment head;
+
+    /**
+     * One stored entry. {@code nextOffset} is where the following entry starts.
+     */
+    public record Entry(long offset, long nextOffset, byte[] payload) {
+    }
+
+    private OrderLog(Path directory, int segmentSize, String id) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.id = id;
+        this.writer = Thread.ofPlatform().name("order-log-writer").daemon().unstarted(this::writeLoop);
+    }
+
+    public static OrderLog open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size must be larger than " + HEADER_BYTES + " bytes.");
+        }
+        Files.createDirectories(directory);
+        OrderLog orderLog = new OrderLog(directory, segmentSize, readOrCreateId(directory));
+        orderLog.recover();
+        orderLog.writer.start();
+        return orderLog;
+    }
+
+    /**
+     * Identifies this log across restarts, so consumers can store their position per log.
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Offset of the oldest entry that is still on disk.
+     */
+    public long firstOffset() {
+        return segments.firstKey();
+    }
+
+    /**
+     * End of the durable entries; the next append lands here or later.
+     */
+    public long endOffset() {
+        return durableEnd;
+    }
+
+    /**
+     * Bytes between the released position and the end of the log.
+     */
+    public long backlogBytes() {
+        return durableEnd - releasedTo;
+    }
+
+    /**
+     * Queues the payload for the next group commit.
+     *
+     * @return completes with the entry's offset once it is on disk
+     */
+    public CompletableFuture<Long> append(byte[] payload) {
+        if (HEADER_BYTES + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Entry of " + payload.length + " bytes does not fit in a segment.");
+        }
+        Throwable failed = failure;
+        if (closed || failed != null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The order log is not writable.", failed));
+        }
+        Append append = new Append(payload, new CompletableFuture<>());
+        appends.add(append);
+        return append.result;
+    }
+
+    /**
+     * Reads up to {@code maxEntries} durable entries, starting at {@code offset}, which must be the start
+     * of an entry. Offsets before the first segment start at the first segment.
+     */
+    public List<Entry> read(long offset, int maxEntries) {
+        long end = durableEnd;
+        long position = Math.max(offset, firstOffset());
+        List<Entry> entries = new ArrayList<>(Math.min(maxEntries, 1024));
+        while (entries.size() < maxEntries && position < end) {
+            // Segments start where the previous one's entries end, so the floor segment holds the entry
+            Segment segment = segments.floorEntry(position).getValue();
+            int index = (int) (position - segment.base);
+            int length = segment.buffer.getInt(index);
+            byte[] payload = new byte[length];
+            segment.buffer.get(index + HEADER_BYTES, payload);
+            long next = position + HEADER_BYTES + length;
+            entries.add(new Entry(position, next, payload));
+            position = next;
+        }
+        return entries;
+    }
+
+    /**
+     * Waits until the log holds durable entries beyond {@code offset}, or the timeout elapses.
+     *
+     * @return whether there is something to read at {@code offset}
+     */
+    public boolean awaitEntries(long offset, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        durableLock.lock();
+        try {
+            while (durableEnd <= offset && !closed) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = durableAdvanced.awaitNanos(nanos);
+            }
+            return durableEnd > offset;
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Records that every entry before {@code offset} has been consumed and deletes the segments that
+     * hold nothing else. The segment being written to is always kept.
+     */
+    public void release(long offset) {
+        releasedTo = Math.max(releasedTo, offset);
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            Long nextBase = segments.higherKey(entry.getKey());
+            if (nextBase == null || nextBase > offset) {
+                break;
+            }
+            Segment segment = segments.remove(entry.getKey());
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException ex) {
+                log.warn("Failed to delete order log segment {}", segment.path, ex);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        durableLock.lock();
+        try {
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+        // Appends that raced with close() never reached the writer
+        List<Append> abandoned = new ArrayList<>();
+        appends.drainTo(abandoned);
+        abandoned.forEach(append -> append.result.completeExceptionally(new IllegalStateException("The order log is closed.")));
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<Append> group = new ArrayList<>(MAX_GROUP_SIZE);
+        while (!closed || !appends.isEmpty()) {
+            try {
+                Append first = closed ? appends.poll() : appends.take();
+                if (first == null) {
+                    break;
+                }
+                group.add(first);
+            } catch (InterruptedException ex) {
+                // close() interrupts; commit what is already queued before stopping
+                continue;
+            }
+            appends.drainTo(group, MAX_GROUP_SIZE - 1);
+            commit(group);
+            group.clear();
+        }
+    }
+
+    private void commit(List<Append> group) {
+        if (failure != null) {
+            group.forEach(append -> append.result.completeExceptionally(
+                    new IllegalStateException("The order log is not writable.", failure)));
+            return;
+        }
+        long[] offsets = new long[group.size()];
+        try {
+            int forceFrom = head.position;
+            for (int i = 0; i < group.size(); i++) {
+                byte[] payload = group.get(i).payload;
+                if (head.position + HEADER_BYTES + payload.length > head.capacity) {
+                    head.force(forceFrom);
+                    head = createSegment(head.base + head.position);
+                    forceFrom = 0;
+                }
+                offsets[i] = head.base + head.position;
+                head.write(payload);
+            }
+            head.force(forceFrom);
+        } catch (IOException | UncheckedIOException ex) {
+            // Entries of this group may or may not be on disk; refuse further appends rather than guess
+            log.error("Failed to write to the order log; further appends are rejected", ex);
+            failure = ex;
+            group.forEach(append -> append.result.completeExceptionally(ex));
+            return;
+        }
+        durableLock.lock();
+        try {
+            durableEnd = head.base + head.position;
+            durableAdvanced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).result.complete(offsets[i]);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            Segment segment = mapSegment(file, baseOf(file), false);
+            segment.scan();
+            segments.put(segment.base, segment);
+        }
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            Long nextBase = segments.higherKey(entry.getKey());
+            Segment segment = entry.getValue();
+            if (nextBase != null && segment.base + segment.position != nextBase) {
+                log.warn("Order log segment {} ends at {} but the next one starts at {}",
+                        segment.path, segment.base + segment.position, nextBase);
+            }
+        }
+        head = segments.isEmpty() ? createSegment(0) : segments.lastEntry().getValue();
+        head.clearTail();
+        durableEnd = head.base + head.position;
+        releasedTo = segments.firstKey();
+        if (!files.isEmpty()) {
+            log.info("Opened order log {} with {} segments, entries from {} to {}", id, segments.size(), releasedTo, durableEnd);
+        }
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        Segment segment = mapSegment(file, base, true);
+        // The new file's directory entry has to survive a crash as well
+        forceDirectory();
+        segments.put(base, segment);
+        return segment;
+    }
+
+    private Segment mapSegment(Path file, long base, boolean create) throws IOException {
+        FileChannel channel = create
+                ? FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int capacity = create ? segmentSize : (int) Math.min(channel.size(), Integer.MAX_VALUE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        return new Segment(file, base, channel, buffer, capacity);
+    }
+
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // Not every platform allows opening a directory; the segment itself is still forced
+            log.debug("Could not force order log directory {}", directory, ex);
+        }
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static String readOrCreateId(Path directory) throws IOException {
+        Path idFile = directory.resolve(ID_FILE);
+        if (Files.exists(idFile)) {
+            return Files.readString(idFile, StandardCharsets.UTF_8).strip();
+        }
+        String id = UUID.randomUUID().toString();
+        try (FileChannel channel = FileChannel.open(idFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(StandardCharsets.UTF_8.encode(id));
+            channel.force(true);
+        }
+        return id;
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int index, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(index, length));
+        return (int) crc.getValue();
+    }
+
+    private record Append(byte[] payload, CompletableFuture<Long> result) {
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long base;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        // End of the valid entries
+        private int position;
+
+        private Segment(Path path, long base, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+            this.path = path;
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        private void write(byte[] payload) {
+            buffer.putInt(position, payload.length);
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putInt(position + 4, checksum(buffer, position + HEADER_BYTES, payload.length));
+            position += HEADER_BYTES + payload.length;
+        }
+
+        private void force(int from) {
+            if (position > from) {
+                buffer.force(from, position - from);
+            }
+        }
+
+        private void scan() {
+            position = 0;
+            while (position + HEADER_BYTES <= capacity) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > capacity
+                        || buffer.getInt(position + 4) != checksum(buffer, position + HEADER_BYTES, length)) {
+                    return;
+                }
+                position += HEADER_BYTES + length;
+            }
+        }
+
+        // A torn write can leave a partial entry, or later entries of the same group, behind the valid ones.
+        // Zero them so the next append cannot end up in front of a stale entry that still passes its checksum.
+        private void clearTail() {
+            int end = capacity;
+            while (end > position && buffer.get(end - 1) == 0) {
+                end--;
+            }
+            if (end == position) {
+                return;
+            }
+            log.warn("Discarding {} bytes after offset {} of the order log", end - position, base + position);
+            for (int index = position; index < end; index++) {
+                buffer.put(index, (byte) 0);
+            }
+            buffer.force(position, end - position);
+        }
+    }
+}
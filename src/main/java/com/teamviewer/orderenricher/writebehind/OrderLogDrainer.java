@@ -0,0 +1,178 @@
+package com.teamviewer.orderenricher.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.teamviewer.orderenricher.config.WriteBehindProperties;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.repository.OrderLogCheckpointRepository;
+import com.teamviewer.orderenricher.service.OrderBatchPersister;
+import com.teamviewer.orderenricher.service.OrderService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves orders from the {@link OrderLog} into the database in batches.
+ * The position in the log is stored with each batch, in the same transaction, so after a restart the drainer
+ * continues exactly after the last committed batch. While the database is unavailable the batch is retried
+ * with exponential backoff; the log keeps growing until the write-behind backlog limit stops new orders.
+ */
+@Component
+@ConditionalOnProperty(prefix = "write-behind", name = "enabled", havingValue = "true")
+@Slf4j
+public class OrderLogDrainer {
+
+    private static final Duration INITIAL_RETRY_BACKOFF = Duration.ofMillis(100);
+    private static final long IDLE_WAIT_MILLIS = 500;
+
+    private final OrderLog orderLog;
+    private final OrderBatchPersister batchPersister;
+    private final OrderService orderService;
+    private final OrderLogCheckpointRepository checkpointRepository;
+    private final OrderStatusTracker statusTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader orderReader;
+    private final int batchSize;
+    private final Duration maxRetryBackoff;
+
+    private volatile boolean running;
+    private Thread thread;
+    // Start of the next entry to drain; only the drainer thread touches it
+    private long position = -1;
+
+    public OrderLogDrainer(OrderLog orderLog,
+                           OrderBatchPersister batchPersister,
+                           OrderService orderService,
+                           OrderLogCheckpointRepository checkpointRepository,
+                           OrderStatusTracker statusTracker,
+                           TransactionTemplate transactionTemplate,
+                           ObjectMapper objectMapper,
+                           WriteBehindProperties properties) {
+        this.orderLog = orderLog;
+        this.batchPersister = batchPersister;
+        this.orderService = orderService;
+        this.checkpointRepository = checkpointRepository;
+        this.statusTracker = statusTracker;
+        this.transactionTemplate = transactionTemplate;
+        this.orderReader = objectMapper.readerFor(EnrichedOrder.class);
+        this.batchSize = properties.drainBatchSize();
+        this.maxRetryBackoff = properties.maxRetryBackoff();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        running = true;
+        thread = Thread.ofPlatform().name("order-log-drainer").daemon().start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void drainLoop() {
+        Duration backoff = INITIAL_RETRY_BACKOFF;
+        while (running) {
+            try {
+                if (drainNext() == 0) {
+                    orderLog.awaitEntries(position, IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                backoff = INITIAL_RETRY_BACKOFF;
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Failed to drain the order log at offset {}, retrying in {}", position, backoff, ex);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                Duration doubled = backoff.multipliedBy(2);
+                backoff = doubled.compareTo(maxRetryBackoff) < 0 ? doubled : maxRetryBackoff;
+            }
+        }
+    }
+
+    /**
+     * Stores the next batch of log entries.
+     *
+     * @return the number of entries drained
+     */
+    int drainNext() {
+        if (position < 0) {
+            recover();
+        }
+        List<OrderLog.Entry> entries = orderLog.read(position, batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        long next = entries.get(entries.size() - 1).nextOffset();
+        List<EnrichedOrder> orders = decode(entries);
+        Set<String> inserted = transactionTemplate.execute(status -> {
+            Set<String> ids = batchPersister.persist(orders);
+            checkpointRepository.savePosition(orderLog.id(), next);
+            return ids;
+        });
+
+        Set<String> claimed = new HashSet<>();
+        for (EnrichedOrder order : orders) {
+            boolean stored = inserted != null && inserted.contains(order.getOrderId()) && claimed.add(order.getOrderId());
+            // A skipped entry may be a resend of the stored order, e.g. accepted by another node; only a different order fails
+            if (stored || orderService.isStored(order)) {
+                statusTracker.markPersisted(order.getOrderId());
+            } else {
+                statusTracker.markFailed(order.getOrderId(), "Order with ID '" + order.getOrderId() + "' already exists.");
+            }
+        }
+        position = next;
+        orderLog.release(next);
+        return entries.size();
+    }
+
+    // Entries written before a restart are pending again until they are drained
+    private void recover() {
+        long start = checkpointRepository.findPosition(orderLog.id()).orElse(orderLog.firstOffset());
+        orderLog.release(start);
+        long pending = 0;
+        long offset = start;
+        List<OrderLog.Entry> entries;
+        while (!(entries = orderLog.read(offset, batchSize)).isEmpty()) {
+            for (EnrichedOrder order : decode(entries)) {
+                statusTracker.markPending(order.getOrderId());
+                pending++;
+            }
+            offset = entries.get(entries.size() - 1).nextOffset();
+        }
+        position = start;
+        log.info("Draining order log {} from offset {}, {} orders pending", orderLog.id(), start, pending);
+    }
+
+    private List<EnrichedOrder> decode(List<OrderLog.Entry> entries) {
+        List<EnrichedOrder> orders = new ArrayList<>(entries.size());
+        for (OrderLog.Entry entry : entries) {
+            try {
+                orders.add(orderReader.readValue(entry.payload()));
+            } catch (IOException ex) {
+                // The checksum matched, so this is not a torn write; retrying would not help either
+                log.error("Skipping unreadable order log entry at offset {}", entry.offset(), ex);
+            }
+        }
+        return orders;
+    }
+}
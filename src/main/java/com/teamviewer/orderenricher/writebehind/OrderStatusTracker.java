@@ -0,0 +1,60 @@
+package com.teamviewer.orderenricher.writebehind;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Status of orders that were accepted into the write-behind log but are not stored yet, and of those that
+ * could not be stored. Orders in neither state are looked up in the database instead.
+ */
+@Component
+public class OrderStatusTracker {
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Cache<String, String> failures = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    /**
+     * @return false if the order is already pending
+     */
+    public boolean markPending(String orderId) {
+        if (!pending.add(orderId)) {
+            return false;
+        }
+        failures.invalidate(orderId);
+        return true;
+    }
+
+    public void markPersisted(String orderId) {
+        pending.remove(orderId);
+    }
+
+    public void markFailed(String orderId, String message) {
+        failures.put(orderId, message);
+        pending.remove(orderId);
+    }
+
+    /**
+     * Drops a pending order that never made it into the log.
+     */
+    public void forget(String orderId) {
+        pending.remove(orderId);
+    }
+
+    public Optional<OrderStatusResponse> find(String orderId) {
+        if (pending.contains(orderId)) {
+            return Optional.of(new OrderStatusResponse(orderId, OrderStatusResponse.StatusEnum.PENDING));
+        }
+        return Optional.ofNullable(failures.getIfPresent(orderId))
+                .map(message -> new OrderStatusResponse(orderId, OrderStatusResponse.StatusEnum.FAILED).message(message));
+    }
+}
@@ -0,0 +1,76 @@
+package com.teamviewer.orderenricher.writebehind;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.config.WriteBehindProperties;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.service.OrderService;
+import com.teamviewer.orderenricher.service.SubmittedOrder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Accepts orders into the local {@link OrderLog} instead of the database. The order is enriched as usual,
+ * and the call returns once its log entry is on disk; {@link OrderLogDrainer} stores it afterwards.
+ * The database is only read for IDs the order ID filter has seen, to answer a resend of a stored order with
+ * that order; new orders keep being accepted while the database is slow or down, until the backlog limit is reached.
+ */
+@Service
+@ConditionalOnProperty(prefix = "write-behind", name = "enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindOrderService {
+
+    private final OrderService orderService;
+    private final OrderMapper orderMapper;
+    private final OrderLog orderLog;
+    private final OrderStatusTracker statusTracker;
+    private final ObjectWriter orderWriter;
+    private final long maxBacklogBytes;
+
+    public WriteBehindOrderService(OrderService orderService,
+                                   OrderMapper orderMapper,
+                                   OrderLog orderLog,
+                                   OrderStatusTracker statusTracker,
+                                   ObjectMapper objectMapper,
+                                   WriteBehindProperties properties) {
+        this.orderService = orderService;
+        this.orderMapper = orderMapper;
+        this.orderLog = orderLog;
+        this.statusTracker = statusTracker;
+        this.orderWriter = objectMapper.writerFor(EnrichedOrder.class);
+        this.maxBacklogBytes = properties.maxBacklog().toBytes();
+    }
+
+    public SubmittedOrder acceptOrder(OrderRequest orderRequest) {
+        Optional<EnrichedOrderResponse> stored = orderService.findResent(orderRequest);
+        if (stored.isPresent()) {
+            log.info("Order {} is already stored", orderRequest.getOrderId());
+            return SubmittedOrder.resent(stored.get());
+        }
+        EnrichedOrder order = orderService.enrich(orderRequest);
+        if (orderLog.backlogBytes() >= maxBacklogBytes) {
+            throw new ServiceUnavailableException("Too many orders are waiting to be stored.");
+        }
+        if (!statusTracker.markPending(order.getOrderId())) {
+            throw new ResourceConflictException("Order with ID '" + order.getOrderId() + "' already exists.");
+        }
+        try {
+            long offset = orderLog.append(orderWriter.writeValueAsBytes(order)).join();
+            log.debug("Accepted order {} at offset {} of the order log", order.getOrderId(), offset);
+        } catch (JsonProcessingException | CompletionException ex) {
+            statusTracker.forget(order.getOrderId());
+            throw new ServiceUnavailableException("Failed to write the order to the order log.", ex);
+        }
+        return SubmittedOrder.created(orderMapper.toApi(order));
+    }
+}
@@ -0,0 +1,23 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update).
+-- Databases created that way are baselined at this version and skip this script.
+CREATE TABLE enriched_orders (
+    order_id    VARCHAR(255) NOT NULL,
+    timestamp   TIMESTAMP(6) WITH TIME ZONE,
+    customer_id VARCHAR(255),
+    name        VARCHAR(255),
+    street      VARCHAR(255),
+    zip         VARCHAR(255),
+    country     VARCHAR(255),
+    total_price NUMERIC(38, 2),
+    CONSTRAINT enriched_orders_pkey PRIMARY KEY (order_id)
+);
+
+CREATE TABLE order_products (
+    order_id   VARCHAR(255) NOT NULL,
+    product_id VARCHAR(255),
+    name       VARCHAR(255),
+    price      NUMERIC(38, 2),
+    category   VARCHAR(255),
+    tags       VARCHAR(255),
+    CONSTRAINT fk_order_products_order FOREIGN KEY (order_id) REFERENCES enriched_orders (order_id)
+);
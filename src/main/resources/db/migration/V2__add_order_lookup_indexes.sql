@@ -0,0 +1,17 @@
+-- Built concurrently so existing tables stay writable; see the .conf file next to this script.
+
+-- Product filter: find the orders containing a product without scanning order_products
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_products_product_order
+    ON order_products (product_id, order_id);
+
+-- Loading the products of a page of orders, and the foreign key
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_products_order
+    ON order_products (order_id);
+
+-- Keyset pages of all orders
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_enriched_orders_timestamp_order
+    ON enriched_orders (timestamp, order_id);
+
+-- Customer filter, already in keyset order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_enriched_orders_customer_timestamp_order
+    ON enriched_orders (customer_id, timestamp, order_id);
@@ -0,0 +1,8 @@
+-- Precomputed API representation of each order, so point reads are one primary-key lookup
+CREATE TABLE order_documents (
+    order_id VARCHAR(255) NOT NULL,
+    version  SMALLINT     NOT NULL,
+    document JSONB        NOT NULL,
+    CONSTRAINT order_documents_pkey PRIMARY KEY (order_id),
+    CONSTRAINT fk_order_documents_order FOREIGN KEY (order_id) REFERENCES enriched_orders (order_id) ON DELETE CASCADE
+);
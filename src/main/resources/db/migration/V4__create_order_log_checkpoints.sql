@@ -0,0 +1,8 @@
+-- How far the write-behind drainer has written each node's order log into the database.
+-- Updated in the same transaction as the orders, so a restart neither skips nor repeats an entry.
+CREATE TABLE order_log_checkpoints (
+    log_id     VARCHAR(64) NOT NULL,
+    position   BIGINT      NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT order_log_checkpoints_pkey PRIMARY KEY (log_id)
+);
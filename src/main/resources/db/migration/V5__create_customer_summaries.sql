@@ -0,0 +1,24 @@
+-- Running totals per customer, updated in the same transaction as each order so a summary is one row read.
+-- category_counts maps each product category to the number of ordered products in it.
+CREATE TABLE customer_summaries (
+    customer_id     VARCHAR(255)   NOT NULL,
+    order_count     BIGINT         NOT NULL,
+    total_spend     NUMERIC(38, 2) NOT NULL,
+    first_order_at  TIMESTAMP(6) WITH TIME ZONE,
+    last_order_at   TIMESTAMP(6) WITH TIME ZONE,
+    category_counts JSONB          NOT NULL DEFAULT '{}',
+    CONSTRAINT customer_summaries_pkey PRIMARY KEY (customer_id)
+);
+
+-- Summaries of the orders stored so far; from here on they are kept up to date by the application
+INSERT INTO customer_summaries (customer_id, order_count, total_spend, first_order_at, last_order_at, category_counts)
+SELECT o.customer_id, COUNT(*), COALESCE(SUM(o.total_price), 0), MIN(o.timestamp), MAX(o.timestamp),
+       COALESCE((SELECT jsonb_object_agg(c.category, c.products)
+                 FROM (SELECT p.category, COUNT(*) AS products
+                       FROM enriched_orders co
+                       JOIN order_products p ON p.order_id = co.order_id
+                       WHERE co.customer_id = o.customer_id AND p.category IS NOT NULL
+                       GROUP BY p.category) c), '{}')
+FROM enriched_orders o
+WHERE o.customer_id IS NOT NULL
+GROUP BY o.customer_id;
@@ -0,0 +1,144 @@
+-- Range-partitions the order tables by order timestamp, one partition per calendar month (UTC), so time-window
+-- queries only read the months they cover and old months can be detached instead of deleted row by row.
+-- order_products and order_documents carry their order's timestamp and are partitioned the same way.
+-- The tables are rewritten in one transaction; on a large database this migration needs a maintenance window.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM enriched_orders WHERE timestamp IS NULL) THEN
+        RAISE EXCEPTION 'enriched_orders has rows without a timestamp; they cannot be placed in a partition';
+    END IF;
+END $$;
+
+ALTER TABLE order_documents RENAME TO order_documents_v5;
+ALTER TABLE order_products RENAME TO order_products_v5;
+ALTER TABLE enriched_orders RENAME TO enriched_orders_v5;
+
+-- A unique index of a partitioned table must contain the partition key, so order IDs are kept unique here.
+-- IDs stay registered after their partition is detached and are never accepted again.
+CREATE TABLE order_keys (
+    order_id  VARCHAR(255)                NOT NULL,
+    timestamp TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT order_keys_pkey PRIMARY KEY (order_id)
+);
+
+CREATE TABLE enriched_orders (
+    order_id    VARCHAR(255)                NOT NULL,
+    timestamp   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    customer_id VARCHAR(255),
+    name        VARCHAR(255),
+    street      VARCHAR(255),
+    zip         VARCHAR(255),
+    country     VARCHAR(255),
+    total_price NUMERIC(38, 2)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE order_products (
+    order_id        VARCHAR(255)                NOT NULL,
+    order_timestamp TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    product_id      VARCHAR(255),
+    name            VARCHAR(255),
+    price           NUMERIC(38, 2),
+    category        VARCHAR(255),
+    tags            VARCHAR(255)
+) PARTITION BY RANGE (order_timestamp);
+
+CREATE TABLE order_documents (
+    order_id        VARCHAR(255)                NOT NULL,
+    order_timestamp TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    version         SMALLINT                    NOT NULL,
+    document        JSONB                       NOT NULL
+) PARTITION BY RANGE (order_timestamp);
+
+-- Orders outside every monthly partition, e.g. dated far ahead, land here
+CREATE TABLE enriched_orders_default PARTITION OF enriched_orders DEFAULT;
+CREATE TABLE order_products_default PARTITION OF order_products DEFAULT;
+CREATE TABLE order_documents_default PARTITION OF order_documents DEFAULT;
+
+-- Creates the partitions of the month starting at month_start in all three tables, unless they exist.
+-- Also called by the application to create partitions ahead of time. Returns whether it created them.
+-- A month's rows that are already in the default partitions are moved to the new ones; Postgres refuses
+-- to create a partition whose range the default partition still holds rows of.
+CREATE FUNCTION create_order_partitions(month_start DATE) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    suffix      TEXT        := to_char(month_start, '"y"YYYY"m"MM');
+    lower_bound TIMESTAMPTZ := month_start::timestamp AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMPTZ := (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+    moved       BOOLEAN;
+BEGIN
+    IF to_regclass('enriched_orders_' || suffix) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    moved := EXISTS (SELECT 1 FROM enriched_orders_default
+                     WHERE timestamp >= lower_bound AND timestamp < upper_bound);
+    IF moved THEN
+        CREATE TEMP TABLE moved_orders AS
+            SELECT * FROM enriched_orders_default WHERE timestamp >= lower_bound AND timestamp < upper_bound;
+        CREATE TEMP TABLE moved_products AS
+            SELECT * FROM order_products_default WHERE order_timestamp >= lower_bound AND order_timestamp < upper_bound;
+        CREATE TEMP TABLE moved_documents AS
+            SELECT * FROM order_documents_default WHERE order_timestamp >= lower_bound AND order_timestamp < upper_bound;
+        DELETE FROM order_documents_default WHERE order_timestamp >= lower_bound AND order_timestamp < upper_bound;
+        DELETE FROM order_products_default WHERE order_timestamp >= lower_bound AND order_timestamp < upper_bound;
+        DELETE FROM enriched_orders_default WHERE timestamp >= lower_bound AND timestamp < upper_bound;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF enriched_orders FOR VALUES FROM (%L) TO (%L)',
+                   'enriched_orders_' || suffix, lower_bound, upper_bound);
+    EXECUTE format('CREATE TABLE %I PARTITION OF order_products FOR VALUES FROM (%L) TO (%L)',
+                   'order_products_' || suffix, lower_bound, upper_bound);
+    EXECUTE format('CREATE TABLE %I PARTITION OF order_documents FOR VALUES FROM (%L) TO (%L)',
+                   'order_documents_' || suffix, lower_bound, upper_bound);
+
+    IF moved THEN
+        INSERT INTO enriched_orders SELECT * FROM moved_orders;
+        INSERT INTO order_products SELECT * FROM moved_products;
+        INSERT INTO order_documents SELECT * FROM moved_documents;
+        DROP TABLE moved_documents, moved_products, moved_orders;
+    END IF;
+    RETURN TRUE;
+END $$;
+
+-- Every month with orders up to three months ahead
+SELECT create_order_partitions(month::date)
+FROM generate_series(
+         date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM enriched_orders_v5), now()) AT TIME ZONE 'UTC'),
+         date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months',
+         INTERVAL '1 month') AS month;
+
+INSERT INTO order_keys (order_id, timestamp)
+SELECT order_id, timestamp FROM enriched_orders_v5;
+
+INSERT INTO enriched_orders (order_id, timestamp, customer_id, name, street, zip, country, total_price)
+SELECT order_id, timestamp, customer_id, name, street, zip, country, total_price FROM enriched_orders_v5;
+
+INSERT INTO order_products (order_id, order_timestamp, product_id, name, price, category, tags)
+SELECT p.order_id, o.timestamp, p.product_id, p.name, p.price, p.category, p.tags
+FROM order_products_v5 p
+JOIN enriched_orders_v5 o ON o.order_id = p.order_id;
+
+INSERT INTO order_documents (order_id, order_timestamp, version, document)
+SELECT d.order_id, o.timestamp, d.version, d.document
+FROM order_documents_v5 d
+JOIN enriched_orders_v5 o ON o.order_id = d.order_id;
+
+DROP TABLE order_documents_v5;
+DROP TABLE order_products_v5;
+DROP TABLE enriched_orders_v5;
+
+-- Indexes and keys are defined on the parents and created on every partition, existing and future.
+-- They are added after the copy, once the names of the old tables' indexes are free again.
+ALTER TABLE enriched_orders ADD CONSTRAINT enriched_orders_pkey PRIMARY KEY (order_id, timestamp);
+CREATE INDEX idx_enriched_orders_timestamp_order ON enriched_orders (timestamp, order_id);
+CREATE INDEX idx_enriched_orders_customer_timestamp_order ON enriched_orders (customer_id, timestamp, order_id);
+
+CREATE INDEX idx_order_products_product_order ON order_products (product_id, order_id);
+CREATE INDEX idx_order_products_order ON order_products (order_id, order_timestamp);
+ALTER TABLE order_products ADD CONSTRAINT fk_order_products_order
+    FOREIGN KEY (order_id, order_timestamp) REFERENCES enriched_orders (order_id, timestamp);
+
+ALTER TABLE order_documents ADD CONSTRAINT order_documents_pkey PRIMARY KEY (order_id, order_timestamp);
+ALTER TABLE order_documents ADD CONSTRAINT fk_order_documents_order
+    FOREIGN KEY (order_id, order_timestamp) REFERENCES enriched_orders (order_id, timestamp) ON DELETE CASCADE;
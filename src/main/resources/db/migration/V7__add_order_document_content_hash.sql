@@ -0,0 +1,3 @@
+-- Hex SHA-256 of the document text as it was serialized, which is the response body of GET /orders/{orderId}.
+-- Served as the order's ETag. Documents written before this column existed get it from the document rebuild.
+ALTER TABLE order_documents ADD COLUMN content_hash VARCHAR(64);
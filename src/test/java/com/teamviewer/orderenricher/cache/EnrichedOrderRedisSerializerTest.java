@@ -0,0 +1,99 @@
+package com.teamviewer.orderenricher.cache;
+
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.config.RedisConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnrichedOrderRedisSerializerTest {
+
+    private final RedisSerializer<Object> json = RedisConfig.jsonValueSerializer();
+    private final EnrichedOrderRedisSerializer serializer = new EnrichedOrderRedisSerializer(json, 0);
+
+    @Test
+    void singleOrder_roundTrips() {
+        EnrichedOrderResponse order = order("ORD-1", 3);
+
+        Object decoded = serializer.deserialize(serializer.serialize(order));
+
+        assertThat(decoded).isEqualTo(order);
+    }
+
+    @Test
+    void orderWithNullFields_roundTrips() {
+        EnrichedOrderResponse order = new EnrichedOrderResponse().orderId("ORD-1")
+                .products(List.of(new Product().id("PROD-1")));
+
+        assertThat(serializer.deserialize(serializer.serialize(order))).isEqualTo(order);
+    }
+
+    @Test
+    void orderList_roundTripsWithCompression() {
+        EnrichedOrderRedisSerializer compressing = new EnrichedOrderRedisSerializer(json, 1024);
+        List<EnrichedOrderResponse> orders = IntStream.range(0, 50).mapToObj(i -> order("ORD-" + i, 5)).toList();
+
+        byte[] bytes = compressing.serialize(orders);
+
+        assertThat(bytes.length).isLessThan(serializer.serialize(orders).length);
+        assertThat(compressing.deserialize(bytes)).isEqualTo(orders);
+    }
+
+    @Test
+    void binaryEncoding_isMuchSmallerThanJson() {
+        List<EnrichedOrderResponse> orders = IntStream.range(0, 20).mapToObj(i -> order("ORD-" + i, 10)).toList();
+
+        assertThat(serializer.serialize(orders).length * 3).isLessThan(json.serialize(orders).length);
+    }
+
+    @Test
+    void valuesWrittenAsJson_areStillReadable() {
+        EnrichedOrderResponse order = order("ORD-1", 2);
+
+        EnrichedOrderResponse decoded = (EnrichedOrderResponse) serializer.deserialize(json.serialize(order));
+
+        assertThat(decoded.getOrderId()).isEqualTo(order.getOrderId());
+        assertThat(decoded.getTimestamp()).isAtSameInstantAs(order.getTimestamp());
+        assertThat(decoded.getProducts()).isEqualTo(order.getProducts());
+    }
+
+    @Test
+    void otherValueTypes_useFallback() {
+        Map<String, String> value = new HashMap<>(Map.of("key", "value"));
+
+        assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+    }
+
+    @Test
+    void unknownFormatVersion_decodesAsMiss() {
+        byte[] bytes = serializer.serialize(order("ORD-1", 1));
+        bytes[1] = EnrichedOrderRedisSerializer.VERSION + 1;
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    static EnrichedOrderResponse order(String orderId, int productCount) {
+        return new EnrichedOrderResponse()
+                .orderId(orderId)
+                .timestamp(OffsetDateTime.of(2025, 8, 13, 4, 1, 0, 123_000_000, ZoneOffset.ofHours(2)))
+                .customer(new Customer().id("CUST-456").name("John Doe").street("123 Main St").zip("12345").country("USA"))
+                .products(IntStream.range(0, productCount).mapToObj(i -> new Product()
+                        .id("PROD-" + i)
+                        .name("Wireless Keyboard " + i)
+                        .price(new BigDecimal("175.00"))
+                        .category("Accessories")
+                        .tags(List.of("mechanical", "bluetooth"))).toList())
+                .totalPrice(new BigDecimal("175.00").multiply(BigDecimal.valueOf(productCount)));
+    }
+}
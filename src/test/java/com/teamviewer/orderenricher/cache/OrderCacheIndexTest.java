@@ -0,0 +1,111 @@
+package com.teamviewer.orderenricher.cache;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderCacheIndexTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private SetOperations<String, String> setOperations;
+    @Mock
+    private NearCacheInvalidator nearCacheInvalidator;
+
+    private OrderCacheIndex index;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getRedis().setTimeToLive(Duration.ofMinutes(10));
+        index = new OrderCacheIndex(redisTemplate, nearCacheInvalidator, cacheProperties);
+    }
+
+    @Test
+    void register_addsKeyToIndexSetForItsFilters() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        index.register(new OrderListKey("CUST-456", null));
+
+        verify(setOperations).add("orders:index:customer:CUST-456", "customerId=CUST-456;productId=null");
+        verify(redisTemplate).expire("orders:index:customer:CUST-456", Duration.ofMinutes(10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evict_targetsOnlyIndexSetsTheOrderCanAppearIn() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("customerId=null;productId=null", "ORD-1"));
+
+        index.evict(order("ORD-1", "CUST-456", "PROD-A1", "PROD-B2"));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                "orders:index:all",
+                "orders:index:customer:CUST-456",
+                "orders:index:product:PROD-A1",
+                "orders:index:customer-product:CUST-456:PROD-A1",
+                "orders:index:product:PROD-B2",
+                "orders:index:customer-product:CUST-456:PROD-B2")), eq("orders::"), eq("ORD-1"));
+        verify(nearCacheInvalidator).invalidate("orders", List.of("customerId=null;productId=null", "ORD-1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evict_whenSeveralOrders_thenSharesOneScriptCallAndDeduplicatesIndexSets() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(List.of("ORD-1", "ORD-2"));
+
+        index.evict(List.of(order("ORD-1", "CUST-456", "PROD-A1"), order("ORD-2", "CUST-456", "PROD-A1")));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                "orders:index:all",
+                "orders:index:customer:CUST-456",
+                "orders:index:product:PROD-A1",
+                "orders:index:customer-product:CUST-456:PROD-A1")), eq("orders::"), eq("ORD-1"), eq("ORD-2"));
+        verify(nearCacheInvalidator).invalidate("orders", List.of("ORD-1", "ORD-2"));
+    }
+
+    @Test
+    void indexKey_isDistinctPerFilterCombination() {
+        assertThat(List.of(
+                OrderCacheIndex.indexKey(new OrderListKey(null, null)),
+                OrderCacheIndex.indexKey(new OrderListKey("C", null)),
+                OrderCacheIndex.indexKey(new OrderListKey(null, "P")),
+                OrderCacheIndex.indexKey(new OrderListKey("C", "P"))))
+                .doesNotHaveDuplicates();
+    }
+
+    private static EnrichedOrder order(String orderId, String customerId, String... productIds) {
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId(customerId);
+        order.setCustomer(customer);
+        order.setProducts(Arrays.stream(productIds).map(productId -> {
+            ProductInfo product = new ProductInfo();
+            product.setProductId(productId);
+            return product;
+        }).toList());
+        return order;
+    }
+}
@@ -0,0 +1,98 @@
+package com.teamviewer.orderenricher.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCache remote;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private NearCacheInvalidator invalidator;
+    private TwoTierCache cache;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("orders");
+        local = Caffeine.newBuilder().maximumSize(100).build();
+        invalidator = new NearCacheInvalidator(redisTemplate);
+        cache = new TwoTierCache(remote, local, invalidator, meterRegistry);
+    }
+
+    @Test
+    void whenEntryLoadedFromRemote_thenServedFromLocalAfterwards() {
+        remote.put("ORD-1", "order");
+
+        assertThat(cache.get("ORD-1").get()).isEqualTo("order");
+        remote.evict("ORD-1");
+
+        assertThat(cache.get("ORD-1").get()).isEqualTo("order");
+    }
+
+    @Test
+    void whenListKeyCached_thenLocalUsesItsStringForm() {
+        cache.put(new OrderListKey("CUST-1", null), List.of("order"));
+
+        assertThat(local.getIfPresent("customerId=CUST-1;productId=null")).isEqualTo(List.of("order"));
+    }
+
+    @Test
+    void whenEvicted_thenDropsBothTiersAndBroadcasts() {
+        cache.put("ORD-1", "order");
+
+        cache.evict("ORD-1");
+
+        assertThat(cache.get("ORD-1")).isNull();
+        verify(redisTemplate).convertAndSend(eq(NearCacheInvalidator.CHANNEL), anyString());
+    }
+
+    @Test
+    void whenOtherNodeInvalidates_thenLocalEntryIsDropped() {
+        cache.put("ORD-1", "order");
+        remote.evict("ORD-1");
+
+        String body = "other-node\norders\nORD-1";
+        invalidator.onMessage(new DefaultMessage(NearCacheInvalidator.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.get("ORD-1")).isNull();
+    }
+
+    @Test
+    void whenLookedUp_thenCountsHitsAndMissesPerTier() {
+        remote.put("ORD-1", "order");
+
+        cache.get("ORD-1");
+        cache.get("ORD-1");
+        cache.get("ORD-2");
+
+        assertThat(gets("near", "hit")).isEqualTo(1);
+        assertThat(gets("near", "miss")).isEqualTo(2);
+        assertThat(gets("redis", "hit")).isEqualTo(1);
+        assertThat(gets("redis", "miss")).isEqualTo(1);
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.get("cache.tiered.gets").tag("tier", tier).tag("result", result).counter().count();
+    }
+}
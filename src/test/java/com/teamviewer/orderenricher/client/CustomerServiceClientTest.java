@@ -1,18 +1,25 @@
 package com.teamviewer.orderenricher.client;
 
 import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.config.HedgingProperties;
 import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
 import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
@@ -23,6 +30,12 @@ class CustomerServiceClientTest {
 
     @Mock
     private RestTemplate restTemplate;
+    @Spy
+    private DownstreamGuard guard = new DownstreamGuard("Customer service", Bulkhead.ofDefaults("customer-service"),
+            CircuitBreaker.ofDefaults("customer-service"), new SimpleMeterRegistry());
+    @Spy
+    private RequestHedger hedger = new RequestHedger("Customer service", "customer-service",
+            new HedgingProperties(false, 95, Duration.ofMillis(5), 0.05, 10, 1000, 100), new SimpleMeterRegistry());
 
     @InjectMocks
     private CustomerServiceClient client;
@@ -0,0 +1,170 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownstreamGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.of("product-service", CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build());
+    private final Bulkhead bulkhead = Bulkhead.of("product-service", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private final DownstreamGuard guard = new DownstreamGuard("Product service", bulkhead, circuitBreaker, meterRegistry);
+
+    @Test
+    void whenFailureRateExceedsThreshold_thenFailsFastWithoutCallingDownstream() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                throw new ServiceUnavailableException("Product service is currently unavailable.");
+            })).isInstanceOf(ServiceUnavailableException.class);
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> guard.call(calls::incrementAndGet))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessage("Product service is currently unavailable.");
+
+        assertThat(calls).hasValue(0);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(rejections("circuit-breaker")).isEqualTo(1);
+    }
+
+    @Test
+    void whenDownstreamReportsUnknownIds_thenBreakerStaysClosed() {
+        for (int i = 0; i < 8; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                throw new ResourceNotFoundException("Product with ID 'PROD-X' not found.");
+            })).isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void whenBulkheadIsFull_thenRejectsAdditionalCalls() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> occupying = CompletableFuture.supplyAsync(() -> guard.call(() -> {
+            started.countDown();
+            await(release);
+            return "done";
+        }));
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> guard.call(() -> "second"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessage("Product service has too many calls in flight.");
+
+        release.countDown();
+        assertThat(occupying.get(1, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(guard.call(() -> "after")).isEqualTo("after");
+        assertThat(rejections("bulkhead")).isEqualTo(1);
+    }
+
+    @Test
+    void whenReactiveCallsFail_thenBreakerOpensAndLaterCallsAreNotSubscribed() {
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(guard.call(Mono.error(new ServiceUnavailableException("Product service is currently unavailable."))))
+                    .expectError(ServiceUnavailableException.class)
+                    .verify();
+        }
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        StepVerifier.create(guard.call(Mono.fromSupplier(subscriptions::incrementAndGet)))
+                .expectErrorMessage("Product service is currently unavailable.")
+                .verify();
+
+        assertThat(subscriptions).hasValue(0);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void whenReactiveCallIsPending_thenHoldsBulkheadUntilItCompletes() {
+        Sinks.One<String> pending = Sinks.one();
+        CompletableFuture<String> occupying = guard.call(pending.asMono()).toFuture();
+
+        StepVerifier.create(guard.call(Mono.just("second")))
+                .expectErrorMessage("Product service has too many calls in flight.")
+                .verify();
+
+        pending.tryEmitValue("done");
+        assertThat(occupying).isCompletedWithValue("done");
+        StepVerifier.create(guard.call(Mono.just("after"))).expectNext("after").verifyComplete();
+        assertThat(rejections("bulkhead")).isEqualTo(1);
+    }
+
+    @Test
+    void whenReactiveCallIsCancelled_thenReleasesBulkheadWithoutRecordingFailure() {
+        StepVerifier.create(guard.call(Mono.never()))
+                .thenCancel()
+                .verify();
+
+        StepVerifier.create(guard.call(Mono.just("after"))).expectNext("after").verifyComplete();
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    @Test
+    void whenCallsFail_thenCountsErrorsByType() {
+        assertThatThrownBy(() -> guard.call(() -> {
+            throw new ResourceNotFoundException("Product with ID 'PROD-X' not found.");
+        })).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> guard.call(() -> {
+            throw new ServiceUnavailableException("Product service returned a client error.",
+                    HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null));
+        })).isInstanceOf(ServiceUnavailableException.class);
+        StepVerifier.create(guard.call(Mono.error(new ServiceUnavailableException("Product service is currently unavailable.",
+                        new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"))))))
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        assertThat(errors("not-found")).isEqualTo(1);
+        assertThat(errors("client-error")).isEqualTo(1);
+        assertThat(errors("timeout")).isEqualTo(1);
+        assertThat(errors("unavailable")).isZero();
+    }
+
+    private double errors(String type) {
+        return meterRegistry.get("downstream.errors").tag("type", type).counter().count();
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("downstream.calls.rejected").tag("reason", reason).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.teamviewer.orderenricher.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.config.HedgingProperties;
+import com.teamviewer.orderenricher.config.HttpClientProperties;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the product client against WireMock delay and fault stubs to check timeouts, the circuit breaker
+ * and hedging end to end.
+ */
+class DownstreamResilienceTest {
+
+    private static final HangEveryNth hangEvery = new HangEveryNth();
+    private static final WireMockServer wireMock = new WireMockServer(options().dynamicPort().containerThreads(64)
+            .extensions(hangEvery));
+
+    private final PooledHttpClient httpClient = httpClient(Duration.ofMillis(300));
+    private CircuitBreaker circuitBreaker;
+    private ProductServiceClient client;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMock.start();
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        wireMock.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMock.resetAll();
+        circuitBreaker = CircuitBreaker.of("product-service", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofMillis(100))
+                .slowCallRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        DownstreamGuard guard = new DownstreamGuard("Product service", Bulkhead.ofDefaults("product-service"),
+                circuitBreaker, new SimpleMeterRegistry());
+        client = new ProductServiceClient(new RestTemplate(httpClient.requestFactory()), guard, unhedged(), wireMock.baseUrl());
+    }
+
+    @AfterEach
+    void closeHttpClient() {
+        httpClient.close();
+    }
+
+    @Test
+    void whenServiceHangs_thenCallFailsAtReadTimeout() {
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-SLOW"))
+                .willReturn(okJson("{\"id\":\"PROD-SLOW\"}").withFixedDelay(5_000)));
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> client.getProductById("PROD-SLOW"))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+    }
+
+    @Test
+    void whenServiceResetsConnections_thenBreakerOpensAndLaterCallsNeverLeave() {
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-FAULT"))
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.getProductById("PROD-FAULT")).isInstanceOf(ServiceUnavailableException.class);
+        }
+        int requestsBeforeOpen = wireMock.findAll(getRequestedFor(urlEqualTo("/products/PROD-FAULT"))).size();
+
+        assertThatThrownBy(() -> client.getProductById("PROD-FAULT"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessage("Product service is currently unavailable.");
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        wireMock.verify(requestsBeforeOpen, getRequestedFor(urlEqualTo("/products/PROD-FAULT")));
+    }
+
+    @Test
+    void whenServiceAnswersSlowly_thenSlowCallsOpenBreaker() {
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-A1"))
+                .willReturn(okJson("{\"id\":\"PROD-A1\",\"price\":10.00}").withFixedDelay(150)));
+        for (int i = 0; i < 4; i++) {
+            Product product = client.getProductById("PROD-A1");
+            assertThat(product.getId()).isEqualTo("PROD-A1");
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> client.getProductById("PROD-A1")).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void whenSomeCallsHang_thenHedgesAnswerThemInTime() {
+        hangEvery.reset(20);
+        wireMock.stubFor(get(urlPathMatching("/products/PROD-.*"))
+                .willReturn(okJson("{\"id\":\"PROD-A1\",\"price\":10.00}").withTransformers(HangEveryNth.NAME)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Hedge after 100 ms at the earliest, which answered calls never take, and always have a hedge to spend
+        HedgingProperties properties = new HedgingProperties(true, 90, Duration.ofMillis(100), 1.0, 50, 500, 50);
+        try (RequestHedger hedger = new RequestHedger("Product service", "product-service", properties, meterRegistry);
+             PooledHttpClient patientHttpClient = httpClient(Duration.ofSeconds(10))) {
+            ProductServiceClient hedgedClient = new ProductServiceClient(new RestTemplate(patientHttpClient.requestFactory()),
+                    guard(), hedger, wireMock.baseUrl());
+            // The first calls fill the hedger's latency window and are not hedged
+            for (int i = 0; i < properties.minSamples(); i++) {
+                hedgedClient.getProductById("PROD-A1");
+            }
+            long hungBefore = hangEvery.hung();
+
+            long slowest = 0;
+            for (int i = 0; i < 200; i++) {
+                long start = System.nanoTime();
+                hedgedClient.getProductById("PROD-A1");
+                slowest = Math.max(slowest, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+
+            long hung = hangEvery.hung() - hungBefore;
+            assertThat(hung).isGreaterThanOrEqualTo(9);
+            assertThat(hedges(meterRegistry, "sent")).isGreaterThanOrEqualTo(hung);
+            assertThat(hedges(meterRegistry, "won")).isGreaterThanOrEqualTo(hung);
+            assertThat(hedges(meterRegistry, "over-budget")).isZero();
+            assertThat(slowest).isLessThan(HangEveryNth.HANG.toMillis() / 2);
+        }
+    }
+
+    private static DownstreamGuard guard() {
+        return new DownstreamGuard("Product service", Bulkhead.ofDefaults("product-service"),
+                CircuitBreaker.ofDefaults("product-service"), new SimpleMeterRegistry());
+    }
+
+    private static long hedges(SimpleMeterRegistry meterRegistry, String outcome) {
+        return (long) meterRegistry.get("downstream.hedges." + outcome).counter().count();
+    }
+
+    private static RequestHedger unhedged() {
+        HedgingProperties properties = new HedgingProperties(false, 95, Duration.ofMillis(5), 0.05, 10, 1000, 100);
+        return new RequestHedger("Product service", "product-service", properties, new SimpleMeterRegistry());
+    }
+
+    private static PooledHttpClient httpClient(Duration readTimeout) {
+        HttpClientProperties.Spec spec = new HttpClientProperties.Spec(Duration.ofMillis(200), readTimeout, 64,
+                Duration.ofMillis(100), Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(2));
+        return new PooledHttpClient("product-service", spec, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Holds back every nth response by {@link #HANG}, counting requests as they arrive. A hedge is the request right
+     * after the one it hedges, so it always answers at once.
+     */
+    private static final class HangEveryNth implements ResponseDefinitionTransformerV2 {
+
+        static final String NAME = "hang-every-nth";
+        static final Duration HANG = Duration.ofSeconds(1);
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hung = new AtomicLong();
+        private volatile int every;
+
+        void reset(int every) {
+            this.every = every;
+            requests.set(0);
+            hung.set(0);
+        }
+
+        long hung() {
+            return hung.get();
+        }
+
+        @Override
+        public ResponseDefinition transform(ServeEvent serveEvent) {
+            if (requests.incrementAndGet() % every != 0) {
+                return serveEvent.getResponseDefinition();
+            }
+            hung.incrementAndGet();
+            return ResponseDefinitionBuilder.like(serveEvent.getResponseDefinition())
+                    .withFixedDelay((int) HANG.toMillis())
+                    .build();
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+    }
+}
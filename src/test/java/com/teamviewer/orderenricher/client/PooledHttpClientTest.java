@@ -0,0 +1,95 @@
+package com.teamviewer.orderenricher.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.teamviewer.orderenricher.config.HttpClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledHttpClientTest {
+
+    private static final WireMockServer wireMock = new WireMockServer(options().dynamicPort());
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PooledHttpClient httpClient;
+    private RestTemplate restTemplate;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMock.start();
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        wireMock.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMock.resetAll();
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-A1")).willReturn(okJson("{\"id\":\"PROD-A1\"}")));
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-SLOW")).willReturn(okJson("{\"id\":\"PROD-SLOW\"}").withFixedDelay(1_000)));
+        HttpClientProperties.Spec spec = new HttpClientProperties.Spec(Duration.ofSeconds(1), Duration.ofSeconds(2), 1,
+                Duration.ofMillis(100), Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(2));
+        httpClient = new PooledHttpClient("product-service", spec, meterRegistry);
+        restTemplate = new RestTemplate(httpClient.requestFactory());
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+    }
+
+    @Test
+    void whenCallsFollowEachOther_thenTheyShareOneConnection() {
+        for (int i = 0; i < 20; i++) {
+            restTemplate.getForObject(wireMock.baseUrl() + "/products/PROD-A1", String.class);
+        }
+
+        assertThat(meterRegistry.get("http.client.connections.created").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.client.pool.leases").counter().count()).isEqualTo(20);
+        assertThat(meterRegistry.get("http.client.connections.reuse").gauge().value()).isEqualTo(0.95);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("state", "available").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void whenPoolIsExhausted_thenCallFailsAfterPoolWait() {
+        CompletableFuture<String> slowCall = CompletableFuture.supplyAsync(
+                () -> restTemplate.getForObject(wireMock.baseUrl() + "/products/PROD-SLOW", String.class));
+        awaitLeased();
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> restTemplate.getForObject(wireMock.baseUrl() + "/products/PROD-A1", String.class))
+                .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(900);
+        assertThat(meterRegistry.get("http.client.pool.wait").timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(100);
+        assertThat(slowCall.join()).contains("PROD-SLOW");
+    }
+
+    private void awaitLeased() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (meterRegistry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "leased").gauge().value() < 1
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
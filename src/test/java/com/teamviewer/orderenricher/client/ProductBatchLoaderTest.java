@@ -0,0 +1,135 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBatchLoaderTest {
+
+    @Mock
+    private ProductServiceClient productClient;
+
+    private ProductBatchLoader loader;
+
+    @AfterEach
+    void tearDown() {
+        loader.shutdown();
+    }
+
+    @Test
+    void whenSameIdsRequestedConcurrently_thenIssuesOneDeduplicatedBulkCall() {
+        loader = new ProductBatchLoader(productClient, true, 50, 10, 60_000);
+        when(productClient.getProductsByIds(any())).thenReturn(Map.of(
+                "PROD-A1", new Product().id("PROD-A1"),
+                "PROD-B2", new Product().id("PROD-B2")));
+
+        List<CompletableFuture<Product>> futures = List.of(
+                loader.load("PROD-A1"), loader.load("PROD-B2"), loader.load("PROD-A1"));
+
+        assertThat(futures).extracting(CompletableFuture::join).extracting(Product::getId)
+                .containsExactly("PROD-A1", "PROD-B2", "PROD-A1");
+        verify(productClient, times(1)).getProductsByIds(Set.of("PROD-A1", "PROD-B2"));
+    }
+
+    @Test
+    void whenBatchIsFull_thenDispatchesWithoutWaitingForWindow() {
+        loader = new ProductBatchLoader(productClient, true, 60_000, 2, 60_000);
+        when(productClient.getProductsByIds(any())).thenReturn(Map.of(
+                "PROD-A1", new Product().id("PROD-A1"),
+                "PROD-B2", new Product().id("PROD-B2")));
+
+        CompletableFuture<Product> first = loader.load("PROD-A1");
+        CompletableFuture<Product> second = loader.load("PROD-B2");
+
+        assertThat(second.join().getId()).isEqualTo("PROD-B2");
+        assertThat(first.join().getId()).isEqualTo("PROD-A1");
+    }
+
+    @Test
+    void whenIdMissingFromBulkResponse_thenFailsOnlyThatId() {
+        loader = new ProductBatchLoader(productClient, true, 50, 10, 60_000);
+        when(productClient.getProductsByIds(any())).thenReturn(Map.of("PROD-A1", new Product().id("PROD-A1")));
+
+        CompletableFuture<Product> found = loader.load("PROD-A1");
+        CompletableFuture<Product> missing = loader.load("PROD-X9");
+
+        assertThat(found.join().getId()).isEqualTo("PROD-A1");
+        CompletionException ex = assertThrows(CompletionException.class, missing::join);
+        assertThat(ex.getCause()).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void whenBulkUnsupported_thenFallsBackToPerIdCalls() {
+        loader = new ProductBatchLoader(productClient, true, 50, 10, 60_000);
+        when(productClient.getProductsByIds(any()))
+                .thenThrow(new BulkLookupUnsupportedException("unsupported", new HttpClientErrorException(NOT_FOUND)));
+        when(productClient.getProductById("PROD-A1")).thenReturn(new Product().id("PROD-A1"));
+        when(productClient.getProductById("PROD-B2")).thenReturn(new Product().id("PROD-B2"));
+
+        CompletableFuture<Product> first = loader.load("PROD-A1");
+        CompletableFuture<Product> second = loader.load("PROD-B2");
+
+        assertThat(first.join().getId()).isEqualTo("PROD-A1");
+        assertThat(second.join().getId()).isEqualTo("PROD-B2");
+
+        // Until the retry interval has passed, later batches go out per ID as well
+        CompletableFuture<Product> third = loader.load("PROD-A1");
+        CompletableFuture<Product> fourth = loader.load("PROD-B2");
+
+        assertThat(third.join().getId()).isEqualTo("PROD-A1");
+        assertThat(fourth.join().getId()).isEqualTo("PROD-B2");
+        verify(productClient, times(1)).getProductsByIds(any());
+    }
+
+    @Test
+    void whenBulkWasRefusedAndRetryIntervalPassed_thenProbesBulkAgain() {
+        loader = new ProductBatchLoader(productClient, true, 50, 10, 0);
+        when(productClient.getProductsByIds(any()))
+                .thenThrow(new BulkLookupUnsupportedException("unsupported", new HttpClientErrorException(NOT_FOUND)))
+                .thenReturn(Map.of(
+                        "PROD-A1", new Product().id("PROD-A1"),
+                        "PROD-B2", new Product().id("PROD-B2")));
+        when(productClient.getProductById("PROD-A1")).thenReturn(new Product().id("PROD-A1"));
+        when(productClient.getProductById("PROD-B2")).thenReturn(new Product().id("PROD-B2"));
+
+        CompletableFuture.allOf(loader.load("PROD-A1"), loader.load("PROD-B2")).join();
+        CompletableFuture<Product> afterRetry = loader.load("PROD-A1");
+        loader.load("PROD-B2");
+
+        assertThat(afterRetry.join().getId()).isEqualTo("PROD-A1");
+        verify(productClient, times(2)).getProductsByIds(any());
+    }
+
+    @Test
+    void whenCallerCancels_thenOtherWaitersStillReceiveProduct() {
+        loader = new ProductBatchLoader(productClient, true, 50, 10, 60_000);
+        when(productClient.getProductsByIds(any())).thenReturn(Map.of(
+                "PROD-A1", new Product().id("PROD-A1"),
+                "PROD-B2", new Product().id("PROD-B2")));
+
+        CompletableFuture<Product> cancelled = loader.load("PROD-A1");
+        CompletableFuture<Product> other = loader.load("PROD-A1");
+        loader.load("PROD-B2");
+        cancelled.cancel(true);
+
+        assertThat(other.join().getId()).isEqualTo("PROD-A1");
+    }
+}
@@ -1,18 +1,28 @@
 package com.teamviewer.orderenricher.client;
 
 import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.config.HedgingProperties;
 import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
 import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
@@ -23,6 +33,12 @@ class ProductServiceClientTest {
 
     @Mock
     private RestTemplate restTemplate;
+    @Spy
+    private DownstreamGuard guard = new DownstreamGuard("Product service", Bulkhead.ofDefaults("product-service"),
+            CircuitBreaker.ofDefaults("product-service"), new SimpleMeterRegistry());
+    @Spy
+    private RequestHedger hedger = new RequestHedger("Product service", "product-service",
+            new HedgingProperties(false, 95, Duration.ofMillis(5), 0.05, 10, 1000, 100), new SimpleMeterRegistry());
 
     @InjectMocks
     private ProductServiceClient client;
@@ -83,4 +99,43 @@ class ProductServiceClientTest {
             client.getProductById(productId);
         });
     }
+
+    @Test
+    void whenBulkLookupSucceeds_thenReturnsProductsById() {
+        ReflectionTestUtils.setField(client, "productServiceUrl", "http://test-url");
+        URI uri = URI.create("http://test-url/products?ids=PROD-1&ids=PROD-2&ids=PROD-3");
+        Product[] products = {new Product().id("PROD-1"), new Product().id("PROD-2")};
+
+        when(restTemplate.getForObject(uri, Product[].class)).thenReturn(products);
+
+        Map<String, Product> result = client.getProductsByIds(List.of("PROD-1", "PROD-2", "PROD-3"));
+
+        assertThat(result).containsOnlyKeys("PROD-1", "PROD-2");
+    }
+
+    @Test
+    void whenIdContainsSeparators_thenItStaysOneParameter() {
+        ReflectionTestUtils.setField(client, "productServiceUrl", "http://test-url");
+        URI uri = URI.create("http://test-url/products?ids=PROD,1&ids=PROD%262");
+        Product[] products = {new Product().id("PROD,1"), new Product().id("PROD&2")};
+
+        when(restTemplate.getForObject(uri, Product[].class)).thenReturn(products);
+
+        Map<String, Product> result = client.getProductsByIds(List.of("PROD,1", "PROD&2"));
+
+        assertThat(result).containsOnlyKeys("PROD,1", "PROD&2");
+    }
+
+    @Test
+    void whenBulkEndpointMissing_thenThrowsBulkLookupUnsupportedException() {
+        ReflectionTestUtils.setField(client, "productServiceUrl", "http://test-url");
+        URI uri = URI.create("http://test-url/products?ids=PROD-1");
+
+        when(restTemplate.getForObject(uri, Product[].class))
+                .thenThrow(new HttpClientErrorException(METHOD_NOT_ALLOWED));
+
+        assertThrows(BulkLookupUnsupportedException.class, () -> {
+            client.getProductsByIds(List.of("PROD-1"));
+        });
+    }
 }
\ No newline at end of file
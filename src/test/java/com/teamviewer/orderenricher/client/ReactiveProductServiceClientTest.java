@@ -0,0 +1,98 @@
+package com.teamviewer.orderenricher.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.teamviewer.orderenricher.config.HttpClientProperties;
+import com.teamviewer.orderenricher.config.ReactiveConfig;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveProductServiceClientTest {
+
+    private static final WireMockServer wireMock = new WireMockServer(options().dynamicPort());
+    private static final HttpClientProperties.Spec SPEC = new HttpClientProperties.Spec(Duration.ofSeconds(1),
+            Duration.ofSeconds(2), 8, Duration.ofMillis(100), Duration.ofSeconds(30), Duration.ofSeconds(30),
+            Duration.ofMinutes(5), Duration.ofSeconds(2));
+    private static ConnectionProvider connectionProvider;
+
+    private ReactiveProductServiceClient client;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMock.start();
+        connectionProvider = ReactiveConfig.connectionProvider("product-service", SPEC);
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        connectionProvider.dispose();
+        wireMock.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMock.resetAll();
+        DownstreamGuard guard = new DownstreamGuard("Product service", Bulkhead.ofDefaults("product-service"),
+                CircuitBreaker.ofDefaults("product-service"), new SimpleMeterRegistry());
+        WebClient webClient = ReactiveConfig.webClient(WebClient.builder(), connectionProvider, SPEC, wireMock.baseUrl());
+        client = new ReactiveProductServiceClient(webClient, guard);
+    }
+
+    @Test
+    void whenProductExists_thenReturnsIt() {
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-A1")).willReturn(okJson("{\"id\":\"PROD-A1\",\"name\":\"Laptop\"}")));
+
+        StepVerifier.create(client.getProductById("PROD-A1"))
+                .assertNext(product -> assertThat(product.getName()).isEqualTo("Laptop"))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenProductIsUnknown_thenFailsWithNotFound() {
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-X")).willReturn(aResponse().withStatus(404)));
+
+        StepVerifier.create(client.getProductById("PROD-X"))
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                        .isInstanceOf(ResourceNotFoundException.class)
+                        .hasMessage("Product with ID 'PROD-X' not found."))
+                .verify();
+    }
+
+    @Test
+    void whenServiceRejectsRequest_thenFailsWithClientError() {
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-A1")).willReturn(aResponse().withStatus(400)));
+
+        StepVerifier.create(client.getProductById("PROD-A1"))
+                .expectErrorMessage("Product service returned a client error.")
+                .verify();
+    }
+
+    @Test
+    void whenServiceIsTooSlow_thenFailsWithUnavailable() {
+        wireMock.stubFor(get(urlEqualTo("/products/PROD-A1")).willReturn(okJson("{\"id\":\"PROD-A1\"}").withFixedDelay(5_000)));
+
+        StepVerifier.create(client.getProductById("PROD-A1"))
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                        .isInstanceOf(ServiceUnavailableException.class)
+                        .hasMessage("Product service is currently unavailable."))
+                .verify(Duration.ofSeconds(4));
+    }
+}
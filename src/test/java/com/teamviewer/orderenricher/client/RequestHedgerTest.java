@@ -0,0 +1,97 @@
+package com.teamviewer.orderenricher.client;
+
+import com.teamviewer.orderenricher.config.HedgingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestHedgerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RequestHedger hedger;
+
+    @AfterEach
+    void tearDown() {
+        hedger.close();
+    }
+
+    @Test
+    void whenCallIsSlowerThanRecentCalls_thenHedgeAnswersAndSlowCallIsInterrupted() throws Exception {
+        hedger = hedger(true, 1.0);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch slowCallInterrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        String result = hedger.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException ex) {
+                    slowCallInterrupted.countDown();
+                }
+                return "original";
+            }
+            return "hedge";
+        });
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        assertThat(slowCallInterrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.counter("downstream.hedges.won", "downstream", "test-service").count()).isEqualTo(1);
+    }
+
+    @Test
+    void whenBudgetIsSpent_thenWaitsForOriginalCall() {
+        hedger = hedger(true, 0);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.call(() -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            return "original";
+        });
+
+        assertThat(result).isEqualTo("original");
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.counter("downstream.hedges.over-budget", "downstream", "test-service").count()).isEqualTo(1);
+    }
+
+    @Test
+    void whenDisabled_thenRunsCallOnCallingThread() {
+        hedger = hedger(false, 1.0);
+        Thread caller = Thread.currentThread();
+
+        Thread ranOn = hedger.call(Thread::currentThread);
+
+        assertThat(ranOn).isSameAs(caller);
+    }
+
+    private RequestHedger hedger(boolean enabled, double budget) {
+        HedgingProperties properties = new HedgingProperties(enabled, 50, Duration.ofMillis(20), budget, 10, 10, 5);
+        return new RequestHedger("Test service", "test-service", properties, meterRegistry);
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 5; i++) {
+            hedger.call(() -> "fast");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.teamviewer.orderenricher.exception.RestExceptionHandler;
+import com.teamviewer.orderenricher.service.BulkOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class BulkOrdersControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BulkOrderService bulkOrderService;
+
+    @InjectMocks
+    private BulkOrdersController bulkOrdersController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(bulkOrdersController)
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void whenPostNdjson_thenStreamsResultsFromService() throws Exception {
+        doAnswer(invocation -> {
+            InputStream in = invocation.getArgument(0);
+            OutputStream out = invocation.getArgument(1);
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            out.write(("{\"line\":1,\"status\":201,\"lines\":" + body.lines().count() + "}\n").getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bulkOrderService).ingest(any(), any());
+
+        mockMvc.perform(post("/v1/orders:bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"orderId\":\"ORD-1\"}\n{\"orderId\":\"ORD-2\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"line\":1,\"status\":201,\"lines\":2}\n"));
+    }
+
+    @Test
+    void whenPostJson_thenRejectsUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/v1/orders:bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,57 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.teamviewer.orderenricher.api.model.CustomerSummary;
+import com.teamviewer.orderenricher.exception.RestExceptionHandler;
+import com.teamviewer.orderenricher.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class CustomersApiControllerImplTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new CustomersApiControllerImpl(orderService))
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void whenCustomerHasOrders_thenReturnsSummary() throws Exception {
+        CustomerSummary summary = new CustomerSummary("CUST-456", 3L, new BigDecimal("42.50"), Map.of("Books", 4L));
+        when(orderService.getCustomerSummary("CUST-456")).thenReturn(Optional.of(summary));
+
+        mockMvc.perform(get("/v1/customers/CUST-456/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount").value(3))
+                .andExpect(jsonPath("$.totalSpend").value(42.5))
+                .andExpect(jsonPath("$.categoryCounts.Books").value(4));
+    }
+
+    @Test
+    void whenCustomerHasNoOrders_thenReturnsNotFound() throws Exception {
+        when(orderService.getCustomerSummary("CUST-456")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/v1/customers/CUST-456/summary"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -2,28 +2,40 @@ package com.teamviewer.orderenricher.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
+import com.teamviewer.orderenricher.config.OrderPageProperties;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
 import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
 import com.teamviewer.orderenricher.exception.RestExceptionHandler;
 import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.service.OrderCursor;
 import com.teamviewer.orderenricher.service.OrderService;
+import com.teamviewer.orderenricher.service.SubmittedOrder;
+import com.teamviewer.orderenricher.writebehind.WriteBehindOrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,14 +46,18 @@ class OrdersApiControllerImplTest {
 
     @Mock
     private OrderService orderService;
+    @Mock
+    private ObjectProvider<WriteBehindOrderService> writeBehindProvider;
+    @Mock
+    private WriteBehindOrderService writeBehindOrderService;
 
-    @InjectMocks
     private OrdersApiControllerImpl ordersApiController;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
+        ordersApiController = new OrdersApiControllerImpl(orderService, new OrderPageProperties(2, 5), writeBehindProvider);
         mockMvc = MockMvcBuilders.standaloneSetup(ordersApiController)
                 .setControllerAdvice(new RestExceptionHandler())
                 .build();
@@ -50,7 +66,7 @@ class OrdersApiControllerImplTest {
     @Test
     void whenCreateOrder_thenReturnsCreated() throws Exception {
         // Arrange
-        when(orderService.createOrder(any())).thenReturn(new EnrichedOrderResponse());
+        when(orderService.createOrder(any())).thenReturn(SubmittedOrder.created(new EnrichedOrderResponse()));
         String orderRequestJson = "{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"]}";
 
         // Act & Assert
@@ -60,6 +76,92 @@ class OrdersApiControllerImplTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void whenCreateOrder_andOrderIsResent_thenReturnsOk() throws Exception {
+        // Arrange
+        when(orderService.createOrder(any())).thenReturn(SubmittedOrder.resent(new EnrichedOrderResponse().orderId("ORD-123")));
+        String orderRequestJson = "{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId").value("ORD-123"));
+    }
+
+    @Test
+    void whenCreateOrder_andClientPrefersAsync_thenReturnsAcceptedWithStatusLocation() throws Exception {
+        // Arrange
+        when(writeBehindProvider.getIfAvailable()).thenReturn(writeBehindOrderService);
+        when(writeBehindOrderService.acceptOrder(any())).thenReturn(SubmittedOrder.created(new EnrichedOrderResponse().orderId("ORD-123")));
+        String orderRequestJson = "{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/orders")
+                        .header("Prefer", "wait=5, respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequestJson))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/v1/orders/ORD-123/status"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.orderId").value("ORD-123"));
+        verify(orderService, never()).createOrder(any());
+    }
+
+    @Test
+    void whenCreateOrder_andClientPrefersAsyncButOrderIsStored_thenReturnsOk() throws Exception {
+        // Arrange
+        when(writeBehindProvider.getIfAvailable()).thenReturn(writeBehindOrderService);
+        when(writeBehindOrderService.acceptOrder(any())).thenReturn(SubmittedOrder.resent(new EnrichedOrderResponse().orderId("ORD-123")));
+        String orderRequestJson = "{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/orders")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequestJson))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Preference-Applied"))
+                .andExpect(jsonPath("$.orderId").value("ORD-123"));
+    }
+
+    @Test
+    void whenCreateOrder_andClientPrefersAsyncButWriteBehindIsDisabled_thenReturnsCreated() throws Exception {
+        // Arrange
+        when(orderService.createOrder(any())).thenReturn(SubmittedOrder.created(new EnrichedOrderResponse()));
+        String orderRequestJson = "{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/orders")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequestJson))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void whenGetOrderStatus_andOrderIsPending_thenReturnsOk() throws Exception {
+        // Arrange
+        when(orderService.getOrderStatus("ORD-123")).thenReturn(
+                Optional.of(new OrderStatusResponse("ORD-123", OrderStatusResponse.StatusEnum.PENDING)));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders/{orderId}/status", "ORD-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void whenGetOrderStatus_andOrderIsUnknown_thenReturnsNotFound() throws Exception {
+        // Arrange
+        when(orderService.getOrderStatus("ORD-999")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders/{orderId}/status", "ORD-999"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void whenGetOrderById_andOrderExists_thenReturnsOk() throws Exception {
         // Arrange
@@ -72,6 +174,30 @@ class OrdersApiControllerImplTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGetOrderById_andOrderHasEtag_thenSendsIt() throws Exception {
+        // Arrange
+        when(orderService.getOrderEtag("ORD-123")).thenReturn(Optional.of("abc123"));
+        when(orderService.getOrderById("ORD-123")).thenReturn(Optional.of(new EnrichedOrderResponse().orderId("ORD-123")));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders/{orderId}", "ORD-123").header("If-None-Match", "\"outdated\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"abc123\""));
+    }
+
+    @Test
+    void whenGetOrderById_andIfNoneMatchNamesCurrentEtag_thenReturnsNotModifiedWithoutReadingOrder() throws Exception {
+        // Arrange
+        when(orderService.getOrderEtag("ORD-123")).thenReturn(Optional.of("abc123"));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders/{orderId}", "ORD-123").header("If-None-Match", "\"other\", W/\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"abc123\""));
+        verify(orderService, never()).getOrderById(anyString());
+    }
+
     @Test
     void whenGetOrderById_andOrderNotFound_thenReturnsNoContent() throws Exception {
         // Arrange
@@ -86,13 +212,76 @@ class OrdersApiControllerImplTest {
     @Test
     void whenGetOrders_thenReturnsOk() throws Exception {
         // Arrange
-        when(orderService.getOrders(null, null)).thenReturn(Collections.emptyList());
+        when(orderService.getOrders(null, null, null, null, null, 2)).thenReturn(Collections.emptyList());
 
         // Act & Assert
         mockMvc.perform(get("/v1/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void whenGetOrders_andPageIsFull_thenReturnsCursorAfterLastOrder() throws Exception {
+        // Arrange
+        OffsetDateTime timestamp = OffsetDateTime.parse("2025-08-15T10:00:00Z");
+        when(orderService.getOrders("CUST-456", null, null, null, null, 2)).thenReturn(List.of(
+                new EnrichedOrderResponse().orderId("ORD-1").timestamp(timestamp),
+                new EnrichedOrderResponse().orderId("ORD-2").timestamp(timestamp)));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders").param("customerId", "CUST-456").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", new OrderCursor(timestamp, "ORD-2").encode()));
+    }
+
+    @Test
+    void whenGetOrders_andIfNoneMatchNamesPageEtag_thenReturnsNotModifiedWithoutReadingPage() throws Exception {
+        // Arrange
+        when(orderService.getOrdersEtag("CUST-456", null, null, null, null, 2)).thenReturn(Optional.of("abc123"));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders").param("customerId", "CUST-456").header("If-None-Match", "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"abc123\""));
+        verify(orderService, never()).getOrders(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void whenGetOrders_withLimitAboveMaximum_thenCapsLimit() throws Exception {
+        // Arrange
+        when(orderService.getOrders(null, null, null, null, "abc", 5)).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders").param("limit", "500").param("cursor", "abc"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenGetOrders_withInvalidLimit_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/orders").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGetOrders_withTimeWindow_thenPassesItToService() throws Exception {
+        // Arrange
+        OffsetDateTime from = OffsetDateTime.parse("2025-08-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2025-09-01T00:00:00Z");
+        when(orderService.getOrders(null, null, from, to, null, 2)).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/orders").param("from", "2025-08-01T00:00:00Z").param("to", "2025-09-01T00:00:00Z"))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGetOrders_withFromNotBeforeTo_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/orders").param("from", "2025-09-01T00:00:00Z").param("to", "2025-09-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).getOrders(any(), any(), any(), any(), any(), anyInt());
+    }
+
     @Test
     void whenServiceThrowsResourceNotFound_thenHandlerReturns404() throws Exception {
         // Arrange
@@ -107,10 +296,24 @@ class OrdersApiControllerImplTest {
                 .andExpect(jsonPath("$.message").value("Customer not found"));
     }
 
+    @Test
+    void whenServiceThrowsResourceConflict_thenHandlerReturns409() throws Exception {
+        // Arrange
+        when(orderService.createOrder(any())).thenThrow(new ResourceConflictException("Order with ID 'ORD-123' already exists."));
+        String orderRequestJson = "{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderRequestJson))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Order with ID 'ORD-123' already exists."));
+    }
+
     @Test
     void whenServiceThrowsServiceUnavailable_thenHandlerReturns503() throws Exception {
         // Arrange
-        when(orderService.getOrders(any(), any())).thenThrow(new ServiceUnavailableException("External service is down"));
+        when(orderService.getOrders(any(), any(), any(), any(), any(), anyInt())).thenThrow(new ServiceUnavailableException("External service is down"));
 
         // Act & Assert
         mockMvc.perform(get("/v1/orders"))
@@ -0,0 +1,93 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamviewer.orderenricher.config.OrderPageProperties;
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.RestExceptionHandler;
+import com.teamviewer.orderenricher.mapper.OrderJsonWriter;
+import com.teamviewer.orderenricher.service.OrderService;
+import com.teamviewer.orderenricher.writebehind.WriteBehindOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class OrdersStreamControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        OrderPageProperties pageProperties = new OrderPageProperties(100, 2);
+        OrdersStreamController controller = new OrdersStreamController(orderService, pageProperties,
+                new OrderJsonWriter(new ObjectMapper()));
+        // Registered together so the test also covers how requests are routed between the two
+        mockMvc = MockMvcBuilders.standaloneSetup(controller, new OrdersApiControllerImpl(orderService, pageProperties,
+                        new StaticListableBeanFactory().getBeanProvider(WriteBehindOrderService.class)))
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenAcceptNdjson_thenWritesOneOrderPerLineAcrossPages() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<List<EnrichedOrder>> consumer = invocation.getArgument(5);
+            consumer.accept(List.of(order("ORD-1"), order("ORD-2")));
+            consumer.accept(List.of(order("ORD-3")));
+            return null;
+        }).when(orderService).streamOrders(eq("CUST-456"), eq(null), eq(null), eq(null), eq(2), any());
+
+        mockMvc.perform(get("/v1/orders").param("customerId", "CUST-456").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(matchesPattern(
+                        "\\{\"orderId\":\"ORD-1\".*}\n\\{\"orderId\":\"ORD-2\".*}\n\\{\"orderId\":\"ORD-3\".*}")));
+    }
+
+    @Test
+    void whenAcceptIsAnything_thenServesPagedJson() throws Exception {
+        when(orderService.getOrders(null, null, null, null, null, 100)).thenReturn(List.of());
+
+        mockMvc.perform(get("/v1/orders").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/v1/orders"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        verify(orderService, never()).streamOrders(any(), any(), any(), any(), anyInt(), any());
+    }
+
+    private static EnrichedOrder order(String orderId) {
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setCustomer(new CustomerInfo());
+        order.setProducts(List.of());
+        return order;
+    }
+}
@@ -0,0 +1,156 @@
+package com.teamviewer.orderenricher.controller;
+
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.config.OrderPageProperties;
+import com.teamviewer.orderenricher.exception.ReactiveRestExceptionHandler;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.service.OrderCursor;
+import com.teamviewer.orderenricher.service.ReactiveOrderService;
+import com.teamviewer.orderenricher.service.SubmittedOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrdersControllerTest {
+
+    @Mock
+    private ReactiveOrderService orderService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient
+                .bindToController(new ReactiveOrdersController(orderService, new OrderPageProperties(2, 5)))
+                .controllerAdvice(new ReactiveRestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void whenCreateOrder_thenReturnsCreated() {
+        when(orderService.createOrder(any())).thenReturn(Mono.just(SubmittedOrder.created(new EnrichedOrderResponse().orderId("ORD-123"))));
+
+        webTestClient.post().uri("/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"],\"timestamp\":\"2025-01-01T12:00:00Z\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.orderId").isEqualTo("ORD-123");
+    }
+
+    @Test
+    void whenOrderIsResent_thenReturnsOk() {
+        when(orderService.createOrder(any())).thenReturn(Mono.just(SubmittedOrder.resent(new EnrichedOrderResponse().orderId("ORD-123"))));
+
+        webTestClient.post().uri("/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"],\"timestamp\":\"2025-01-01T12:00:00Z\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.orderId").isEqualTo("ORD-123");
+    }
+
+    @Test
+    void whenDownstreamIsUnavailable_thenReturnsServiceUnavailableWithErrorBody() {
+        when(orderService.createOrder(any())).thenReturn(Mono.error(new ServiceUnavailableException("Customer service is currently unavailable.")));
+
+        webTestClient.post().uri("/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"orderId\":\"ORD-123\",\"customerId\":\"CUST-456\",\"productIds\":[\"PROD-A1\"],\"timestamp\":\"2025-01-01T12:00:00Z\"}")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(503)
+                .jsonPath("$.message").isEqualTo("Customer service is currently unavailable.");
+    }
+
+    @Test
+    void whenOrderDoesNotExist_thenReturnsNoContent() {
+        when(orderService.getOrderEtag("ORD-404")).thenReturn(Mono.empty());
+        when(orderService.getOrderById("ORD-404")).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/v1/orders/ORD-404")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void whenIfNoneMatchNamesCurrentEtag_thenReturnsNotModifiedWithoutReadingOrder() {
+        when(orderService.getOrderEtag("ORD-123")).thenReturn(Mono.just("abc123"));
+
+        webTestClient.get().uri("/v1/orders/ORD-123")
+                .header("If-None-Match", "\"abc123\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "W/\"abc123\"");
+
+        verify(orderService, never()).getOrderById(any());
+    }
+
+    @Test
+    void whenStatusIsUnknown_thenReturnsNotFound() {
+        when(orderService.getOrderStatus("ORD-404")).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/v1/orders/ORD-404/status")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Order with ID 'ORD-404' not found.");
+    }
+
+    @Test
+    void whenPageIsFull_thenReturnsNextCursor() {
+        OffsetDateTime timestamp = OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        EnrichedOrderResponse last = new EnrichedOrderResponse().orderId("ORD-2").timestamp(timestamp);
+        when(orderService.getOrdersEtag(null, null, null, null, null, 2)).thenReturn(Mono.just("abc123"));
+        when(orderService.getOrders(null, null, null, null, null, 2))
+                .thenReturn(Flux.just(new EnrichedOrderResponse().orderId("ORD-1").timestamp(timestamp), last));
+
+        webTestClient.get().uri("/v1/orders")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(OrdersApiControllerImpl.NEXT_CURSOR_HEADER, OrderCursor.after(last).encode())
+                .expectHeader().valueEquals("ETag", "W/\"abc123\"")
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void whenLimitIsZero_thenReturnsBadRequest() {
+        webTestClient.get().uri("/v1/orders?limit=0")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(orderService, never()).getOrders(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void whenNdjsonIsAccepted_thenStreamsOrdersOnePerLine() {
+        when(orderService.streamOrders(null, null, null, null, 5))
+                .thenReturn(Flux.just(new EnrichedOrderResponse().orderId("ORD-1"), new EnrichedOrderResponse().orderId("ORD-2")));
+
+        webTestClient.get().uri("/v1/orders")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(EnrichedOrderResponse.class)
+                .hasSize(2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.teamviewer.orderenricher.mapper;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderJsonWriterTest {
+
+    private final OrderMapper orderMapper = new OrderMapper();
+
+    @Test
+    void whenOrderIsComplete_thenWritesSameJsonAsMappedResponse() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        EnrichedOrder order = order(product("PROD-A1", List.of("electronics", "laptop")), product("PROD-B2", List.of()));
+
+        assertThat(write(new OrderJsonWriter(objectMapper), order))
+                .isEqualTo(objectMapper.writeValueAsString(orderMapper.toApi(order)));
+    }
+
+    @Test
+    void whenFieldsAreMissing_thenWritesNullsLikeMappedResponse() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        EnrichedOrder order = order(product("PROD-A1", null));
+        order.getCustomer().setStreet(null);
+        order.setTotalPrice(null);
+
+        assertThat(write(new OrderJsonWriter(objectMapper), order))
+                .contains("\"street\":null", "\"tags\":null", "\"totalPrice\":null")
+                .isEqualTo(objectMapper.writeValueAsString(orderMapper.toApi(order)));
+    }
+
+    @Test
+    void whenMapperOmitsNulls_thenOmitsThemToo() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().serializationInclusion(JsonInclude.Include.NON_NULL).build();
+        EnrichedOrder order = order(product("PROD-A1", null));
+        order.getCustomer().setStreet(null);
+
+        assertThat(write(new OrderJsonWriter(objectMapper), order))
+                .doesNotContain("street", "tags")
+                .isEqualTo(objectMapper.writeValueAsString(orderMapper.toApi(order)));
+    }
+
+    private static String write(OrderJsonWriter writer, EnrichedOrder order) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            writer.write(order, generator);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static EnrichedOrder order(ProductInfo... products) {
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId("CUST-456");
+        customer.setName("Jane \"JD\" Doe");
+        customer.setStreet("Hauptstraße 1");
+        customer.setZip("73037");
+        customer.setCountry("DE");
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId("ORD-1");
+        order.setTimestamp(OffsetDateTime.parse("2025-08-15T10:00:00.123+02:00"));
+        order.setCustomer(customer);
+        order.setProducts(List.of(products));
+        order.setTotalPrice(new BigDecimal("1299.90"));
+        return order;
+    }
+
+    private static ProductInfo product(String productId, List<String> tags) {
+        ProductInfo product = new ProductInfo();
+        product.setProductId(productId);
+        product.setName("Laptop");
+        product.setPrice(new BigDecimal("1299.90"));
+        product.setCategory("Electronics");
+        product.setTags(tags);
+        return product;
+    }
+}
@@ -20,10 +20,7 @@ class OrderMapperTest {
     @Test
     void shouldMapToEntityCorrectly_andBackToApiObject() {
         // Arrange
-        OrderRequest request = new OrderRequest()
-                .orderId("ORD-1")
-                .customerId("CUST-1")
-                .timestamp(OffsetDateTime.now());
+        OrderRequest request = new OrderRequest("ORD-1", "CUST-1", List.of("PROD-1"), OffsetDateTime.now());
         Customer customer = new Customer().id("CUST-1").name("Customer Name");
         List<Product> products = List.of(new Product().id("PROD-1").name("Product Name").price(BigDecimal.valueOf(100.0)));
 
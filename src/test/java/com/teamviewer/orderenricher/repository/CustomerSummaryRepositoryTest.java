@@ -0,0 +1,135 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the range rebuild on Postgres, migrated by Flyway.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CustomerSummaryRepository.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class CustomerSummaryRepositoryTest {
+
+    private static final OffsetDateTime T1 = OffsetDateTime.parse("2025-08-13T10:00:00Z");
+    private static final OffsetDateTime T2 = OffsetDateTime.parse("2025-08-14T10:00:00Z");
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private CustomerSummaryRepository repository;
+    @Autowired
+    private EnrichedOrderRepository orderRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.insert(order("ORD-1", "CUST-1", T1, "9.99"));
+        orderRepository.insert(order("ORD-2", "CUST-1", T2, "5.01"));
+        orderRepository.insert(order("ORD-3", "CUST-2", T1, "1.00"));
+        orderRepository.insert(order("ORD-4", "CUST-3", T2, "2.00"));
+        // Drifted, or left over from orders that are gone
+        repository.add(List.of(totals("CUST-1", 7), totals("CUST-15", 1), totals("CUST-9", 1)));
+    }
+
+    @Test
+    void whenRangeEndIsSearched_thenCountsCustomersNotOrders() {
+        assertThat(repository.findRangeEnd("", 2)).contains("CUST-2");
+        assertThat(repository.findRangeEnd("CUST-2", 2)).isEmpty();
+        assertThat(repository.findRangeEnd("CUST-2", 1)).contains("CUST-3");
+    }
+
+    @Test
+    void whenRebuiltRangeByRange_thenRecountsEveryCustomerAndDropsOrphans() {
+        assertThat(repository.rebuildRange("", "CUST-2")).isEqualTo(2);
+        assertThat(repository.find("CUST-3")).isEmpty();
+        assertThat(repository.find("CUST-9")).isPresent();
+
+        assertThat(repository.rebuildRange("CUST-2", null)).isEqualTo(1);
+
+        CustomerTotals first = repository.find("CUST-1").orElseThrow();
+        assertThat(first.orderCount()).isEqualTo(2);
+        assertThat(first.totalSpend()).isEqualByComparingTo("15.00");
+        assertThat(first.firstOrderAt()).isEqualTo(T1);
+        assertThat(first.lastOrderAt()).isEqualTo(T2);
+        assertThat(first.categoryCounts()).containsExactly(Map.entry("Books", 2L));
+        assertThat(repository.find("CUST-3").orElseThrow().orderCount()).isEqualTo(1);
+        assertThat(repository.find("CUST-15")).isEmpty();
+        assertThat(repository.find("CUST-9")).isEmpty();
+    }
+
+    @Test
+    void whenAnotherSessionHoldsTheRebuildLock_thenDoesNotRun() throws Exception {
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(hashtext('customer_summaries.rebuild'))");
+
+            assertThat(repository.runExclusively(() -> {
+                throw new AssertionError("Must not run");
+            })).isFalse();
+
+            statement.execute("SELECT pg_advisory_unlock(hashtext('customer_summaries.rebuild'))");
+        }
+        boolean[] ran = {false};
+        assertThat(repository.runExclusively(() -> ran[0] = true)).isTrue();
+        assertThat(ran[0]).isTrue();
+    }
+
+    private static CustomerTotals totals(String customerId, long orderCount) {
+        return new CustomerTotals(customerId, orderCount, new BigDecimal("99.00"), T1, T1, Map.of("Toys", orderCount));
+    }
+
+    private static EnrichedOrder order(String orderId, String customerId, OffsetDateTime timestamp, String price) {
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId(customerId);
+        ProductInfo product = new ProductInfo();
+        product.setProductId("PROD-A");
+        product.setCategory("Books");
+        product.setPrice(new BigDecimal(price));
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setTimestamp(timestamp);
+        order.setCustomer(customer);
+        order.setProducts(List.of(product));
+        order.setTotalPrice(new BigDecimal(price));
+        return order;
+    }
+}
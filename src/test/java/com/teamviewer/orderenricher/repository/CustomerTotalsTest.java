@@ -0,0 +1,67 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerTotalsTest {
+
+    @Test
+    void whenOrdersShareCustomer_thenTheirTotalsAreMerged() {
+        List<CustomerTotals> totals = CustomerTotals.of(List.of(
+                order("ORD-1", "CUST-1", "2025-08-13T10:00:00Z", "10.50", "Books", "Books", null),
+                order("ORD-2", "CUST-1", "2025-08-12T10:00:00Z", "4.50", "Toys"),
+                order("ORD-3", "CUST-1", "2025-08-14T10:00:00Z", null)));
+
+        assertThat(totals).containsExactly(new CustomerTotals("CUST-1", 3, new BigDecimal("15.00"),
+                OffsetDateTime.parse("2025-08-12T10:00:00Z"), OffsetDateTime.parse("2025-08-14T10:00:00Z"),
+                Map.of("Books", 2L, "Toys", 1L)));
+    }
+
+    @Test
+    void whenOrdersHaveDifferentCustomers_thenTotalsAreInCustomerIdOrder() {
+        List<CustomerTotals> totals = CustomerTotals.of(List.of(
+                order("ORD-1", "CUST-2", "2025-08-13T10:00:00Z", "1.00"),
+                order("ORD-2", "CUST-1", "2025-08-13T10:00:00Z", "2.00"),
+                order("ORD-3", "CUST-2", "2025-08-13T11:00:00Z", "3.00")));
+
+        assertThat(totals).extracting(CustomerTotals::customerId).containsExactly("CUST-1", "CUST-2");
+        assertThat(totals).extracting(CustomerTotals::orderCount).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void whenTimestampIsMissing_thenTheOtherOrdersTimestampsAreKept() {
+        List<CustomerTotals> totals = CustomerTotals.of(List.of(
+                order("ORD-1", "CUST-1", null, "1.00"),
+                order("ORD-2", "CUST-1", "2025-08-13T10:00:00Z", "1.00")));
+
+        assertThat(totals.get(0).firstOrderAt()).isEqualTo(OffsetDateTime.parse("2025-08-13T10:00:00Z"));
+        assertThat(totals.get(0).lastOrderAt()).isEqualTo(OffsetDateTime.parse("2025-08-13T10:00:00Z"));
+    }
+
+    private static EnrichedOrder order(String orderId, String customerId, String timestamp, String totalPrice,
+                                       String... categories) {
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId(customerId);
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setCustomer(customer);
+        order.setTimestamp(timestamp != null ? OffsetDateTime.parse(timestamp) : null);
+        order.setTotalPrice(totalPrice != null ? new BigDecimal(totalPrice) : null);
+        order.setProducts(Arrays.stream(categories).map(category -> {
+            ProductInfo product = new ProductInfo();
+            product.setCategory(category);
+            return product;
+        }).toList());
+        return order;
+    }
+}
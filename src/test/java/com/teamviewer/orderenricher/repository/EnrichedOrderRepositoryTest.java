@@ -0,0 +1,119 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the keyset queries on Postgres, migrated by Flyway, since some query shapes are only rejected there.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EnrichedOrderRepositoryTest {
+
+    private static final OffsetDateTime T1 = OffsetDateTime.parse("2025-08-13T10:00:00Z");
+    private static final OffsetDateTime T2 = OffsetDateTime.parse("2025-08-14T10:00:00Z");
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private EnrichedOrderRepository repository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository.insert(order("ORD-2", "CUST-1", T1, "PROD-A"));
+        repository.insert(order("ORD-1", "CUST-1", T1, "PROD-B"));
+        repository.insert(order("ORD-3", "CUST-2", T2, "PROD-A"));
+    }
+
+    @Test
+    void whenFirstPageWithoutCursor_thenStartsAtTheBeginning() {
+        List<EnrichedOrder> page = repository.findPage(null, null, null, null, Limit.of(2));
+
+        assertThat(page).extracting(EnrichedOrder::getOrderId).containsExactly("ORD-1", "ORD-2");
+        assertThat(page.get(0).getProducts()).extracting(ProductInfo::getTags).containsExactly(List.of("new", "sale"));
+    }
+
+    @Test
+    void whenCursorIsSet_thenContinuesAfterIt() {
+        List<EnrichedOrder> page = repository.findPage(null, T1, "ORD-2", null, Limit.of(2));
+
+        assertThat(page).extracting(EnrichedOrder::getOrderId).containsExactly("ORD-3");
+    }
+
+    @Test
+    void whenFirstPageForCustomerWithEndOfWindow_thenFiltersBoth() {
+        List<EnrichedOrder> page = repository.findPage("CUST-1", null, null, T2, Limit.of(10));
+
+        assertThat(page).extracting(EnrichedOrder::getOrderId).containsExactly("ORD-1", "ORD-2");
+    }
+
+    @Test
+    void whenFirstPageByProductWithoutCursor_thenReturnsOnlyOrdersContainingIt() {
+        List<OrderHeader> page = repository.findPageByProduct(null, "PROD-A", null, null, null, Limit.of(10));
+
+        assertThat(page).extracting(OrderHeader::orderId).containsExactly("ORD-2", "ORD-3");
+    }
+
+    @Test
+    void whenTagsOfStoredOrderChangeInPlace_thenFlushWritesThem() {
+        entityManager.clear();
+        EnrichedOrder order = repository.findByOrderId("ORD-1").orElseThrow();
+        order.getProducts().get(0).getTags().set(1, "clearance");
+
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(repository.findByOrderId("ORD-1").orElseThrow().getProducts())
+                .extracting(ProductInfo::getTags).containsExactly(List.of("new", "clearance"));
+    }
+
+    private static EnrichedOrder order(String orderId, String customerId, OffsetDateTime timestamp, String productId) {
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId(customerId);
+        ProductInfo product = new ProductInfo();
+        product.setProductId(productId);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setTags(List.of("new", "sale"));
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setTimestamp(timestamp);
+        order.setCustomer(customer);
+        order.setProducts(List.of(product));
+        order.setTotalPrice(new BigDecimal("9.99"));
+        return order;
+    }
+}
@@ -0,0 +1,115 @@
+package com.teamviewer.orderenricher.repository;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Detaches months on Postgres, migrated by Flyway.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderPartitionRepository.class, CustomerSummaryRepository.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderPartitionRepositoryTest {
+
+    private static final YearMonth JULY = YearMonth.of(2025, 7);
+    private static final YearMonth AUGUST = YearMonth.of(2025, 8);
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private OrderPartitionRepository partitionRepository;
+    @Autowired
+    private CustomerSummaryRepository summaryRepository;
+    @Autowired
+    private EnrichedOrderRepository orderRepository;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        partitionRepository.createMonth(JULY);
+        partitionRepository.createMonth(AUGUST);
+        List<EnrichedOrder> orders = List.of(
+                order("ORD-1", "CUST-1", "2025-07-10T10:00:00Z", "Books", "10.00"),
+                order("ORD-2", "CUST-1", "2025-08-03T10:00:00Z", "Toys", "4.50"),
+                order("ORD-3", "CUST-1", "2025-08-20T10:00:00Z", "Books", "1.50"),
+                order("ORD-4", "CUST-2", "2025-07-15T10:00:00Z", "Books", "7.00"));
+        orders.forEach(orderRepository::insert);
+        summaryRepository.add(CustomerTotals.of(orders));
+    }
+
+    @Test
+    void whenMonthIsDetached_thenItsOrdersLeaveTheSummaries() {
+        partitionRepository.detachMonth(JULY);
+
+        assertThat(partitionRepository.findMonths()).doesNotContain(JULY).contains(AUGUST);
+        CustomerTotals remaining = summaryRepository.find("CUST-1").orElseThrow();
+        assertThat(remaining.orderCount()).isEqualTo(2);
+        assertThat(remaining.totalSpend()).isEqualByComparingTo("6.00");
+        assertThat(remaining.firstOrderAt()).isEqualTo(OffsetDateTime.parse("2025-08-03T10:00:00Z"));
+        assertThat(remaining.lastOrderAt()).isEqualTo(OffsetDateTime.parse("2025-08-20T10:00:00Z"));
+        assertThat(remaining.categoryCounts()).containsOnly(Map.entry("Books", 1L), Map.entry("Toys", 1L));
+        assertThat(summaryRepository.find("CUST-2")).isEmpty();
+    }
+
+    @Test
+    void whenSummariesAreRebuiltAfterDetaching_thenTheyStayTheSame() {
+        partitionRepository.detachMonth(JULY);
+        CustomerTotals detached = summaryRepository.find("CUST-1").orElseThrow();
+
+        summaryRepository.rebuildRange("", null);
+
+        assertThat(summaryRepository.find("CUST-1")).contains(detached);
+        assertThat(summaryRepository.find("CUST-2")).isEmpty();
+    }
+
+    private static EnrichedOrder order(String orderId, String customerId, String timestamp, String category, String price) {
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId(customerId);
+        ProductInfo product = new ProductInfo();
+        product.setProductId("PROD-A");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setTimestamp(OffsetDateTime.parse(timestamp));
+        order.setCustomer(customer);
+        order.setProducts(List.of(product));
+        order.setTotalPrice(new BigDecimal(price));
+        return order;
+    }
+}
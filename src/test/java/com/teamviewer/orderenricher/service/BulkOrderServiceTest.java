@@ -0,0 +1,179 @@
+package com.teamviewer.orderenricher.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.cache.OrderCacheIndex;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.CustomerSummaryRepository;
+import com.teamviewer.orderenricher.repository.EnrichedOrderBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkOrderServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private EnrichedOrderBatchWriter batchWriter;
+    @Mock
+    private OrderCacheIndex orderCacheIndex;
+    @Mock
+    private OrderDocumentStore orderDocumentStore;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private OrderIdFilter orderIdFilter;
+    @Mock
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(referenceDataCache.getCustomer(anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new Customer().id(invocation.getArgument(0))));
+        lenient().when(referenceDataCache.getProduct(anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        new Product().id(invocation.getArgument(0)).price(new BigDecimal("10.00"))));
+    }
+
+    @Test
+    void whenBodyMixesValidAndInvalidLines_thenWritesOneResultPerLineInInputOrder() throws Exception {
+        when(referenceDataCache.getCustomer("CUST-X"))
+                .thenReturn(CompletableFuture.failedFuture(new ResourceNotFoundException("Customer with ID 'CUST-X' not found.")));
+        when(batchWriter.insertNew(anyList())).thenAnswer(invocation -> Set.of("ORD-1"));
+        when(orderService.requireResent(any())).thenReturn(new EnrichedOrderResponse().orderId("ORD-1"));
+
+        List<JsonNode> results = ingest(service(256, 500),
+                order("ORD-1", "CUST-456"),
+                "{not json",
+                order("ORD-2", "CUST-X"),
+                "",
+                "{\"orderId\":\"ORD-4\"}",
+                order("ORD-1", "CUST-456"));
+
+        assertThat(results).extracting(node -> node.get("line").asLong()).containsExactly(1L, 2L, 3L, 5L, 6L);
+        assertThat(results).extracting(node -> node.get("status").asInt()).containsExactly(201, 400, 404, 400, 200);
+        assertThat(results.get(2).get("error").asText()).isEqualTo("Customer with ID 'CUST-X' not found.");
+        verify(batchWriter).insertNew(argThat(orders -> orders.size() == 2));
+        // The repeated ORD-1 resends the first one: it was not inserted, so only the first one gets a document
+        verify(orderDocumentStore).writeAll(argThat(orders -> orders.size() == 1));
+    }
+
+    @Test
+    void whenMoreLinesThanBatchSize_thenPersistsInBatches() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(batchWriter.insertNew(anyList())).thenAnswer(invocation -> {
+            List<EnrichedOrder> orders = invocation.getArgument(0);
+            batchSizes.add(orders.size());
+            return orders.stream().map(EnrichedOrder::getOrderId).collect(Collectors.toSet());
+        });
+
+        List<JsonNode> results = ingest(service(2, 2),
+                order("ORD-1", "C"), order("ORD-2", "C"), order("ORD-3", "C"), order("ORD-4", "C"), order("ORD-5", "C"));
+
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+        assertThat(results).extracting(node -> node.get("orderId").asText())
+                .containsExactly("ORD-1", "ORD-2", "ORD-3", "ORD-4", "ORD-5");
+        assertThat(results).allSatisfy(node -> assertThat(node.get("status").asInt()).isEqualTo(201));
+        verify(orderCacheIndex, times(3)).evictAfterCommit(anyList());
+    }
+
+    @Test
+    void whenLineResendsStoredOrder_thenReportsOkWithoutEnriching() throws Exception {
+        when(orderService.findResent(any())).thenReturn(Optional.of(new EnrichedOrderResponse().orderId("ORD-1")));
+
+        List<JsonNode> results = ingest(service(256, 500), order("ORD-1", "C"));
+
+        assertThat(results).extracting(node -> node.get("status").asInt()).containsExactly(200);
+        verifyNoInteractions(referenceDataCache, batchWriter);
+    }
+
+    @Test
+    void whenIdIsTakenByDifferentOrder_thenReportsConflict() throws Exception {
+        when(orderService.findResent(any())).thenAnswer(invocation -> {
+            if (invocation.<OrderRequest>getArgument(0).getOrderId().equals("ORD-1")) {
+                throw new ResourceConflictException("Order with ID 'ORD-1' already exists.");
+            }
+            return Optional.empty();
+        });
+        // ORD-2 looked new but was stored by another node meanwhile
+        when(batchWriter.insertNew(anyList())).thenReturn(Set.of());
+        when(orderService.requireResent(any())).thenThrow(new ResourceConflictException("Order with ID 'ORD-2' already exists."));
+
+        List<JsonNode> results = ingest(service(256, 500), order("ORD-1", "C"), order("ORD-2", "C"));
+
+        assertThat(results).extracting(node -> node.get("orderId").asText()).containsExactly("ORD-1", "ORD-2");
+        assertThat(results).extracting(node -> node.get("status").asInt()).containsExactly(409, 409);
+        assertThat(results.get(0).get("error").asText()).isEqualTo("Order with ID 'ORD-1' already exists.");
+        verify(batchWriter).insertNew(argThat(orders -> orders.size() == 1));
+    }
+
+    @Test
+    void whenBatchInsertFails_thenEveryLineOfTheBatchReportsServiceUnavailable() throws Exception {
+        when(batchWriter.insertNew(anyList())).thenThrow(new IllegalStateException("connection reset"));
+
+        List<JsonNode> results = ingest(service(256, 500), order("ORD-1", "C"), order("ORD-2", "C"));
+
+        assertThat(results).extracting(node -> node.get("status").asInt()).containsExactly(503, 503);
+        verify(orderCacheIndex, never()).evictAfterCommit(anyList());
+    }
+
+    private BulkOrderService service(int maxInFlight, int batchSize) {
+        OrderMapper orderMapper = new OrderMapper();
+        return new BulkOrderService(referenceDataCache, orderService, orderMapper,
+                new OrderBatchPersister(batchWriter, orderMapper, orderDocumentStore, orderCacheIndex, orderIdFilter,
+                        customerSummaryRepository),
+                transactionTemplate, objectMapper, maxInFlight, batchSize);
+    }
+
+    private List<JsonNode> ingest(BulkOrderService service, String... lines) throws Exception {
+        byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.ingest(new ByteArrayInputStream(body), out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private static String order(String orderId, String customerId) {
+        return "{\"orderId\":\"" + orderId + "\",\"customerId\":\"" + customerId
+                + "\",\"productIds\":[\"PROD-A1\"],\"timestamp\":\"2025-08-15T10:00:00Z\"}";
+    }
+}
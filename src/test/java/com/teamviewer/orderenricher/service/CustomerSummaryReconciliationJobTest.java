@@ -0,0 +1,44 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.repository.CustomerSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSummaryReconciliationJobTest {
+
+    @Mock
+    private CustomerSummaryRepository customerSummaryRepository;
+
+    @Test
+    void whenRebuilding_thenWalksRangesUntilAnOpenEndedLastOne() {
+        when(customerSummaryRepository.findRangeEnd("", 2)).thenReturn(Optional.of("CUST-2"));
+        when(customerSummaryRepository.findRangeEnd("CUST-2", 2)).thenReturn(Optional.of("CUST-4"));
+        when(customerSummaryRepository.findRangeEnd("CUST-4", 2)).thenReturn(Optional.empty());
+
+        new CustomerSummaryReconciliationJob(customerSummaryRepository, 2).rebuild();
+
+        InOrder inOrder = inOrder(customerSummaryRepository);
+        inOrder.verify(customerSummaryRepository).rebuildRange("", "CUST-2");
+        inOrder.verify(customerSummaryRepository).rebuildRange("CUST-2", "CUST-4");
+        inOrder.verify(customerSummaryRepository).rebuildRange("CUST-4", null);
+        verify(customerSummaryRepository, times(3)).rebuildRange(any(), any());
+    }
+
+    @Test
+    void whenAnotherInstanceHoldsTheLock_thenRebuildsNothing() {
+        when(customerSummaryRepository.runExclusively(any())).thenReturn(false);
+
+        new CustomerSummaryReconciliationJob(customerSummaryRepository, 2).reconcile();
+
+        verify(customerSummaryRepository, never()).rebuildRange(any(), any());
+    }
+}
@@ -0,0 +1,124 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.service.EnrichmentExecutor.Downstream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnrichmentExecutorTest {
+
+    private final EnrichmentExecutor executor = new EnrichmentExecutor(Duration.ofMillis(300), Duration.ofMillis(500));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void awaitAll_runsCallsConcurrently() {
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> futures = List.of(
+                executor.submitShared(Downstream.PRODUCT, () -> sleepAndReturn("A")),
+                executor.submitShared(Downstream.PRODUCT, () -> sleepAndReturn("B")),
+                executor.submitShared(Downstream.CUSTOMER, () -> sleepAndReturn("C")));
+
+        executor.awaitAll(futures);
+
+        assertThat(futures).extracting(CompletableFuture::join).containsExactly("A", "B", "C");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+    }
+
+    @Test
+    void submitShared_cutsOffCallAtItsTimeoutAndInterruptsIt() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> slow = executor.submitShared(Downstream.PRODUCT, () -> sleepUntilInterrupted(interrupted));
+
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> executor.awaitAll(List.of(slow)));
+
+        assertThat(ex.getMessage()).isEqualTo("Product service did not respond within 300 ms.");
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void withinBudget_callsOnlyGetTheCallTimeout() {
+        CompletableFuture<String> shared = executor.withinBudget(() -> {
+            sleepAndReturn("earlier work", 250);
+            return executor.submitShared(Downstream.PRODUCT, () -> sleepAndReturn("P", 280));
+        });
+
+        // 280 ms exceed the 250 ms left of the budget, but not the 300 ms call timeout
+        assertThat(shared.join()).isEqualTo("P");
+    }
+
+    @Test
+    void withinBudget_awaitAllGivesUpWhenBudgetIsSpent() {
+        long start = System.nanoTime();
+
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class, () -> executor.withinBudget(() -> {
+            // Each call finishes within its timeout, but together they exceed the budget
+            executor.awaitAll(List.of(executor.submitShared(Downstream.CUSTOMER, () -> sleepAndReturn("C", 250))));
+            executor.awaitAll(List.of(executor.submitShared(Downstream.PRODUCT, () -> sleepAndReturn("P", 280))));
+            return null;
+        }));
+
+        assertThat(ex.getMessage()).contains("within");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(530);
+    }
+
+    @Test
+    void awaitAll_failsFastAndCancelsRemainingCalls() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> slow = executor.submitShared(Downstream.PRODUCT, () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+            return "slow";
+        });
+        CompletableFuture<String> failing = executor.submitShared(Downstream.CUSTOMER, () -> {
+            throw new ResourceNotFoundException("Customer with ID 'CUST-999' not found.");
+        });
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> executor.awaitAll(List.of(slow, failing)));
+
+        assertThat(ex.getMessage()).isEqualTo("Customer with ID 'CUST-999' not found.");
+        assertThat(slow).isCancelled();
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static String sleepAndReturn(String value) {
+        return sleepAndReturn(value, 100);
+    }
+
+    private static String sleepAndReturn(String value, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    private static String sleepUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException ex) {
+            interrupted.countDown();
+        }
+        return "slow";
+    }
+}
@@ -0,0 +1,71 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.EnrichedOrderRepository;
+import com.teamviewer.orderenricher.repository.OrderDocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderDocumentRebuildJobTest {
+
+    @Mock
+    private OrderDocumentRepository documentRepository;
+    @Mock
+    private EnrichedOrderRepository orderRepository;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private OrderDocumentStore documentStore;
+
+    private OrderDocumentRebuildJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new OrderDocumentRebuildJob(documentRepository, orderRepository, orderMapper, documentStore, false, 2);
+    }
+
+    @Test
+    void whenStaleOrdersSpanSeveralBatches_thenRebuildsThemInIdOrder() {
+        when(documentRepository.findOrderIdsWithStaleDocument("", OrderDocumentStore.VERSION, 2)).thenReturn(List.of("ORD-1", "ORD-2"));
+        when(documentRepository.findOrderIdsWithStaleDocument("ORD-2", OrderDocumentStore.VERSION, 2)).thenReturn(List.of("ORD-3"));
+        when(orderRepository.findByOrderIdIn(any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return ids.stream().map(OrderDocumentRebuildJobTest::order).toList();
+        });
+        when(orderMapper.toApi(any())).thenAnswer(invocation ->
+                new EnrichedOrderResponse().orderId(invocation.<EnrichedOrder>getArgument(0).getOrderId()));
+
+        long rebuilt = job.rebuild();
+
+        assertThat(rebuilt).isEqualTo(3);
+        verify(documentStore).writeAll(argThat(orders -> orders.stream().map(EnrichedOrderResponse::getOrderId).toList().equals(List.of("ORD-1", "ORD-2"))));
+        verify(documentStore).writeAll(argThat(orders -> orders.stream().map(EnrichedOrderResponse::getOrderId).toList().equals(List.of("ORD-3"))));
+    }
+
+    @Test
+    void whenNothingIsStale_thenWritesNothing() {
+        when(documentRepository.findOrderIdsWithStaleDocument("", OrderDocumentStore.VERSION, 2)).thenReturn(List.of());
+
+        assertThat(job.rebuild()).isZero();
+        verifyNoInteractions(orderRepository, documentStore);
+    }
+
+    private static EnrichedOrder order(String orderId) {
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        return order;
+    }
+}
@@ -0,0 +1,65 @@
+package com.teamviewer.orderenricher.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.repository.OrderDocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderDocumentStoreTest {
+
+    @Mock
+    private OrderDocumentRepository documentRepository;
+
+    private OrderDocumentStore store;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        store = new OrderDocumentStore(documentRepository, objectMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenWrittenDocumentIsReadBack_thenOrderIsUnchanged() {
+        EnrichedOrderResponse order = new EnrichedOrderResponse()
+                .orderId("ORD-1")
+                .timestamp(OffsetDateTime.parse("2025-08-15T10:00:00Z"))
+                .customer(new Customer().id("CUST-456").name("Jane"))
+                .products(List.of(new Product().id("PROD-A1").price(new BigDecimal("19.99")).tags(List.of("a", "b"))))
+                .totalPrice(new BigDecimal("19.99"));
+        ArgumentCaptor<Map<String, String>> documents = ArgumentCaptor.forClass(Map.class);
+
+        store.write(order);
+
+        verify(documentRepository).upsert(documents.capture(), eq(OrderDocumentStore.VERSION));
+        when(documentRepository.findDocument("ORD-1")).thenReturn(Optional.of(documents.getValue().get("ORD-1")));
+        assertThat(store.read("ORD-1")).contains(order);
+    }
+
+    @Test
+    void whenDocumentIsUnreadable_thenReturnsEmpty() {
+        when(documentRepository.findDocument("ORD-1")).thenReturn(Optional.of("{not json"));
+
+        assertThat(store.read("ORD-1")).isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.repository.EnrichedOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIdFilterTest {
+
+    @Mock
+    private EnrichedOrderRepository orderRepository;
+
+    @Test
+    void whenNotLoaded_thenEveryIdMightBeContained() {
+        OrderIdFilter filter = new OrderIdFilter(orderRepository, 1_000, 0.01);
+
+        assertThat(filter.mightContain("ORD-1")).isTrue();
+    }
+
+    @Test
+    void whenLoaded_thenStoredAndAddedIdsAreContained() {
+        List<String> stored = IntStream.range(0, 10_000).mapToObj(i -> "ORD-" + i).toList();
+        List<String> next = List.of("ORD-10000");
+        when(orderRepository.findOrderIdsAfter("", Limit.of(10_000))).thenReturn(stored);
+        when(orderRepository.findOrderIdsAfter("ORD-9999", Limit.of(10_000))).thenReturn(next);
+        OrderIdFilter filter = new OrderIdFilter(orderRepository, 20_000, 0.01);
+
+        assertThat(filter.load()).isEqualTo(10_001);
+        filter.add("ORD-NEW");
+
+        assertThat(stored).allMatch(filter::mightContain);
+        assertThat(filter.mightContain("ORD-10000")).isTrue();
+        assertThat(filter.mightContain("ORD-NEW")).isTrue();
+    }
+
+    @Test
+    void whenIdsWereNeverAdded_thenFewArePossibleMatches() {
+        OrderIdFilter filter = new OrderIdFilter(orderRepository, 10_000, 0.01);
+        filter.load();
+        IntStream.range(0, 10_000).forEach(i -> filter.add("ORD-" + i));
+
+        List<String> falsePositives = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("NEW-" + i)) {
+                falsePositives.add("NEW-" + i);
+            }
+        }
+
+        // 1% expected; allow for chance
+        assertThat(falsePositives).hasSizeLessThan(200);
+    }
+}
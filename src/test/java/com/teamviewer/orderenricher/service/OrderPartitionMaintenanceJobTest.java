@@ -0,0 +1,76 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.repository.OrderPartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPartitionMaintenanceJobTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2025, 11);
+
+    @Mock
+    private OrderPartitionRepository partitionRepository;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache ordersCache;
+    @Mock
+    private Cache orderEtagsCache;
+
+    @Test
+    void whenMaintaining_thenCreatesCurrentAndUpcomingMonths() {
+        new OrderPartitionMaintenanceJob(partitionRepository, cacheManager, 2, 0).maintain(CURRENT);
+
+        verify(partitionRepository).createMonth(YearMonth.of(2025, 11));
+        verify(partitionRepository).createMonth(YearMonth.of(2025, 12));
+        verify(partitionRepository).createMonth(YearMonth.of(2026, 1));
+        verify(partitionRepository, times(3)).createMonth(any());
+    }
+
+    @Test
+    void whenRetentionIsZero_thenDetachesNothing() {
+        new OrderPartitionMaintenanceJob(partitionRepository, cacheManager, 0, 0).maintain(CURRENT);
+
+        verify(partitionRepository, never()).findMonths();
+        verify(partitionRepository, never()).detachMonth(any());
+        verifyNoInteractions(cacheManager);
+    }
+
+    @Test
+    void whenRetentionIsSet_thenDetachesOnlyOlderMonths() {
+        when(partitionRepository.findMonths()).thenReturn(List.of(
+                YearMonth.of(2025, 8), YearMonth.of(2025, 9), YearMonth.of(2025, 10), CURRENT, YearMonth.of(2025, 12)));
+
+        new OrderPartitionMaintenanceJob(partitionRepository, cacheManager, 0, 2).maintain(CURRENT);
+
+        verify(partitionRepository).detachMonth(YearMonth.of(2025, 8));
+        verify(partitionRepository).detachMonth(YearMonth.of(2025, 9));
+        verify(partitionRepository, times(2)).detachMonth(any());
+    }
+
+    @Test
+    void whenMonthIsDetached_thenOrderCachesAreClearedAfterwards() {
+        when(partitionRepository.findMonths()).thenReturn(List.of(YearMonth.of(2025, 9), CURRENT));
+        when(cacheManager.getCache("orders")).thenReturn(ordersCache);
+        when(cacheManager.getCache("order-etags")).thenReturn(orderEtagsCache);
+
+        new OrderPartitionMaintenanceJob(partitionRepository, cacheManager, 0, 2).maintain(CURRENT);
+
+        InOrder inOrder = inOrder(partitionRepository, ordersCache, orderEtagsCache);
+        inOrder.verify(partitionRepository).detachMonth(YearMonth.of(2025, 9));
+        inOrder.verify(ordersCache).clear();
+        inOrder.verify(orderEtagsCache).clear();
+    }
+}
@@ -3,39 +3,81 @@ package com.teamviewer.orderenricher.service;
 import com.teamviewer.orderenricher.api.model.Customer;
 import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
 import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
 import com.teamviewer.orderenricher.api.model.Product;
-import com.teamviewer.orderenricher.client.CustomerServiceClient;
-import com.teamviewer.orderenricher.client.ProductServiceClient;
+import com.teamviewer.orderenricher.cache.OrderCacheIndex;
+import com.teamviewer.orderenricher.domain.CustomerInfo;
 import com.teamviewer.orderenricher.domain.EnrichedOrder;
 import com.teamviewer.orderenricher.domain.ProductInfo;
+import com.teamviewer.orderenricher.exception.InvalidRequestException;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
 import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.CustomerSummaryRepository;
 import com.teamviewer.orderenricher.repository.EnrichedOrderRepository;
+import com.teamviewer.orderenricher.repository.OrderHeader;
+import com.teamviewer.orderenricher.repository.OrderProductRow;
+import com.teamviewer.orderenricher.writebehind.OrderStatusTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTest {
 
     @Mock
-    private CustomerServiceClient customerClient;
-    @Mock
-    private ProductServiceClient productClient;
+    private ReferenceDataCache referenceDataCache;
     @Mock
     private EnrichedOrderRepository orderRepository;
     @Mock
     private OrderMapper orderMapper;
+    @Mock
+    private OrderCacheIndex orderCacheIndex;
+    @Mock
+    private OrderDocumentStore orderDocumentStore;
+    @Mock
+    private OrderStatusTracker orderStatusTracker;
+    @Mock
+    private OrderIdFilter orderIdFilter;
+    @Mock
+    private CustomerSummaryRepository customerSummaryRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private EnrichmentExecutor enrichmentExecutor = new EnrichmentExecutor(Duration.ofSeconds(5), Duration.ofSeconds(5));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private OrderMetrics orderMetrics = new OrderMetrics(meterRegistry);
 
     @InjectMocks
     private OrderService orderService;
@@ -48,12 +90,10 @@ class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
         // Common test data setup
-        orderRequest = new OrderRequest()
-                .orderId("ORD-123")
-                .customerId("CUST-456")
-                .addProductIdsItem("PROD-A1")
-                .timestamp(OffsetDateTime.now());
+        orderRequest = new OrderRequest("ORD-123", "CUST-456", List.of("PROD-A1"), OffsetDateTime.now());
 
         customer = new Customer().id("CUST-456").name("Test Customer");
         product = new Product().id("PROD-A1").name("Test Product");
@@ -63,23 +103,217 @@ class OrderServiceTest {
 
     @Test
     void whenCreateOrder_thenSavesAndReturnsEnrichedOrder() {
-        when(customerClient.getCustomerById("CUST-456")).thenReturn(customer);
-        when(productClient.getProductById("PROD-A1")).thenReturn(product);
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(CompletableFuture.completedFuture(customer));
+        when(referenceDataCache.getProduct("PROD-A1")).thenReturn(CompletableFuture.completedFuture(product));
+        when(orderMapper.toEntity(any(), any(), any())).thenReturn(enrichedOrder);
+        when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
+
+        SubmittedOrder submitted = orderService.createOrder(orderRequest);
+
+        assertThat(submitted.resent()).isFalse();
+        assertThat(submitted.order().getOrderId()).isEqualTo("ORD-123");
+
+        verify(orderRepository, times(1)).insert(enrichedOrder);
+        verify(orderRepository, never()).save(any());
+        verify(orderCacheIndex, times(1)).evictAfterCommit(enrichedOrder);
+        verify(orderDocumentStore, times(1)).write(enrichedOrderResponse);
+        verify(customerSummaryRepository, times(1)).add(anyList());
+    }
+
+    @Test
+    void whenCreateOrder_thenRecordsEachStage() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(CompletableFuture.completedFuture(customer));
+        when(referenceDataCache.getProduct("PROD-A1")).thenReturn(CompletableFuture.completedFuture(product));
+        when(orderMapper.toEntity(any(), any(), any())).thenReturn(enrichedOrder);
+        when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
+
+        orderService.createOrder(orderRequest);
+
+        for (String stage : List.of("customer-fetch", "product-fetch", "mapping", "persist")) {
+            assertThat(meterRegistry.get("orders.create.stage").tag("stage", stage).timer().count()).as(stage).isEqualTo(1);
+        }
+        assertThat(meterRegistry.get("orders.products").summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenCreateOrder_withManyProducts_thenProductsKeepRequestOrder() {
+        OrderRequest request = new OrderRequest("ORD-123", "CUST-456", List.of("PROD-A1", "PROD-B2", "PROD-C3"),
+                OffsetDateTime.now());
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(CompletableFuture.completedFuture(customer));
+        when(referenceDataCache.getProduct(any())).thenAnswer(invocation -> {
+            String productId = invocation.getArgument(0);
+            // The first product answers last
+            Executor delay = productId.equals("PROD-A1")
+                    ? CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+                    : Runnable::run;
+            return CompletableFuture.supplyAsync(() -> new Product().id(productId), delay);
+        });
+        when(orderMapper.toEntity(any(), any(), any())).thenReturn(enrichedOrder);
+        when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
+
+        orderService.createOrder(request);
+
+        verify(orderMapper).toEntity(eq(request), eq(customer), argThat(products ->
+                products.stream().map(Product::getId).toList().equals(List.of("PROD-A1", "PROD-B2", "PROD-C3"))));
+    }
+
+    @Test
+    void whenCreateOrder_andProductNotFound_thenThrowsAndDoesNotSave() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(CompletableFuture.completedFuture(customer));
+        when(referenceDataCache.getProduct("PROD-A1")).thenReturn(
+                CompletableFuture.failedFuture(new ResourceNotFoundException("Product with ID 'PROD-A1' not found.")));
+
+        assertThrows(ResourceNotFoundException.class, () -> orderService.createOrder(orderRequest));
+
+        verify(orderRepository, never()).insert(any());
+    }
+
+    @Test
+    void whenCreateOrder_andOrderIdExists_thenThrowsConflictAndDoesNotEvict() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(CompletableFuture.completedFuture(customer));
+        when(referenceDataCache.getProduct("PROD-A1")).thenReturn(CompletableFuture.completedFuture(product));
+        enrichedOrder.setOrderId("ORD-123");
+        when(orderMapper.toEntity(any(), any(), any())).thenReturn(enrichedOrder);
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(orderRepository).insert(enrichedOrder);
+
+        ResourceConflictException ex = assertThrows(ResourceConflictException.class, () -> orderService.createOrder(orderRequest));
+
+        assertThat(ex.getMessage()).isEqualTo("Order with ID 'ORD-123' already exists.");
+        verify(orderCacheIndex, never()).evictAfterCommit(any(EnrichedOrder.class));
+    }
+
+    @Test
+    void whenCreateOrder_andFilterMissesButInsertFindsSameOrder_thenReturnsStoredOrder() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(CompletableFuture.completedFuture(customer));
+        when(referenceDataCache.getProduct("PROD-A1")).thenReturn(CompletableFuture.completedFuture(product));
+        enrichedOrder.setOrderId("ORD-123");
+        when(orderMapper.toEntity(any(), any(), any())).thenReturn(enrichedOrder);
+        // Stored by another node: this node's filter has never seen the ID
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(orderRepository).insert(enrichedOrder);
+        EnrichedOrderResponse stored = new EnrichedOrderResponse().orderId("ORD-123")
+                .timestamp(orderRequest.getTimestamp())
+                .customer(new Customer().id("CUST-456"))
+                .products(List.of(new Product().id("PROD-A1")));
+        when(orderDocumentStore.read("ORD-123")).thenReturn(Optional.of(stored));
+
+        SubmittedOrder submitted = orderService.createOrder(orderRequest);
+
+        assertThat(submitted.resent()).isTrue();
+        assertThat(submitted.order()).isSameAs(stored);
+        verify(orderCacheIndex, never()).evictAfterCommit(any(EnrichedOrder.class));
+    }
+
+    @Test
+    void whenCreateOrder_andStoredOrderIsResent_thenReturnsItWithoutEnriching() {
+        // Stored with microsecond precision and read back in another offset
+        EnrichedOrderResponse stored = new EnrichedOrderResponse().orderId("ORD-123")
+                .timestamp(orderRequest.getTimestamp().truncatedTo(ChronoUnit.MICROS)
+                        .withOffsetSameInstant(ZoneOffset.ofHours(2)))
+                .customer(new Customer().id("CUST-456"))
+                .products(List.of(new Product().id("PROD-A1")));
+        when(orderIdFilter.mightContain("ORD-123")).thenReturn(true);
+        when(orderDocumentStore.read("ORD-123")).thenReturn(Optional.of(stored));
+
+        SubmittedOrder submitted = orderService.createOrder(orderRequest);
+
+        assertThat(submitted.resent()).isTrue();
+        assertThat(submitted.order()).isSameAs(stored);
+
+        verifyNoInteractions(referenceDataCache, orderCacheIndex);
+        verify(orderRepository, never()).insert(any());
+    }
+
+    @Test
+    void whenCreateOrder_andStoredOrderDiffers_thenThrowsConflictWithoutEnriching() {
+        EnrichedOrderResponse stored = new EnrichedOrderResponse().orderId("ORD-123")
+                .customer(new Customer().id("CUST-456"))
+                .products(List.of(new Product().id("PROD-B2")));
+        when(orderIdFilter.mightContain("ORD-123")).thenReturn(true);
+        when(orderDocumentStore.read("ORD-123")).thenReturn(Optional.of(stored));
+
+        assertThrows(ResourceConflictException.class, () -> orderService.createOrder(orderRequest));
+
+        verifyNoInteractions(referenceDataCache);
+    }
+
+    @Test
+    void whenCreateOrder_andStoredOrderHasOtherTimestamp_thenThrowsConflict() {
+        EnrichedOrderResponse stored = new EnrichedOrderResponse().orderId("ORD-123")
+                .timestamp(orderRequest.getTimestamp().minusMinutes(1))
+                .customer(new Customer().id("CUST-456"))
+                .products(List.of(new Product().id("PROD-A1")));
+        when(orderIdFilter.mightContain("ORD-123")).thenReturn(true);
+        when(orderDocumentStore.read("ORD-123")).thenReturn(Optional.of(stored));
+
+        assertThrows(ResourceConflictException.class, () -> orderService.createOrder(orderRequest));
+
+        verify(orderRepository, never()).insert(any());
+    }
+
+    @Test
+    void whenInsertFoundIdTaken_thenRequireResentReadsItDespiteTheFilter() {
+        EnrichedOrderResponse stored = new EnrichedOrderResponse().orderId("ORD-123")
+                .timestamp(orderRequest.getTimestamp())
+                .customer(new Customer().id("CUST-456"))
+                .products(List.of(new Product().id("PROD-A1")));
+        when(orderDocumentStore.read("ORD-123")).thenReturn(Optional.of(stored));
+
+        assertThat(orderService.requireResent(orderRequest)).isSameAs(stored);
+
+        verifyNoInteractions(orderIdFilter);
+    }
+
+    @Test
+    void whenLoggedOrderIdIsTaken_thenIsStoredOnlyForTheSameOrder() {
+        CustomerInfo customerInfo = new CustomerInfo();
+        customerInfo.setCustomerId("CUST-456");
+        ProductInfo productInfo = new ProductInfo();
+        productInfo.setProductId("PROD-A1");
+        EnrichedOrder logged = new EnrichedOrder();
+        logged.setOrderId("ORD-123");
+        logged.setTimestamp(orderRequest.getTimestamp());
+        logged.setCustomer(customerInfo);
+        logged.setProducts(List.of(productInfo));
+        EnrichedOrderResponse stored = new EnrichedOrderResponse().orderId("ORD-123")
+                .timestamp(orderRequest.getTimestamp())
+                .customer(new Customer().id("CUST-456"))
+                .products(List.of(new Product().id("PROD-A1")));
+        when(orderDocumentStore.read("ORD-123")).thenReturn(Optional.of(stored));
+
+        assertThat(orderService.isStored(logged)).isTrue();
+
+        stored.customer(new Customer().id("CUST-999"));
+        assertThat(orderService.isStored(logged)).isFalse();
+    }
+
+    @Test
+    void whenCreateOrder_andFilterRulesOutId_thenSkipsLookup() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(CompletableFuture.completedFuture(customer));
+        when(referenceDataCache.getProduct("PROD-A1")).thenReturn(CompletableFuture.completedFuture(product));
+        enrichedOrder.setOrderId("ORD-123");
         when(orderMapper.toEntity(any(), any(), any())).thenReturn(enrichedOrder);
-        when(orderRepository.save(enrichedOrder)).thenReturn(enrichedOrder);
         when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
 
-        EnrichedOrderResponse response = orderService.createOrder(orderRequest);
+        orderService.createOrder(orderRequest);
 
-        assertThat(response).isNotNull();
-        assertThat(response.getOrderId()).isEqualTo("ORD-123");
+        verify(orderDocumentStore, never()).read(any());
+        verify(orderRepository, never()).findById(any());
+        verify(orderIdFilter).add("ORD-123");
+    }
+
+    @Test
+    void whenGetOrderById_andDocumentExists_thenSkipsNormalizedTables() {
+        when(orderDocumentStore.read("ORD-123")).thenReturn(Optional.of(enrichedOrderResponse));
 
-        verify(orderRepository, times(1)).save(enrichedOrder);
+        Optional<EnrichedOrderResponse> response = orderService.getOrderById("ORD-123");
+
+        assertThat(response).contains(enrichedOrderResponse);
+        verifyNoInteractions(orderRepository, orderMapper);
     }
 
     @Test
     void whenGetOrderById_andOrderExists_thenReturnsOptionalOfOrder() {
-        when(orderRepository.findById("ORD-123")).thenReturn(Optional.of(enrichedOrder));
+        when(orderRepository.findByOrderId("ORD-123")).thenReturn(Optional.of(enrichedOrder));
         when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
 
         Optional<EnrichedOrderResponse> response = orderService.getOrderById("ORD-123");
@@ -90,66 +324,121 @@ class OrderServiceTest {
 
     @Test
     void whenGetOrderById_andOrderDoesNotExist_thenReturnsEmptyOptional() {
-        when(orderRepository.findById("ORD-UNKNOWN")).thenReturn(Optional.empty());
+        when(orderRepository.findByOrderId("ORD-UNKNOWN")).thenReturn(Optional.empty());
         Optional<EnrichedOrderResponse> response = orderService.getOrderById("ORD-UNKNOWN");
         assertThat(response).isNotPresent();
     }
 
     @Test
-    void whenGetOrders_withNoFilters_thenReturnsAllOrders() {
-        when(orderRepository.findAll()).thenReturn(List.of(enrichedOrder));
+    void whenGetOrderStatus_andOrderIsNotPending_thenReportsStoredOrderAsPersisted() {
+        when(orderStatusTracker.find("ORD-123")).thenReturn(Optional.empty());
+        when(orderRepository.existsByOrderId("ORD-123")).thenReturn(true);
+
+        Optional<OrderStatusResponse> status = orderService.getOrderStatus("ORD-123");
+
+        assertThat(status).get().extracting(OrderStatusResponse::getStatus).isEqualTo(OrderStatusResponse.StatusEnum.PERSISTED);
+    }
+
+    @Test
+    void whenGetOrders_withNoFiltersOrCursor_thenReadsFirstPage() {
+        when(orderRepository.findPage(null, null, null, null, Limit.of(100))).thenReturn(List.of(enrichedOrder));
         when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
 
-        List<EnrichedOrderResponse> result = orderService.getOrders(null, null);
+        List<EnrichedOrderResponse> result = orderService.getOrders(null, null, null, null, null, 100);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getOrderId()).isEqualTo("ORD-123");
-        verify(orderRepository, times(1)).findAll();
-        verify(orderRepository, never()).findByCriteria(any(), any());
+        verify(orderRepository, never()).findAll();
     }
 
     @Test
-    void whenGetOrders_withCustomerIdFilter_thenReturnsFilteredOrders() {
-        when(orderRepository.findByCriteria("CUST-456", null)).thenReturn(List.of(enrichedOrder));
+    void whenGetOrders_withCustomerIdFilterAndCursor_thenReadsPageAfterCursor() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2025-08-15T10:00:00Z");
+        String cursor = new OrderCursor(timestamp, "ORD-100").encode();
+        when(orderRepository.findPage("CUST-456", timestamp, "ORD-100", null, Limit.of(10))).thenReturn(List.of(enrichedOrder));
         when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
 
-        List<EnrichedOrderResponse> result = orderService.getOrders("CUST-456", null);
+        List<EnrichedOrderResponse> result = orderService.getOrders("CUST-456", null, null, null, cursor, 10);
 
         assertThat(result).hasSize(1);
-        verify(orderRepository, never()).findAll();
-        verify(orderRepository, times(1)).findByCriteria("CUST-456", null);
+        verify(orderRepository, times(1)).findPage("CUST-456", timestamp, "ORD-100", null, Limit.of(10));
     }
 
     @Test
-    void whenGetOrders_withProductIdFilter_thenReturnsFilteredProductsInOrder() {
-        ProductInfo productInfoA1 = new ProductInfo();
-        productInfoA1.setProductId("PROD-A1");
-        ProductInfo productInfoB2 = new ProductInfo();
-        productInfoB2.setProductId("PROD-B2");
+    void whenGetOrders_withTimeWindow_thenStartsAtFromAndStopsBeforeTo() {
+        OffsetDateTime from = OffsetDateTime.parse("2025-08-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2025-09-01T00:00:00Z");
+        when(orderRepository.findPage("CUST-456", from, "", to, Limit.of(10))).thenReturn(List.of(enrichedOrder));
+        when(orderMapper.toApi(enrichedOrder)).thenReturn(enrichedOrderResponse);
+
+        List<EnrichedOrderResponse> result = orderService.getOrders("CUST-456", null, from, to, null, 10);
+
+        assertThat(result).containsExactly(enrichedOrderResponse);
+    }
+
+    @Test
+    void whenGetOrders_withCursorBeforeFrom_thenStartsAtFrom() {
+        OffsetDateTime from = OffsetDateTime.parse("2025-08-01T00:00:00Z");
+        String cursor = new OrderCursor(OffsetDateTime.parse("2025-07-15T10:00:00Z"), "ORD-100").encode();
+        when(orderRepository.findPage(null, from, "", null, Limit.of(10))).thenReturn(List.of());
 
-        EnrichedOrder orderWithTwoProducts = new EnrichedOrder();
-        orderWithTwoProducts.setProducts(List.of(productInfoA1, productInfoB2));
+        assertThat(orderService.getOrders(null, null, from, null, cursor, 10)).isEmpty();
+    }
 
-        EnrichedOrderResponse responseWithOneProduct = new EnrichedOrderResponse();
-        responseWithOneProduct.setProducts(List.of(new Product().id("PROD-A1")));
+    @Test
+    void whenGetOrders_withMalformedCursor_thenThrowsInvalidRequest() {
+        assertThrows(InvalidRequestException.class, () -> orderService.getOrders(null, null, null, null, "not a cursor!", 10));
 
+        verifyNoInteractions(orderRepository);
+    }
 
-        when(orderRepository.findByCriteria(null, "PROD-A1")).thenReturn(List.of(orderWithTwoProducts));
+    @Test
+    void whenStreamOrders_thenFollowsCursorUntilPageIsNotFull() {
+        OffsetDateTime timestamp = OffsetDateTime.parse("2025-08-15T10:00:00Z");
+        List<EnrichedOrder> orders = new ArrayList<>();
+        for (String orderId : List.of("ORD-1", "ORD-2", "ORD-3")) {
+            EnrichedOrder order = new EnrichedOrder();
+            order.setOrderId(orderId);
+            order.setTimestamp(timestamp);
+            orders.add(order);
+        }
+        when(orderRepository.findPage(null, null, null, null, Limit.of(2))).thenReturn(orders.subList(0, 2));
+        when(orderRepository.findPage(null, timestamp, "ORD-2", null, Limit.of(2))).thenReturn(orders.subList(2, 3));
+        List<List<String>> pages = new ArrayList<>();
+
+        orderService.streamOrders(null, null, null, null, 2, page -> pages.add(page.stream().map(EnrichedOrder::getOrderId).toList()));
 
+        assertThat(pages).containsExactly(List.of("ORD-1", "ORD-2"), List.of("ORD-3"));
+        verifyNoInteractions(orderMapper);
+        orders.forEach(order -> verify(entityManager).detach(order));
+    }
+
+    @Test
+    void whenGetOrders_withProductIdFilter_thenSelectsOnlyMatchingProductRows() {
+        ProductInfo productInfoA1 = new ProductInfo();
+        productInfoA1.setProductId("PROD-A1");
+        CustomerInfo customerInfo = new CustomerInfo();
+        customerInfo.setCustomerId("CUST-456");
+        OffsetDateTime timestamp = OffsetDateTime.parse("2025-08-15T10:00:00Z");
+
+        when(orderRepository.findPageByProduct(null, "PROD-A1", null, null, null, Limit.of(100))).thenReturn(List.of(
+                new OrderHeader("ORD-1", timestamp, customerInfo, BigDecimal.TEN),
+                new OrderHeader("ORD-2", timestamp, customerInfo, BigDecimal.ONE)));
+        when(orderRepository.findProductRows(List.of("ORD-1", "ORD-2"), timestamp, timestamp, "PROD-A1")).thenReturn(List.of(
+                new OrderProductRow("ORD-2", productInfoA1),
+                new OrderProductRow("ORD-1", productInfoA1)));
         when(orderMapper.toApi(any(EnrichedOrder.class))).thenAnswer(invocation -> {
             EnrichedOrder argument = invocation.getArgument(0);
-            EnrichedOrderResponse response = new EnrichedOrderResponse();
-            if (argument.getProducts().size() == 1 && argument.getProducts().get(0).getProductId().equals("PROD-A1")) {
-                response.setProducts(List.of(new Product().id("PROD-A1")));
-            }
-            return response;
+            return new EnrichedOrderResponse()
+                    .orderId(argument.getOrderId())
+                    .products(argument.getProducts().stream().map(product -> new Product().id(product.getProductId())).toList());
         });
 
-        List<EnrichedOrderResponse> result = orderService.getOrders(null, "PROD-A1");
+        List<EnrichedOrderResponse> result = orderService.getOrders(null, "PROD-A1", null, null, null, 100);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getProducts()).hasSize(1);
-        assertThat(result.get(0).getProducts().get(0).getId()).isEqualTo("PROD-A1");
-        verify(orderRepository, times(1)).findByCriteria(null, "PROD-A1");
+        assertThat(result).extracting(EnrichedOrderResponse::getOrderId).containsExactly("ORD-1", "ORD-2");
+        assertThat(result).allSatisfy(order -> assertThat(order.getProducts())
+                .extracting(Product::getId).containsExactly("PROD-A1"));
+        verify(orderRepository, never()).findPage(any(), any(), any(), any(), any());
     }
 }
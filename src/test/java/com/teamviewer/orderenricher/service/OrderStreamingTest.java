@@ -0,0 +1,101 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.domain.ProductInfo;
+import com.teamviewer.orderenricher.repository.EnrichedOrderRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams orders from Postgres inside a test transaction, whose persistence context stays open throughout the
+ * way a request-scoped one would.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderStreamingTest {
+
+    private static final OffsetDateTime T1 = OffsetDateTime.parse("2025-08-13T10:00:00Z");
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private EnrichedOrderRepository repository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderService orderService;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            repository.insert(order("ORD-" + i, T1.plusMinutes(i)));
+        }
+        entityManager.clear();
+        // Streaming only reads the order repository and releases pages through the entity manager
+        orderService = new OrderService(null, repository, null, null, null, null, null, null, null, null, null,
+                entityManager);
+    }
+
+    @Test
+    void whenOrdersAreStreamed_thenNoPageStaysInThePersistenceContext() {
+        List<List<String>> pages = new ArrayList<>();
+
+        orderService.streamOrders(null, null, null, null, 2, page -> {
+            assertThat(managedEntities()).isEqualTo(page.size());
+            pages.add(page.stream().map(EnrichedOrder::getOrderId).toList());
+        });
+
+        assertThat(pages).containsExactly(List.of("ORD-1", "ORD-2"), List.of("ORD-3", "ORD-4"), List.of("ORD-5"));
+        assertThat(managedEntities()).isZero();
+    }
+
+    private long managedEntities() {
+        return entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+    }
+
+    private static EnrichedOrder order(String orderId, OffsetDateTime timestamp) {
+        CustomerInfo customer = new CustomerInfo();
+        customer.setCustomerId("CUST-1");
+        ProductInfo product = new ProductInfo();
+        product.setProductId("PROD-A");
+        product.setPrice(BigDecimal.ONE);
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setTimestamp(timestamp);
+        order.setCustomer(customer);
+        order.setProducts(List.of(product));
+        order.setTotalPrice(BigDecimal.ONE);
+        return order;
+    }
+}
@@ -0,0 +1,200 @@
+package com.teamviewer.orderenricher.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.repository.ReactiveOrderRepository;
+import com.teamviewer.orderenricher.writebehind.OrderStatusTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderServiceTest {
+
+    @Mock
+    private ReactiveReferenceDataCache referenceDataCache;
+    @Mock
+    private ReactiveOrderRepository orderRepository;
+    @Mock
+    private OrderStatusTracker orderStatusTracker;
+    @Mock
+    private OrderIdFilter orderIdFilter;
+
+    private ReactiveOrderService orderService;
+
+    private final OrderRequest orderRequest = new OrderRequest("ORD-123", "CUST-456", List.of("PROD-A1", "PROD-B2"),
+            OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC));
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        orderService = new ReactiveOrderService(referenceDataCache, orderRepository, new OrderMapper(), orderStatusTracker,
+                orderIdFilter, objectMapper, Duration.ofMillis(200), Duration.ofMillis(500));
+    }
+
+    @Test
+    void whenCreateOrder_thenStoresOrderWithDocumentAndReturnsIt() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(Mono.just(new Customer().id("CUST-456").name("Test Customer")));
+        when(referenceDataCache.getProduct(anyString())).thenAnswer(invocation -> Mono.just(product(invocation.getArgument(0))));
+        when(orderRepository.insert(any(), anyString(), anyInt())).thenReturn(Mono.empty());
+
+        StepVerifier.create(orderService.createOrder(orderRequest))
+                .assertNext(submitted -> {
+                    assertThat(submitted.resent()).isFalse();
+                    assertThat(submitted.order().getOrderId()).isEqualTo("ORD-123");
+                    assertThat(submitted.order().getCustomer().getName()).isEqualTo("Test Customer");
+                })
+                .verifyComplete();
+
+        verify(orderRepository).insert(any(EnrichedOrder.class), contains("\"orderId\":\"ORD-123\""), eq(OrderDocumentStore.VERSION));
+    }
+
+    @Test
+    void whenOrderIdExists_thenFailsWithConflict() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(Mono.just(new Customer().id("CUST-456")));
+        when(referenceDataCache.getProduct(anyString())).thenAnswer(invocation -> Mono.just(product(invocation.getArgument(0))));
+        when(orderRepository.insert(any(), anyString(), anyInt())).thenReturn(Mono.error(new DuplicateKeyException("duplicate key")));
+        when(orderRepository.findDocument("ORD-123")).thenReturn(Mono.just(
+                "{\"orderId\":\"ORD-123\",\"timestamp\":\"2025-01-01T12:00:00Z\",\"customer\":{\"id\":\"CUST-999\"},"
+                        + "\"products\":[{\"id\":\"PROD-A1\"},{\"id\":\"PROD-B2\"}]}"));
+
+        StepVerifier.create(orderService.createOrder(orderRequest))
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                        .isInstanceOf(ResourceConflictException.class)
+                        .hasMessage("Order with ID 'ORD-123' already exists."))
+                .verify();
+    }
+
+    @Test
+    void whenFilterMissesButInsertFindsSameOrder_thenReturnsStoredOrder() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(Mono.just(new Customer().id("CUST-456")));
+        when(referenceDataCache.getProduct(anyString())).thenAnswer(invocation -> Mono.just(product(invocation.getArgument(0))));
+        // Stored by another node: this node's filter has never seen the ID
+        when(orderRepository.insert(any(), anyString(), anyInt())).thenReturn(Mono.error(new DuplicateKeyException("duplicate key")));
+        when(orderRepository.findDocument("ORD-123")).thenReturn(Mono.just(
+                "{\"orderId\":\"ORD-123\",\"timestamp\":\"2025-01-01T12:00:00Z\",\"customer\":{\"id\":\"CUST-456\"},"
+                        + "\"products\":[{\"id\":\"PROD-A1\"},{\"id\":\"PROD-B2\"}]}"));
+
+        StepVerifier.create(orderService.createOrder(orderRequest))
+                .assertNext(submitted -> {
+                    assertThat(submitted.resent()).isTrue();
+                    assertThat(submitted.order().getCustomer().getId()).isEqualTo("CUST-456");
+                })
+                .verifyComplete();
+
+        verify(orderIdFilter, never()).add(anyString());
+    }
+
+    @Test
+    void whenStoredOrderIsResent_thenReturnsItWithoutEnriching() {
+        when(orderIdFilter.mightContain("ORD-123")).thenReturn(true);
+        when(orderRepository.findDocument("ORD-123")).thenReturn(Mono.just(
+                "{\"orderId\":\"ORD-123\",\"timestamp\":\"2025-01-01T12:00:00Z\",\"customer\":{\"id\":\"CUST-456\"},"
+                        + "\"products\":[{\"id\":\"PROD-A1\"},{\"id\":\"PROD-B2\"}]}"));
+
+        StepVerifier.create(orderService.createOrder(orderRequest))
+                .assertNext(submitted -> {
+                    assertThat(submitted.resent()).isTrue();
+                    assertThat(submitted.order().getOrderId()).isEqualTo("ORD-123");
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(referenceDataCache);
+        verify(orderRepository, never()).insert(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void whenProductsAnswerOutOfOrder_thenProductsKeepRequestOrder() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(Mono.just(new Customer().id("CUST-456")));
+        when(referenceDataCache.getProduct("PROD-A1")).thenReturn(Mono.just(product("PROD-A1")).delayElement(Duration.ofMillis(50)));
+        when(referenceDataCache.getProduct("PROD-B2")).thenReturn(Mono.just(product("PROD-B2")));
+
+        StepVerifier.create(orderService.enrich(orderRequest))
+                .assertNext(order -> assertThat(order.getProducts())
+                        .extracting("productId")
+                        .containsExactly("PROD-A1", "PROD-B2"))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenCustomerServiceDoesNotAnswer_thenFailsAfterCallTimeout() {
+        when(referenceDataCache.getCustomer("CUST-456")).thenReturn(Mono.never());
+        when(referenceDataCache.getProduct(anyString())).thenAnswer(invocation -> Mono.just(product(invocation.getArgument(0))));
+
+        StepVerifier.create(orderService.enrich(orderRequest))
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                        .isInstanceOf(ServiceUnavailableException.class)
+                        .hasMessage("Customer service did not respond within 200 ms."))
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void whenDocumentIsMissing_thenReadsNormalizedTables() {
+        EnrichedOrder stored = order("ORD-123", OffsetDateTime.now());
+        when(orderRepository.findDocument("ORD-123")).thenReturn(Mono.empty());
+        when(orderRepository.findById("ORD-123")).thenReturn(Mono.just(stored));
+
+        StepVerifier.create(orderService.getOrderById("ORD-123"))
+                .assertNext(order -> assertThat(order.getOrderId()).isEqualTo("ORD-123"))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenStreamingOrders_thenFetchesPagesUntilOneIsShort() {
+        OffsetDateTime timestamp = OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        when(orderRepository.findPage(isNull(), isNull(), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(Flux.just(order("ORD-1", timestamp), order("ORD-2", timestamp)));
+        when(orderRepository.findPage(isNull(), isNull(), eq(timestamp), eq("ORD-2"), isNull(), eq(2)))
+                .thenReturn(Flux.just(order("ORD-3", timestamp)));
+
+        StepVerifier.create(orderService.streamOrders(null, null, null, null, 2).map(EnrichedOrderResponse::getOrderId))
+                .expectNext("ORD-1", "ORD-2", "ORD-3")
+                .verifyComplete();
+    }
+
+    private static EnrichedOrder order(String orderId, OffsetDateTime timestamp) {
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setTimestamp(timestamp);
+        order.setCustomer(new CustomerInfo());
+        order.setProducts(List.of());
+        return order;
+    }
+
+    private static Product product(String productId) {
+        return new Product().id(productId).price(BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,158 @@
+package com.teamviewer.orderenricher.service;
+
+import com.teamviewer.orderenricher.api.model.Customer;
+import com.teamviewer.orderenricher.api.model.Product;
+import com.teamviewer.orderenricher.client.CustomerServiceClient;
+import com.teamviewer.orderenricher.client.ProductBatchLoader;
+import com.teamviewer.orderenricher.client.ProductServiceClient;
+import com.teamviewer.orderenricher.config.ReferenceDataCacheProperties;
+import com.teamviewer.orderenricher.exception.ResourceNotFoundException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.service.EnrichmentExecutor.Downstream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    private static final ReferenceDataCacheProperties.Spec SPEC =
+            new ReferenceDataCacheProperties.Spec(100, 0, Duration.ofMinutes(10), Duration.ofMinutes(8));
+    private static final ReferenceDataCacheProperties PROPERTIES = new ReferenceDataCacheProperties(SPEC, SPEC,
+            new ReferenceDataCacheProperties.NotFound(100, Duration.ofMinutes(1)));
+
+    @Mock
+    private CustomerServiceClient customerClient;
+    @Mock
+    private ProductServiceClient productClient;
+    @Mock
+    private ProductBatchLoader productBatchLoader;
+
+    private final EnrichmentExecutor enrichmentExecutor = new EnrichmentExecutor(Duration.ofSeconds(5), Duration.ofSeconds(5));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotFoundCache notFoundCache;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        notFoundCache = new NotFoundCache(PROPERTIES, meterRegistry);
+        cache = new ReferenceDataCache(customerClient, productClient, productBatchLoader, enrichmentExecutor,
+                notFoundCache, PROPERTIES, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        enrichmentExecutor.shutdown();
+    }
+
+    @Test
+    void whenCustomerRequestedTwice_thenCallsDownstreamOnce() {
+        when(customerClient.getCustomerById("CUST-456")).thenReturn(new Customer().id("CUST-456"));
+
+        assertThat(cache.getCustomer("CUST-456").join().getId()).isEqualTo("CUST-456");
+        assertThat(cache.getCustomer("CUST-456").join().getId()).isEqualTo("CUST-456");
+
+        verify(customerClient, times(1)).getCustomerById("CUST-456");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "customers").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void whenFirstCallerRunsOutOfBudget_thenSharedLoadStillCompletesForOthers() {
+        EnrichmentExecutor shortBudget = new EnrichmentExecutor(Duration.ofSeconds(5), Duration.ofMillis(100));
+        ReferenceDataCache budgeted = new ReferenceDataCache(customerClient, productClient, productBatchLoader,
+                shortBudget, notFoundCache, PROPERTIES, meterRegistry);
+        when(customerClient.getCustomerById("CUST-456")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return new Customer().id("CUST-456");
+        });
+
+        try {
+            assertThrows(ServiceUnavailableException.class, () -> shortBudget.withinBudget(() -> {
+                shortBudget.awaitAll(List.of(budgeted.getCustomer("CUST-456")));
+                return null;
+            }));
+
+            // The second caller joins the load the first one started instead of starting over
+            assertThat(budgeted.getCustomer("CUST-456").join().getId()).isEqualTo("CUST-456");
+            verify(customerClient, times(1)).getCustomerById("CUST-456");
+        } finally {
+            shortBudget.shutdown();
+        }
+    }
+
+    @Test
+    void whenBatchingEnabled_thenProductMissesGoThroughBatchLoader() {
+        when(productBatchLoader.isEnabled()).thenReturn(true);
+        when(productBatchLoader.load("PROD-A1")).thenReturn(CompletableFuture.completedFuture(new Product().id("PROD-A1")));
+
+        assertThat(cache.getProduct("PROD-A1").join().getId()).isEqualTo("PROD-A1");
+        assertThat(cache.getProduct("PROD-A1").join().getId()).isEqualTo("PROD-A1");
+
+        verify(productBatchLoader, times(1)).load("PROD-A1");
+        verifyNoInteractions(productClient);
+    }
+
+    @Test
+    void whenLookupFails_thenFailureIsNotCached() throws InterruptedException {
+        when(productClient.getProductById("PROD-X9"))
+                .thenThrow(new ServiceUnavailableException("Product service is currently unavailable."))
+                .thenReturn(new Product().id("PROD-X9"));
+
+        CompletionException ex = assertThrows(CompletionException.class, () -> cache.getProduct("PROD-X9").join());
+        assertThat(ex.getCause()).isInstanceOf(ServiceUnavailableException.class);
+
+        // Caffeine drops the failed entry from a completion callback, so allow it a moment to run
+        CompletableFuture<Product> retry = cache.getProduct("PROD-X9");
+        for (int attempt = 0; attempt < 50 && retry.isCompletedExceptionally(); attempt++) {
+            Thread.sleep(10);
+            retry = cache.getProduct("PROD-X9");
+        }
+        assertThat(retry.join().getId()).isEqualTo("PROD-X9");
+    }
+
+    @Test
+    void whenCustomerNotFound_thenRepeatedLookupsFailWithoutCall() throws InterruptedException {
+        when(customerClient.getCustomerById("CUST-X9"))
+                .thenThrow(new ResourceNotFoundException("Customer with ID 'CUST-X9' not found."));
+
+        assertThrows(CompletionException.class, () -> cache.getCustomer("CUST-X9").join());
+        // The 404 is recorded from a completion callback, so allow it a moment to run
+        for (int attempt = 0; attempt < 50 && notFoundCache.find(Downstream.CUSTOMER, "CUST-X9") == null; attempt++) {
+            Thread.sleep(10);
+        }
+        CompletionException ex = assertThrows(CompletionException.class, () -> cache.getCustomer("CUST-X9").join());
+
+        assertThat(ex.getCause())
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Customer with ID 'CUST-X9' not found.");
+        verify(customerClient, times(1)).getCustomerById("CUST-X9");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "customers-not-found").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void whenNotFoundEntryIsEvicted_thenLooksUpAgain() {
+        when(productClient.getProductById("PROD-NEW")).thenReturn(new Product().id("PROD-NEW"));
+        notFoundCache.record(Downstream.PRODUCT, "PROD-NEW",
+                CompletableFuture.failedFuture(new ResourceNotFoundException("Product with ID 'PROD-NEW' not found.")));
+        assertThrows(CompletionException.class, () -> cache.getProduct("PROD-NEW").join());
+
+        new NotFoundCacheEndpoint(notFoundCache).evict(Downstream.PRODUCT, "PROD-NEW");
+
+        assertThat(cache.getProduct("PROD-NEW").join().getId()).isEqualTo("PROD-NEW");
+    }
+}
@@ -0,0 +1,154 @@
+package com.teamviewer.orderenricher.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
+import com.teamviewer.orderenricher.config.WriteBehindProperties;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.repository.OrderLogCheckpointRepository;
+import com.teamviewer.orderenricher.service.OrderBatchPersister;
+import com.teamviewer.orderenricher.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderLogDrainerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OrderStatusTracker statusTracker = new OrderStatusTracker();
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private OrderBatchPersister batchPersister;
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private OrderLogCheckpointRepository checkpointRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OrderLog orderLog;
+    private OrderLogDrainer drainer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        orderLog = OrderLog.open(directory, 4096);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        WriteBehindProperties properties = new WriteBehindProperties(true, directory, DataSize.ofKilobytes(4),
+                DataSize.ofMegabytes(1), 2, Duration.ofSeconds(1));
+        drainer = new OrderLogDrainer(orderLog, batchPersister, orderService, checkpointRepository, statusTracker,
+                transactionTemplate, objectMapper, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        orderLog.close();
+    }
+
+    @Test
+    void whenCheckpointIsStored_thenResumesAfterIt() throws Exception {
+        append("ORD-1");
+        long resumeAt = append("ORD-2");
+        append("ORD-3");
+        when(checkpointRepository.findPosition(orderLog.id())).thenReturn(OptionalLong.of(resumeAt));
+        when(batchPersister.persist(anyList())).thenReturn(Set.of("ORD-2", "ORD-3"));
+
+        int drained = drainer.drainNext();
+
+        assertThat(drained).isEqualTo(2);
+        verify(batchPersister).persist(argThat(orders -> orders.stream().map(EnrichedOrder::getOrderId).toList()
+                .equals(List.of("ORD-2", "ORD-3"))));
+        verify(checkpointRepository).savePosition(orderLog.id(), orderLog.endOffset());
+        assertThat(statusTracker.find("ORD-2")).isEmpty();
+        assertThat(orderLog.backlogBytes()).isZero();
+    }
+
+    @Test
+    void whenRecovering_thenUndrainedOrdersArePending() throws Exception {
+        append("ORD-1");
+        when(checkpointRepository.findPosition(orderLog.id())).thenReturn(OptionalLong.empty());
+        when(batchPersister.persist(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> drainer.drainNext()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(statusTracker.find("ORD-1")).get()
+                .extracting(OrderStatusResponse::getStatus).isEqualTo(OrderStatusResponse.StatusEnum.PENDING);
+    }
+
+    @Test
+    void whenOrderIdIsAlreadyStored_thenMarksOrderFailed() throws Exception {
+        append("ORD-1");
+        append("ORD-2");
+        when(checkpointRepository.findPosition(orderLog.id())).thenReturn(OptionalLong.empty());
+        when(batchPersister.persist(anyList())).thenReturn(Set.of("ORD-2"));
+
+        drainer.drainNext();
+
+        assertThat(statusTracker.find("ORD-1")).get()
+                .extracting(OrderStatusResponse::getStatus).isEqualTo(OrderStatusResponse.StatusEnum.FAILED);
+        assertThat(statusTracker.find("ORD-2")).isEmpty();
+    }
+
+    @Test
+    void whenSameOrderIsAlreadyStored_thenMarksOrderPersisted() throws Exception {
+        append("ORD-1");
+        when(checkpointRepository.findPosition(orderLog.id())).thenReturn(OptionalLong.empty());
+        when(batchPersister.persist(anyList())).thenReturn(Set.of());
+        when(orderService.isStored(argThat(order -> order.getOrderId().equals("ORD-1")))).thenReturn(true);
+
+        drainer.drainNext();
+
+        assertThat(statusTracker.find("ORD-1")).isEmpty();
+    }
+
+    @Test
+    void whenPersistFails_thenTheSameBatchIsRetried() throws Exception {
+        append("ORD-1");
+        when(checkpointRepository.findPosition(orderLog.id())).thenReturn(OptionalLong.empty());
+        when(batchPersister.persist(anyList()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(Set.of("ORD-1"));
+
+        assertThatThrownBy(() -> drainer.drainNext()).isInstanceOf(IllegalStateException.class);
+        int drained = drainer.drainNext();
+
+        assertThat(drained).isEqualTo(1);
+        verify(batchPersister, times(2)).persist(argThat(orders -> orders.get(0).getOrderId().equals("ORD-1")));
+        verify(checkpointRepository, times(1)).savePosition(anyString(), anyLong());
+    }
+
+    private long append(String orderId) throws Exception {
+        EnrichedOrder order = new EnrichedOrder();
+        order.setOrderId(orderId);
+        order.setTimestamp(OffsetDateTime.parse("2025-08-15T10:00:00Z"));
+        order.setProducts(List.of());
+        order.setTotalPrice(new BigDecimal("10.00"));
+        return orderLog.append(objectMapper.writeValueAsBytes(order)).join();
+    }
+}
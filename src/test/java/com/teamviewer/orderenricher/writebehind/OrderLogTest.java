@@ -0,0 +1,131 @@
+package com.teamviewer.orderenricher.writebehind;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenEntriesAppended_thenReadReturnsThemInOrder() throws Exception {
+        try (OrderLog orderLog = OrderLog.open(directory, 4096)) {
+            long first = orderLog.append(bytes("first")).join();
+            long second = orderLog.append(bytes("second")).join();
+
+            List<OrderLog.Entry> entries = orderLog.read(0, 10);
+
+            assertThat(entries).extracting(entry -> text(entry.payload())).containsExactly("first", "second");
+            assertThat(entries).extracting(OrderLog.Entry::offset).containsExactly(first, second);
+            assertThat(entries.get(1).nextOffset()).isEqualTo(orderLog.endOffset());
+            assertThat(orderLog.read(second, 10)).hasSize(1);
+        }
+    }
+
+    @Test
+    void whenReopened_thenKeepsEntriesAndAppendsAfterThem() throws Exception {
+        String id;
+        try (OrderLog orderLog = OrderLog.open(directory, 4096)) {
+            id = orderLog.id();
+            orderLog.append(bytes("before restart")).join();
+        }
+
+        try (OrderLog orderLog = OrderLog.open(directory, 4096)) {
+            orderLog.append(bytes("after restart")).join();
+
+            assertThat(orderLog.id()).isEqualTo(id);
+            assertThat(orderLog.read(0, 10)).extracting(entry -> text(entry.payload()))
+                    .containsExactly("before restart", "after restart");
+        }
+    }
+
+    @Test
+    void whenEntriesExceedSegment_thenRollsOverAndReleaseDeletesConsumedSegments() throws Exception {
+        try (OrderLog orderLog = OrderLog.open(directory, 64)) {
+            List<Long> offsets = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                // 8 byte header + 20 byte payload: two entries per segment
+                offsets.add(orderLog.append(bytes("entry-%014d".formatted(i))).join());
+            }
+            assertThat(segmentFiles()).hasSize(3);
+            assertThat(orderLog.read(0, 10)).hasSize(6);
+
+            orderLog.release(offsets.get(4));
+
+            assertThat(segmentFiles()).hasSize(1);
+            assertThat(orderLog.firstOffset()).isEqualTo(offsets.get(4));
+            assertThat(orderLog.backlogBytes()).isEqualTo(orderLog.endOffset() - offsets.get(4));
+            assertThat(orderLog.read(0, 10)).extracting(entry -> text(entry.payload()))
+                    .containsExactly("entry-00000000000004", "entry-00000000000005");
+        }
+    }
+
+    @Test
+    void whenTailIsTorn_thenReopenEndsAtLastValidEntry() throws Exception {
+        long tornOffset;
+        try (OrderLog orderLog = OrderLog.open(directory, 4096)) {
+            orderLog.append(bytes("intact")).join();
+            tornOffset = orderLog.append(bytes("torn")).join();
+        }
+        // Corrupt one payload byte of the second entry, as a partially flushed page would
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), tornOffset + OrderLog.HEADER_BYTES);
+        }
+
+        try (OrderLog orderLog = OrderLog.open(directory, 4096)) {
+            assertThat(orderLog.endOffset()).isEqualTo(tornOffset);
+            orderLog.append(bytes("next")).join();
+
+            assertThat(orderLog.read(0, 10)).extracting(entry -> text(entry.payload())).containsExactly("intact", "next");
+        }
+    }
+
+    @Test
+    void whenAppendedConcurrently_thenEveryEntryIsStoredOnce() throws Exception {
+        try (OrderLog orderLog = OrderLog.open(directory, 1 << 20);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Long>> appends = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                int n = i;
+                appends.add(CompletableFuture.supplyAsync(() -> orderLog.append(bytes("order-" + n)).join(), executor));
+            }
+            List<Long> offsets = appends.stream().map(CompletableFuture::join).toList();
+
+            assertThat(offsets).doesNotHaveDuplicates();
+            assertThat(orderLog.read(0, 1000)).hasSize(500)
+                    .extracting(entry -> text(entry.payload()))
+                    .doesNotHaveDuplicates();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package com.teamviewer.orderenricher.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamviewer.orderenricher.api.model.EnrichedOrderResponse;
+import com.teamviewer.orderenricher.api.model.OrderRequest;
+import com.teamviewer.orderenricher.api.model.OrderStatusResponse;
+import com.teamviewer.orderenricher.config.WriteBehindProperties;
+import com.teamviewer.orderenricher.domain.CustomerInfo;
+import com.teamviewer.orderenricher.domain.EnrichedOrder;
+import com.teamviewer.orderenricher.exception.ResourceConflictException;
+import com.teamviewer.orderenricher.exception.ServiceUnavailableException;
+import com.teamviewer.orderenricher.mapper.OrderMapper;
+import com.teamviewer.orderenricher.service.OrderService;
+import com.teamviewer.orderenricher.service.SubmittedOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindOrderServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OrderStatusTracker statusTracker = new OrderStatusTracker();
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderLog orderLog;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        orderLog = OrderLog.open(directory, 4096);
+        lenient().when(orderService.enrich(any())).thenAnswer(invocation -> {
+            OrderRequest request = invocation.getArgument(0);
+            EnrichedOrder order = new EnrichedOrder();
+            order.setOrderId(request.getOrderId());
+            order.setTimestamp(request.getTimestamp());
+            order.setCustomer(new CustomerInfo());
+            order.setProducts(List.of());
+            order.setTotalPrice(BigDecimal.ZERO);
+            return order;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        orderLog.close();
+    }
+
+    @Test
+    void whenOrderAccepted_thenItIsInTheLogAndPending() throws Exception {
+        SubmittedOrder submitted = service(DataSize.ofMegabytes(1)).acceptOrder(request("ORD-1"));
+
+        assertThat(submitted.resent()).isFalse();
+        assertThat(submitted.order().getOrderId()).isEqualTo("ORD-1");
+        List<OrderLog.Entry> entries = orderLog.read(0, 10);
+        assertThat(entries).hasSize(1);
+        assertThat(objectMapper.readValue(entries.get(0).payload(), EnrichedOrder.class).getOrderId()).isEqualTo("ORD-1");
+        assertThat(statusTracker.find("ORD-1")).get()
+                .extracting(OrderStatusResponse::getStatus).isEqualTo(OrderStatusResponse.StatusEnum.PENDING);
+    }
+
+    @Test
+    void whenOrderIsAlreadyStored_thenReturnsItWithoutLoggingIt() {
+        EnrichedOrderResponse stored = new EnrichedOrderResponse().orderId("ORD-1");
+        when(orderService.findResent(any())).thenReturn(Optional.of(stored));
+
+        SubmittedOrder submitted = service(DataSize.ofMegabytes(1)).acceptOrder(request("ORD-1"));
+
+        assertThat(submitted.resent()).isTrue();
+        assertThat(submitted.order()).isSameAs(stored);
+        assertThat(orderLog.read(0, 10)).isEmpty();
+        assertThat(statusTracker.find("ORD-1")).isEmpty();
+        verify(orderService, never()).enrich(any());
+    }
+
+    @Test
+    void whenSameOrderIdIsStillPending_thenThrowsConflict() {
+        WriteBehindOrderService service = service(DataSize.ofMegabytes(1));
+        service.acceptOrder(request("ORD-1"));
+
+        assertThatThrownBy(() -> service.acceptOrder(request("ORD-1"))).isInstanceOf(ResourceConflictException.class);
+        assertThat(orderLog.read(0, 10)).hasSize(1);
+    }
+
+    @Test
+    void whenBacklogIsFull_thenThrowsServiceUnavailable() {
+        WriteBehindOrderService service = service(DataSize.ofBytes(1));
+        service.acceptOrder(request("ORD-1"));
+
+        assertThatThrownBy(() -> service.acceptOrder(request("ORD-2"))).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(statusTracker.find("ORD-2")).isEmpty();
+    }
+
+    private WriteBehindOrderService service(DataSize maxBacklog) {
+        WriteBehindProperties properties = new WriteBehindProperties(true, directory, DataSize.ofKilobytes(4),
+                maxBacklog, 500, Duration.ofSeconds(5));
+        return new WriteBehindOrderService(orderService, new OrderMapper(), orderLog, statusTracker, objectMapper, properties);
+    }
+
+    private static OrderRequest request(String orderId) {
+        return new OrderRequest(orderId, "CUST-456", List.of("PROD-A1"), OffsetDateTime.parse("2025-08-15T10:00:00Z"));
+    }
+}